@@ -0,0 +1,15 @@
+-- Migration: Full-text search column and GIN index for products
+-- Date: 2026-10-18
+-- Description: search_vector is generated by PostgreSQL from name/product_code (weight A)
+--              and description (weight B). The application also applies this on startup.
+
+ALTER TABLE products
+ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(product_code, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+
+COMMENT ON COLUMN products.search_vector IS 'Weighted full-text search vector (name/code A, description B)';
@@ -0,0 +1,30 @@
+-- Migration: Accent-insensitive search with trigram typo tolerance
+-- Date: 2026-10-18
+-- Description: Accent-folded search columns (filled by the application on write and by a
+--              startup backfill), search_vector rebuilt from them, pg_trgm GIN indexes.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_name VARCHAR(320);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_description VARCHAR(2000);
+
+ALTER TABLE blogs ADD COLUMN IF NOT EXISTS search_title VARCHAR(255);
+ALTER TABLE blogs ADD COLUMN IF NOT EXISTS search_text TEXT;
+
+-- Rebuild search_vector from the folded columns (replaces the one from 010)
+ALTER TABLE products DROP COLUMN IF EXISTS search_vector;
+ALTER TABLE products
+ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(search_name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(search_description, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_products_search_name_trgm ON products USING GIN (search_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_blogs_search_title_trgm ON blogs USING GIN (search_title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_blogs_search_text_trgm ON blogs USING GIN (search_text gin_trgm_ops);
+
+COMMENT ON COLUMN products.search_name IS 'Accent-folded, lower-case name + product code';
+COMMENT ON COLUMN products.search_description IS 'Accent-folded, lower-case description';
+COMMENT ON COLUMN blogs.search_title IS 'Accent-folded, lower-case title';
+COMMENT ON COLUMN blogs.search_text IS 'Accent-folded, lower-case title + content';
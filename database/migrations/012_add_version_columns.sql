@@ -0,0 +1,9 @@
+-- Migration: Optimistic locking versions for products and categories
+-- Date: 2026-10-18
+-- Description: Version counters incremented on every update; used for HTTP ETags / If-Match
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN products.version IS 'Optimistic locking version, bumped on every update';
+COMMENT ON COLUMN categories.version IS 'Optimistic locking version, bumped on every update';
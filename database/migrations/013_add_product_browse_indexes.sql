@@ -0,0 +1,8 @@
+-- Migration: Composite indexes for product browsing
+-- Date: 2026-10-18
+-- Description: Serve /api/products/browse category + price/name filters and sorts from indexes
+
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON products (category_id, price, id);
+CREATE INDEX IF NOT EXISTS idx_products_category_name ON products (category_id, name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name, id);
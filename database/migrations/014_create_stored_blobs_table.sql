@@ -0,0 +1,14 @@
+-- Migration: Content-addressed image blobs
+-- Date: 2026-10-18
+-- Description: One row per stored image file (keyed by SHA-256) with the number of records referencing it
+
+CREATE TABLE IF NOT EXISTS stored_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    storage_key VARCHAR(200) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Blobs without references, for cleanup
+CREATE INDEX IF NOT EXISTS idx_stored_blobs_unreferenced ON stored_blobs (ref_count) WHERE ref_count = 0;
@@ -0,0 +1,22 @@
+-- Migration: Resumable upload sessions
+-- Date: 2026-10-18
+-- Description: Chunked image uploads in progress; the offset survives restarts so clients can resume
+
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    target_type VARCHAR(20) NOT NULL,
+    target_id BIGINT NOT NULL,
+    main_image BOOLEAN NOT NULL DEFAULT FALSE,
+    file_name VARCHAR(255),
+    total_size BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    sha256 VARCHAR(64),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    image_url VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    version BIGINT
+);
+
+-- Expired sessions are swept periodically
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires_at ON upload_sessions (expires_at);
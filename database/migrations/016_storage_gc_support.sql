@@ -0,0 +1,10 @@
+-- Migration: Orphaned image collector support
+-- Date: 2026-10-18
+-- Description: Track when a blob was last referenced, and index image URL columns for batched reference lookups
+
+ALTER TABLE stored_blobs ADD COLUMN IF NOT EXISTS last_referenced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_products_main_image_url ON products (main_image_url);
+CREATE INDEX IF NOT EXISTS idx_product_images_image_url ON product_images (image_url);
+CREATE INDEX IF NOT EXISTS idx_blogs_image_url ON blogs (image_url);
+CREATE INDEX IF NOT EXISTS idx_blog_images_image_url ON blog_images (image_url);
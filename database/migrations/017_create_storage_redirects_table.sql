@@ -0,0 +1,9 @@
+-- Migration: Storage redirects
+-- Date: 2026-10-18
+-- Description: Old flat-layout image paths (products/..., blogs/...) moved into the sharded blob store, for 301 redirects
+
+CREATE TABLE IF NOT EXISTS storage_redirects (
+    old_path VARCHAR(500) PRIMARY KEY,
+    new_key VARCHAR(200) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
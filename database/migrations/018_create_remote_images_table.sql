@@ -0,0 +1,15 @@
+-- Migration: Remote images
+-- Date: 2026-10-18
+-- Description: Index of images downloaded from external URLs (keyed by SHA-256 of the URL), with HTTP validators for revalidation
+
+CREATE TABLE IF NOT EXISTS remote_images (
+    url_hash VARCHAR(64) PRIMARY KEY,
+    source_url TEXT NOT NULL,
+    storage_key VARCHAR(200) NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    etag VARCHAR(500),
+    last_modified VARCHAR(100),
+    fetched_at TIMESTAMP NOT NULL,
+    validated_at TIMESTAMP NOT NULL
+);
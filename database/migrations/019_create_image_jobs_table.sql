@@ -0,0 +1,23 @@
+-- Migration: Image jobs
+-- Date: 2026-10-18
+-- Description: Queue of image downloads run by background workers (claimed with FOR UPDATE SKIP LOCKED, retried with backoff)
+
+CREATE TABLE IF NOT EXISTS image_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    target_type VARCHAR(20) NOT NULL,
+    target_id BIGINT NOT NULL,
+    main_image BOOLEAN NOT NULL DEFAULT FALSE,
+    source_url TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    run_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    image_url VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+-- Workers poll for due jobs by status and run_at
+CREATE INDEX IF NOT EXISTS idx_image_jobs_status_run_at ON image_jobs (status, run_at);
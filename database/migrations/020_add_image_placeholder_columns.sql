@@ -0,0 +1,20 @@
+-- Migration: Image dimensions and placeholders
+-- Date: 2026-10-18
+-- Description: Width, height, dominant color and BlurHash of product and blog images, so the storefront can reserve layout space and paint a placeholder before the image loads
+
+ALTER TABLE product_images
+ADD COLUMN IF NOT EXISTS width INTEGER,
+ADD COLUMN IF NOT EXISTS height INTEGER,
+ADD COLUMN IF NOT EXISTS dominant_color VARCHAR(7),
+ADD COLUMN IF NOT EXISTS blur_hash VARCHAR(64);
+
+ALTER TABLE blog_images
+ADD COLUMN IF NOT EXISTS width INTEGER,
+ADD COLUMN IF NOT EXISTS height INTEGER,
+ADD COLUMN IF NOT EXISTS dominant_color VARCHAR(7),
+ADD COLUMN IF NOT EXISTS blur_hash VARCHAR(64);
+
+COMMENT ON COLUMN product_images.dominant_color IS 'Most frequent color as #rrggbb';
+COMMENT ON COLUMN product_images.blur_hash IS 'BlurHash (https://blurha.sh) of the image, NULL until computed';
+COMMENT ON COLUMN blog_images.dominant_color IS 'Most frequent color as #rrggbb';
+COMMENT ON COLUMN blog_images.blur_hash IS 'BlurHash (https://blurha.sh) of the image, NULL until computed';
@@ -0,0 +1,14 @@
+package vn.quahoa.flowershop.cache;
+
+public record CacheStats(
+    long hits,
+    long misses,
+    long evictions,
+    int size,
+    int maxEntries) {
+
+  public double hitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 0.0 : (double) hits / requests;
+  }
+}
@@ -0,0 +1,307 @@
+package vn.quahoa.flowershop.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.CatalogCacheProperties;
+import vn.quahoa.flowershop.dto.product.ProductResponse;
+
+/**
+ * In-process cache for the storefront catalog.
+ * <p>
+ * Two object tiers: {@link ProductResponse} objects by product id, and listings (all products,
+ * products of one category) stored as ordered id lists. A listing hit is rebuilt from the
+ * product tier, so a single product edit only evicts that product.
+ * <p>
+ * On top of them, a payload tier keeps the hottest responses already serialized to JSON
+ * bytes (plus gzip) so a hit skips both mapping and Jackson entirely.
+ * <p>
+ * Writers call the {@code product*} / {@code category*} methods; evictions run after the
+ * surrounding transaction commits so a concurrent reader cannot re-cache uncommitted state.
+ */
+@Slf4j
+@Component
+public class CatalogCache {
+
+  public static final String ALL_PRODUCTS = "all";
+
+  private final boolean enabled;
+  private final BoundedTtlCache<Long, ProductResponse> products;
+  private final BoundedTtlCache<String, List<Long>> listings;
+  private final BoundedTtlCache<String, EncodedPayload> payloads;
+  private final ObjectMapper objectMapper;
+
+  // Bumped on every invalidation; loads that raced with a write are not stored
+  private final AtomicLong generation = new AtomicLong();
+
+  public CatalogCache(CatalogCacheProperties properties, ObjectMapper objectMapper) {
+    this.enabled = properties.isEnabled();
+    this.products = new BoundedTtlCache<>(properties.getMaxEntries(), properties.getTtl());
+    this.listings = new BoundedTtlCache<>(properties.getMaxEntries(), properties.getTtl());
+    this.payloads = new BoundedTtlCache<>(properties.getMaxEntries(), properties.getTtl());
+    this.objectMapper = objectMapper;
+  }
+
+  public static String categoryKey(Long categoryId) {
+    return "category:" + categoryId;
+  }
+
+  public static String productKey(Long productId) {
+    return "product:" + productId;
+  }
+
+  // ============================================
+  // READS
+  // ============================================
+
+  public ProductResponse product(Long id, Supplier<Optional<ProductResponse>> loader) {
+    if (!enabled) {
+      return loader.get().orElse(null);
+    }
+    ProductResponse cached = products.get(id);
+    if (cached != null) {
+      return cached;
+    }
+    long observed = generation.get();
+    ProductResponse loaded = loader.get().orElse(null);
+    if (loaded != null && observed == generation.get()) {
+      products.put(id, loaded);
+    }
+    return loaded;
+  }
+
+  /**
+   * Looks the ids up in the product tier and batch-loads the rest in one call.
+   *
+   * @return found products by id; ids that do not exist are absent
+   */
+  public Map<Long, ProductResponse> products(Collection<Long> ids,
+      Function<Collection<Long>, List<ProductResponse>> batchLoader) {
+    Map<Long, ProductResponse> found = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long id : ids) {
+      ProductResponse product = enabled ? products.get(id) : null;
+      if (product != null) {
+        found.put(id, product);
+      } else {
+        missing.add(id);
+      }
+    }
+    if (!missing.isEmpty()) {
+      long observed = generation.get();
+      List<ProductResponse> loaded = batchLoader.apply(missing);
+      boolean store = enabled && observed == generation.get();
+      for (ProductResponse product : loaded) {
+        found.put(product.getId(), product);
+        if (store) {
+          products.put(product.getId(), product);
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Returns a cached listing, loading only the products missing from the product tier.
+   *
+   * @param key         listing key, {@link #ALL_PRODUCTS} or {@link #categoryKey(Long)}
+   * @param loader      loads the full listing on a listing miss
+   * @param batchLoader loads a set of products by id on partial product misses
+   */
+  public List<ProductResponse> listing(String key, Supplier<List<ProductResponse>> loader,
+      Function<Collection<Long>, List<ProductResponse>> batchLoader) {
+    if (!enabled) {
+      return loader.get();
+    }
+
+    long observed = generation.get();
+    List<Long> ids = listings.get(key);
+    if (ids != null) {
+      List<ProductResponse> cached = fromProductTier(ids, batchLoader, observed);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    List<ProductResponse> loaded = loader.get();
+    if (observed == generation.get()) {
+      List<Long> loadedIds = new ArrayList<>(loaded.size());
+      for (ProductResponse product : loaded) {
+        products.put(product.getId(), product);
+        loadedIds.add(product.getId());
+      }
+      listings.put(key, List.copyOf(loadedIds));
+    }
+    return loaded;
+  }
+
+  /**
+   * Returns the serialized body for a key, serializing whatever the loader returns on a miss.
+   *
+   * @param key    {@link #ALL_PRODUCTS}, {@link #categoryKey(Long)} or {@link #productKey(Long)}
+   * @param loader produces the response object (usually served from the object tiers)
+   */
+  public EncodedPayload payload(String key, Supplier<?> loader) {
+    EncodedPayload cached = enabled ? payloads.get(key) : null;
+    if (cached != null) {
+      return cached;
+    }
+    long observed = generation.get();
+    EncodedPayload encoded = encode(loader.get());
+    if (enabled && observed == generation.get()) {
+      payloads.put(key, encoded);
+    }
+    return encoded;
+  }
+
+  private EncodedPayload encode(Object body) {
+    try {
+      return EncodedPayload.of(objectMapper.writeValueAsBytes(body));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize catalog payload", e);
+    }
+  }
+
+  private List<ProductResponse> fromProductTier(List<Long> ids,
+      Function<Collection<Long>, List<ProductResponse>> batchLoader, long observed) {
+    Map<Long, ProductResponse> found = new LinkedHashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long id : ids) {
+      ProductResponse product = products.get(id);
+      if (product != null) {
+        found.put(id, product);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      Map<Long, ProductResponse> loaded = new HashMap<>();
+      for (ProductResponse product : batchLoader.apply(missing)) {
+        loaded.put(product.getId(), product);
+      }
+      if (loaded.size() != missing.size()) {
+        // The listing is out of date (a product vanished); reload it as a whole
+        return null;
+      }
+      if (observed == generation.get()) {
+        loaded.forEach(products::put);
+      }
+      found.putAll(loaded);
+    }
+
+    List<ProductResponse> result = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      result.add(found.get(id));
+    }
+    return result;
+  }
+
+  // ============================================
+  // INVALIDATION
+  // ============================================
+
+  /**
+   * Product fields or images changed but it stayed in the same listings.
+   * Its id lists stay valid, but the serialized listings embedding it do not.
+   */
+  public void productChanged(Long productId, Long categoryId) {
+    afterCommit(() -> {
+      products.remove(productId);
+      evictPayloads(productId, categoryId);
+    });
+  }
+
+  /**
+   * Product changed and possibly moved between categories.
+   */
+  public void productMoved(Long productId, Long oldCategoryId, Long newCategoryId) {
+    afterCommit(() -> {
+      products.remove(productId);
+      listings.remove(categoryKey(oldCategoryId));
+      listings.remove(categoryKey(newCategoryId));
+      evictPayloads(productId, oldCategoryId);
+      payloads.remove(categoryKey(newCategoryId));
+    });
+  }
+
+  public void productAdded(Long productId, Long categoryId) {
+    afterCommit(() -> {
+      products.remove(productId);
+      listings.remove(ALL_PRODUCTS);
+      listings.remove(categoryKey(categoryId));
+      evictPayloads(productId, categoryId);
+    });
+  }
+
+  public void productRemoved(Long productId, Long categoryId) {
+    afterCommit(() -> {
+      products.remove(productId);
+      listings.remove(ALL_PRODUCTS);
+      listings.remove(categoryKey(categoryId));
+      evictPayloads(productId, categoryId);
+    });
+  }
+
+  private void evictPayloads(Long productId, Long categoryId) {
+    payloads.remove(productKey(productId));
+    payloads.remove(ALL_PRODUCTS);
+    payloads.remove(categoryKey(categoryId));
+  }
+
+  /**
+   * Category renamed or deleted: every cached product may embed its name, drop everything.
+   */
+  public void categoryChanged(Long categoryId) {
+    afterCommit(this::invalidateAll);
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    products.clear();
+    listings.clear();
+    payloads.clear();
+    log.debug("Catalog cache cleared");
+  }
+
+  public Map<String, CacheStats> stats() {
+    Map<String, CacheStats> stats = new LinkedHashMap<>();
+    stats.put("products", products.stats());
+    stats.put("listings", listings.stats());
+    stats.put("payloads", payloads.stats());
+    return stats;
+  }
+
+  private void afterCommit(Runnable eviction) {
+    Runnable bumped = () -> {
+      generation.incrementAndGet();
+      eviction.run();
+    };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          bumped.run();
+        }
+      });
+    } else {
+      bumped.run();
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package vn.quahoa.flowershop.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once: UTF-8 JSON and its gzip-compressed form.
+ * The arrays are shared between requests and must never be modified.
+ */
+public record EncodedPayload(byte[] json, byte[] gzip) {
+
+  // Appended to the ETag of the gzip body, which is a different representation than the JSON
+  public static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+  public static EncodedPayload of(byte[] json) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+    try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+      gzipStream.write(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new EncodedPayload(json, compressed.toByteArray());
+  }
+
+  public long size() {
+    return (long) json.length + gzip.length;
+  }
+}
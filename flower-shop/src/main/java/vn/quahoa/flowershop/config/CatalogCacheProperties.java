@@ -0,0 +1,31 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.catalog-cache")
+public class CatalogCacheProperties {
+
+  /**
+   * Bật/tắt cache danh mục sản phẩm trong bộ nhớ
+   */
+  private boolean enabled = true;
+
+  /**
+   * Số lượng phần tử tối đa của mỗi cache (sản phẩm, danh sách id)
+   * Vượt quá sẽ loại bỏ phần tử ít dùng nhất (LRU)
+   */
+  private int maxEntries = 10_000;
+
+  /**
+   * Thời gian sống của mỗi phần tử trong cache
+   * Ví dụ: 10m, 1h
+   */
+  private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,56 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.image-download")
+public class ImageDownloadProperties {
+
+  /**
+   * Số ảnh tải song song tối đa trong một request
+   */
+  private int maxConcurrency = 4;
+
+  /**
+   * Tổng thời gian tối đa cho tất cả các lượt tải của một request
+   * Ảnh chưa tải xong khi hết hạn sẽ bị hủy và báo lỗi
+   */
+  private Duration deadline = Duration.ofSeconds(30);
+
+  /**
+   * Thời gian chờ kết nối tới máy chủ ảnh
+   */
+  private Duration connectTimeout = Duration.ofSeconds(5);
+
+  /**
+   * Thời gian chờ phản hồi (tới khi nhận được header) của mỗi lượt tải
+   */
+  private Duration requestTimeout = Duration.ofSeconds(15);
+
+  /**
+   * Dung lượng tối đa của một ảnh, kiểm tra trong khi tải (không tin Content-Length)
+   * Ví dụ: 10MB
+   */
+  private DataSize maxSize = DataSize.ofMegabytes(10);
+
+  /**
+   * Ảnh đã tải từ cùng một URL được dùng lại mà không hỏi lại máy chủ trong khoảng này;
+   * sau đó được kiểm tra lại bằng GET có điều kiện (ETag / Last-Modified)
+   */
+  private Duration cacheFreshFor = Duration.ofHours(1);
+
+  /**
+   * Các Content-Type được chấp nhận
+   */
+  private List<String> allowedContentTypes = new ArrayList<>(List.of(
+      "image/jpeg", "image/png", "image/gif", "image/webp", "image/avif", "image/bmp"));
+}
@@ -0,0 +1,54 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.image-jobs")
+public class ImageJobProperties {
+
+  /**
+   * Số worker xử lý ảnh chạy song song trên mỗi instance
+   */
+  private int workers = 4;
+
+  /**
+   * Chu kỳ kiểm tra hàng đợi khi có worker rảnh
+   */
+  private Duration pollInterval = Duration.ofSeconds(1);
+
+  /**
+   * Số lần thử tối đa của một job trước khi báo thất bại
+   */
+  private int maxAttempts = 5;
+
+  /**
+   * Thời gian chờ trước lần thử lại đầu tiên; nhân đôi sau mỗi lần thất bại
+   */
+  private Duration initialBackoff = Duration.ofSeconds(10);
+
+  /**
+   * Thời gian chờ tối đa giữa hai lần thử
+   */
+  private Duration maxBackoff = Duration.ofMinutes(10);
+
+  /**
+   * Job đang chạy quá thời gian này (worker bị tắt giữa chừng) sẽ được worker khác nhận lại
+   */
+  private Duration lease = Duration.ofMinutes(5);
+
+  /**
+   * Job đã xong được giữ lại để tra cứu trạng thái trong khoảng thời gian này
+   */
+  private Duration retention = Duration.ofDays(7);
+
+  /**
+   * Chu kỳ xóa các job đã hết thời gian lưu giữ
+   */
+  private Duration cleanupInterval = Duration.ofHours(1);
+}
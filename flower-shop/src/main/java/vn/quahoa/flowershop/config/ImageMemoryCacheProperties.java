@@ -0,0 +1,29 @@
+package vn.quahoa.flowershop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.image-memory-cache")
+public class ImageMemoryCacheProperties {
+
+  /**
+   * Giữ ảnh nhỏ hay được xem (thumbnail) trong bộ nhớ ngoài heap để /images/** không phải đọc đĩa
+   */
+  private boolean enabled = true;
+
+  /**
+   * Tổng dung lượng tối đa của cache; vượt quá sẽ loại ảnh ít dùng nhất (LRU)
+   * Tính vào -XX:MaxDirectMemorySize chứ không phải heap
+   */
+  private DataSize maxBytes = DataSize.ofMegabytes(64);
+
+  /**
+   * Chỉ cache file nhỏ hơn hoặc bằng kích thước này; file lớn hơn vẫn đọc từ đĩa (sendfile)
+   */
+  private DataSize maxFileSize = DataSize.ofKilobytes(256);
+}
@@ -0,0 +1,33 @@
+package vn.quahoa.flowershop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.image-normalization")
+public class ImageNormalizationProperties {
+
+  /**
+   * Chuẩn hóa ảnh tải lên (xoay theo EXIF, xóa metadata, thu nhỏ, nén lại) trước khi lưu
+   * Tắt thì file được lưu nguyên vẹn như trước
+   */
+  private boolean enabled = true;
+
+  /**
+   * Cạnh dài tối đa (px); ảnh lớn hơn được thu nhỏ giữ nguyên tỉ lệ
+   */
+  private int maxDimension = 2560;
+
+  /**
+   * Chất lượng nén JPEG khi nén lại (0.0 - 1.0)
+   */
+  private float quality = 0.85f;
+
+  /**
+   * Giữ file gốc (kèm EXIF) cạnh ảnh đã chuẩn hóa, không public, bị xóa cùng ảnh
+   */
+  private boolean keepOriginal = false;
+}
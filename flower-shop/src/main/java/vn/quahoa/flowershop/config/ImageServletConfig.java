@@ -0,0 +1,37 @@
+package vn.quahoa.flowershop.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.service.ImageVariantService;
+import vn.quahoa.flowershop.service.StorageRedirectService;
+import vn.quahoa.flowershop.storage.ImageMemoryCache;
+import vn.quahoa.flowershop.storage.ImageServlet;
+
+@Configuration
+@RequiredArgsConstructor
+public class ImageServletConfig {
+
+  private final StorageProperties storageProperties;
+  private final ImageVariantService imageVariantService;
+  private final StorageRedirectService storageRedirectService;
+  private final ImageMemoryCache imageMemoryCache;
+
+  /**
+   * Serve uploaded files from the configured storage path with a dedicated servlet, so image
+   * requests bypass the DispatcherServlet (and, see SecurityConfig, the security filters)
+   */
+  @Bean
+  public ServletRegistrationBean<ImageServlet> imageServlet() {
+    ImageServlet servlet = new ImageServlet(Paths.get(storageProperties.getLocalPath()), imageVariantService,
+        storageRedirectService::find, imageMemoryCache);
+    ServletRegistrationBean<ImageServlet> registration = new ServletRegistrationBean<>(servlet, "/images/*");
+    registration.setName("imageServlet");
+    registration.setLoadOnStartup(1);
+    return registration;
+  }
+}
@@ -0,0 +1,46 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.image-variants")
+public class ImageVariantProperties {
+
+  /**
+   * Bật/tắt ảnh thu nhỏ qua tham số ?w= (tắt thì luôn trả ảnh gốc)
+   */
+  private boolean enabled = true;
+
+  /**
+   * Các chiều rộng (px) được phép; ?w= được làm tròn lên preset gần nhất
+   * Admin có thể đổi lúc chạy qua /api/admins/image-variants/presets
+   */
+  private List<Integer> widths = List.of(160, 320, 640, 1024);
+
+  /**
+   * Chất lượng nén JPEG (0.0 - 1.0)
+   */
+  private float quality = 0.82f;
+
+  /**
+   * Số luồng resize chạy song song
+   */
+  private int workers = 2;
+
+  /**
+   * Số ảnh chờ resize tối đa; khi đầy thì trả ảnh gốc thay vì xếp hàng
+   */
+  private int queueCapacity = 64;
+
+  /**
+   * Thời gian request chờ ảnh được tạo trước khi trả ảnh gốc
+   */
+  private Duration waitTimeout = Duration.ofSeconds(10);
+}
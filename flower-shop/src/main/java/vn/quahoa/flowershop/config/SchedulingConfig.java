@@ -0,0 +1,12 @@
+package vn.quahoa.flowershop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} housekeeping jobs (e.g. expired upload sessions)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,63 @@
+package vn.quahoa.flowershop.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.quahoa.flowershop.model.Blog;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.BlogRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+/**
+ * Fills the accent-folded search columns for rows written before they existed.
+ * New and updated rows maintain them through entity callbacks.
+ * <p>
+ * The folded values come from the same callbacks, but only the search columns are written back, one
+ * batched UPDATE per batch: saving the entities would move every blog's {@code updatedAt} and every
+ * product's version (and with it the product ETags).
+ */
+@Configuration
+public class SearchTextInitializer {
+
+  private static final Logger logger = LoggerFactory.getLogger(SearchTextInitializer.class);
+  private static final int BATCH_SIZE = 200;
+
+  @Bean
+  public CommandLineRunner backfillSearchText(ProductRepository productRepository, BlogRepository blogRepository,
+      JdbcTemplate jdbcTemplate) {
+    return args -> {
+      int products = 0;
+      List<Product> productBatch;
+      while (!(productBatch = productRepository.findWithoutSearchColumns(PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+        productBatch.forEach(Product::updateSearchColumns);
+        jdbcTemplate.batchUpdate("UPDATE products SET search_name = ?, search_description = ? WHERE id = ?",
+            productBatch.stream()
+                .map(product -> new Object[] {product.getSearchName(), product.getSearchDescription(), product.getId()})
+                .toList());
+        products += productBatch.size();
+      }
+
+      int blogs = 0;
+      List<Blog> blogBatch;
+      while (!(blogBatch = blogRepository.findWithoutSearchColumns(PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+        blogBatch.forEach(Blog::updateSearchColumns);
+        jdbcTemplate.batchUpdate("UPDATE blogs SET search_title = ?, search_text = ? WHERE id = ?",
+            blogBatch.stream()
+                .map(blog -> new Object[] {blog.getSearchTitle(), blog.getSearchText(), blog.getId()})
+                .toList());
+        blogs += blogBatch.size();
+      }
+
+      if (products > 0 || blogs > 0) {
+        logger.info("Backfilled search columns for {} products and {} blogs", products, blogs);
+      }
+    };
+  }
+}
@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -37,6 +38,14 @@ public class SecurityConfig {
     return new BCryptPasswordEncoder();
   }
 
+  /**
+   * Images are public and served by ImageServlet; skip the security filter chain entirely
+   */
+  @Bean
+  public WebSecurityCustomizer webSecurityCustomizer() {
+    return web -> web.ignoring().requestMatchers("/images/**");
+  }
+
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
     http
@@ -53,9 +62,13 @@ public class SecurityConfig {
             .requestMatchers("/api/admins/login", "/api/admins/refresh").permitAll()
             // Products - GET is public, POST/PUT/DELETE require ADMIN
             .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
+            // Batch lookup is a read that takes its ids in the body
+            .requestMatchers(HttpMethod.POST, "/api/products/batch").permitAll()
             .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
             .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
             .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
+            // Compact v2 read endpoints are public
+            .requestMatchers(HttpMethod.GET, "/api/v2/products/**", "/api/v2/categories/**").permitAll()
             // Categories - GET is public, POST/PUT/DELETE require ADMIN
             .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
             .requestMatchers(HttpMethod.POST, "/api/categories/**").hasRole("ADMIN")
@@ -63,10 +76,10 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.DELETE, "/api/categories/**").hasRole("ADMIN")
             // Blogs - public read only (admin endpoints are under /api/admins/blogs/**)
             .requestMatchers(HttpMethod.GET, "/api/blogs/**").permitAll()
-            // Static resources
-            .requestMatchers("/images/**").permitAll()
             // Admin protected endpoints
             .requestMatchers("/api/admins/**").hasRole("ADMIN")
+            // Status of queued image jobs
+            .requestMatchers("/api/jobs/**").hasRole("ADMIN")
             // User protected endpoints
             .requestMatchers("/api/users/**").hasRole("USER")
             // Other protected endpoints
@@ -90,6 +103,8 @@ public class SecurityConfig {
         "http://127.0.0.1:8081"));
     configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
     configuration.setAllowedHeaders(List.of("*"));
+    // Let the frontend read ETags so it can send If-None-Match / If-Match
+    configuration.setExposedHeaders(List.of("ETag"));
     configuration.setAllowCredentials(true);
     configuration.setMaxAge(3600L);
 
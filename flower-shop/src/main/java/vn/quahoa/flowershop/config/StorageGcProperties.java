@@ -0,0 +1,62 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.storage-gc")
+public class StorageGcProperties {
+
+  /**
+   * Bật/tắt việc dọn ảnh không còn được sản phẩm/blog nào dùng (báo cáo dry-run vẫn dùng được)
+   */
+  private boolean enabled = true;
+
+  /**
+   * true: chuyển ảnh mồ côi vào .storage-gc/quarantine để có thể khôi phục; false: xóa hẳn
+   */
+  private boolean quarantine = true;
+
+  /**
+   * Ảnh mới hơn khoảng này không bị dọn (có thể đang được lưu cùng sản phẩm/blog)
+   */
+  private Duration gracePeriod = Duration.ofHours(24);
+
+  /**
+   * Thời gian giữ ảnh trong quarantine trước khi xóa hẳn
+   */
+  private Duration quarantineRetention = Duration.ofDays(7);
+
+  /**
+   * Số file kiểm tra mỗi lượt; cùng với interval quyết định tốc độ quét
+   */
+  private int batchSize = 200;
+
+  /**
+   * Khoảng nghỉ giữa hai lượt quét
+   */
+  private Duration interval = Duration.ofMinutes(1);
+
+  /**
+   * Thời gian chờ sau khi khởi động trước lượt quét đầu tiên
+   */
+  private Duration initialDelay = Duration.ofMinutes(5);
+
+  /**
+   * Khoảng nghỉ sau mỗi file bị dọn, để không tranh I/O với việc phục vụ ảnh
+   */
+  private Duration deletionPause = Duration.ofMillis(50);
+
+  /**
+   * Các tiền tố URL cũ (ví dụ domain trước đây) vẫn còn trong database, ngoài app.storage.base-url
+   * và app.upload.base-url + /images/
+   */
+  private List<String> extraUrlPrefixes = new ArrayList<>();
+}
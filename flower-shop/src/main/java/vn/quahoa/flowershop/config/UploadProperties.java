@@ -0,0 +1,35 @@
+package vn.quahoa.flowershop.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.uploads")
+public class UploadProperties {
+
+  /**
+   * Dung lượng tối đa của một file tải lên theo từng phần (resumable upload)
+   */
+  private DataSize maxSize = DataSize.ofMegabytes(100);
+
+  /**
+   * Dung lượng tối đa của một phần (chunk); client nên gửi phần nhỏ hơn trên mạng yếu
+   */
+  private DataSize maxChunkSize = DataSize.ofMegabytes(8);
+
+  /**
+   * Phiên tải lên hết hạn nếu không nhận thêm phần nào trong khoảng thời gian này
+   */
+  private Duration sessionTtl = Duration.ofHours(24);
+
+  /**
+   * Chu kỳ dọn các phiên hết hạn và file tạm của chúng
+   */
+  private Duration cleanupInterval = Duration.ofMinutes(15);
+}
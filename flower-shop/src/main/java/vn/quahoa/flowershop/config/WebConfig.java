@@ -1,22 +0,0 @@
-package vn.quahoa.flowershop.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.lang.NonNull;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-import lombok.RequiredArgsConstructor;
-
-@Configuration
-@RequiredArgsConstructor
-public class WebConfig implements WebMvcConfigurer {
-
-  private final StorageProperties storageProperties;
-
-  @Override
-  public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-    // Serve uploaded files from configured storage path
-    registry.addResourceHandler("/images/**")
-        .addResourceLocations("file:" + storageProperties.getLocalPath() + "/");
-  }
-}
@@ -1,5 +1,6 @@
 package vn.quahoa.flowershop.controller;
 
+import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,7 +25,11 @@ import vn.quahoa.flowershop.dto.blog.BlogCreateRequest;
 import vn.quahoa.flowershop.dto.blog.BlogResponse;
 import vn.quahoa.flowershop.dto.blog.BlogUpdateRequest;
 import vn.quahoa.flowershop.dto.image.ImageUrlRequest;
+import vn.quahoa.flowershop.dto.image.ImageUrlsRequest;
+import vn.quahoa.flowershop.dto.job.ImageJobResponse;
+import vn.quahoa.flowershop.model.ImageJob;
 import vn.quahoa.flowershop.service.BlogService;
+import vn.quahoa.flowershop.service.ImageJobService;
 
 @RestController
 @RequestMapping("/api")
@@ -32,6 +37,7 @@ import vn.quahoa.flowershop.service.BlogService;
 public class BlogController {
 
   private final BlogService blogService;
+  private final ImageJobService imageJobService;
 
   @PostMapping("/admins/blogs")
   @ResponseStatus(HttpStatus.CREATED)
@@ -108,10 +114,9 @@ public class BlogController {
    * Upload main/featured image from URL
    */
   @PostMapping("/admins/blogs/{id}/images/main-url")
-  public ResponseEntity<String> uploadMainBlogImageFromUrl(@PathVariable Long id,
+  public ResponseEntity<ImageJobResponse> uploadMainBlogImageFromUrl(@PathVariable Long id,
       @Valid @RequestBody ImageUrlRequest request) {
-    String imageUrl = blogService.uploadMainBlogImageFromUrl(id, request.getImageUrl());
-    return ResponseEntity.ok(imageUrl);
+    return accepted(imageJobService.enqueue(ImageJob.Target.BLOG, id, true, request.getImageUrl()));
   }
 
   /**
@@ -127,9 +132,25 @@ public class BlogController {
    * Upload additional image from URL
    */
   @PostMapping("/admins/blogs/{id}/images/url")
-  public ResponseEntity<String> uploadBlogImageFromUrl(@PathVariable Long id, @Valid @RequestBody ImageUrlRequest request) {
-    String imageUrl = blogService.uploadBlogImageFromUrl(id, request.getImageUrl());
-    return ResponseEntity.ok(imageUrl);
+  public ResponseEntity<ImageJobResponse> uploadBlogImageFromUrl(@PathVariable Long id, @Valid @RequestBody ImageUrlRequest request) {
+    return accepted(imageJobService.enqueue(ImageJob.Target.BLOG, id, false, request.getImageUrl()));
+  }
+
+  /**
+   * Upload several additional images from URLs at once: one job per URL, run in parallel by the workers
+   */
+  @PostMapping("/admins/blogs/{id}/images/urls")
+  public ResponseEntity<List<ImageJobResponse>> uploadBlogImagesFromUrls(@PathVariable Long id,
+      @Valid @RequestBody ImageUrlsRequest request) {
+    return ResponseEntity.accepted()
+        .body(imageJobService.enqueueAll(ImageJob.Target.BLOG, id, false, request.getImageUrls()));
+  }
+
+  /**
+   * 202 with the queued job, to poll at /api/jobs/{id}
+   */
+  private static ResponseEntity<ImageJobResponse> accepted(ImageJobResponse job) {
+    return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
   }
 
   // ============================================
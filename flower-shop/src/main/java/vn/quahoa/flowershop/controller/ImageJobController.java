@@ -0,0 +1,26 @@
+package vn.quahoa.flowershop.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.dto.job.ImageJobResponse;
+import vn.quahoa.flowershop.service.ImageJobService;
+
+/**
+ * Status of queued image jobs (admin only, see SecurityConfig); poll until SUCCEEDED or FAILED.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class ImageJobController {
+
+  private final ImageJobService imageJobService;
+
+  @GetMapping("/{id}")
+  public ImageJobResponse getJob(@PathVariable Long id) {
+    return imageJobService.getJob(id);
+  }
+}
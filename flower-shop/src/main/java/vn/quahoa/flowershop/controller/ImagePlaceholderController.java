@@ -0,0 +1,42 @@
+package vn.quahoa.flowershop.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.service.ImagePlaceholderBackfill;
+
+/**
+ * Computes dimensions and BlurHash placeholders for images stored before they were computed at
+ * upload (secured by the /api/admins/** rule).
+ */
+@RestController
+@RequestMapping("/api/admins/image-placeholders")
+@RequiredArgsConstructor
+public class ImagePlaceholderController {
+
+  private final ImagePlaceholderBackfill imagePlaceholderBackfill;
+
+  @PostMapping("/backfill")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public ImagePlaceholderBackfill.Progress startBackfill(@RequestParam(defaultValue = "100") int batchSize,
+      @RequestParam(defaultValue = "4") int parallelism) {
+    if (batchSize < 1 || batchSize > 1000) {
+      throw new IllegalArgumentException("batchSize must be between 1 and 1000");
+    }
+    if (parallelism < 1 || parallelism > 16) {
+      throw new IllegalArgumentException("parallelism must be between 1 and 16");
+    }
+    return imagePlaceholderBackfill.start(batchSize, parallelism);
+  }
+
+  @GetMapping("/backfill")
+  public ImagePlaceholderBackfill.Progress backfillProgress() {
+    return imagePlaceholderBackfill.progress();
+  }
+}
@@ -0,0 +1,35 @@
+package vn.quahoa.flowershop.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.dto.image.ImageVariantPresetsRequest;
+import vn.quahoa.flowershop.service.ImageVariantService;
+
+/**
+ * Width presets allowed for {@code /images/**?w=} (secured by the /api/admins/** rule).
+ */
+@RestController
+@RequestMapping("/api/admins/image-variants")
+@RequiredArgsConstructor
+public class ImageVariantController {
+
+  private final ImageVariantService imageVariantService;
+
+  @GetMapping("/presets")
+  public List<Integer> presets() {
+    return imageVariantService.getPresets();
+  }
+
+  @PutMapping("/presets")
+  public List<Integer> updatePresets(@Valid @RequestBody ImageVariantPresetsRequest request) {
+    return imageVariantService.updatePresets(request.getWidths());
+  }
+}
@@ -0,0 +1,76 @@
+package vn.quahoa.flowershop.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.cache.CacheStats;
+import vn.quahoa.flowershop.cache.CatalogCache;
+import vn.quahoa.flowershop.service.ImageDownloadService;
+import vn.quahoa.flowershop.service.ImageJobWorker;
+import vn.quahoa.flowershop.service.ImageNormalizer;
+import vn.quahoa.flowershop.service.ImageVariantService;
+import vn.quahoa.flowershop.service.OrphanImageCollector;
+import vn.quahoa.flowershop.service.RemoteImageCache;
+import vn.quahoa.flowershop.storage.ImageMemoryCache;
+
+/**
+ * Operational counters for admins (secured by the /api/admins/** rule).
+ */
+@RestController
+@RequestMapping("/api/admins/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+  private final CatalogCache catalogCache;
+  private final ImageDownloadService imageDownloadService;
+  private final ImageMemoryCache imageMemoryCache;
+  private final ImageJobWorker imageJobWorker;
+  private final ImageNormalizer imageNormalizer;
+  private final ImageVariantService imageVariantService;
+  private final OrphanImageCollector orphanImageCollector;
+  private final RemoteImageCache remoteImageCache;
+
+  @GetMapping("/catalog-cache")
+  public Map<String, CacheStats> catalogCache() {
+    return catalogCache.stats();
+  }
+
+  @GetMapping("/image-downloads")
+  public ImageDownloadService.Stats imageDownloads() {
+    return imageDownloadService.stats();
+  }
+
+  @GetMapping("/image-variants")
+  public ImageVariantService.Stats imageVariants() {
+    return imageVariantService.stats();
+  }
+
+  @GetMapping("/image-jobs")
+  public ImageJobWorker.Stats imageJobs() {
+    return imageJobWorker.stats();
+  }
+
+  @GetMapping("/image-memory-cache")
+  public ImageMemoryCache.Stats imageMemoryCache() {
+    return imageMemoryCache.stats();
+  }
+
+  @GetMapping("/image-normalization")
+  public ImageNormalizer.Stats imageNormalization() {
+    return imageNormalizer.stats();
+  }
+
+  @GetMapping("/remote-images")
+  public RemoteImageCache.Stats remoteImages() {
+    return remoteImageCache.stats();
+  }
+
+  @GetMapping("/storage-gc")
+  public OrphanImageCollector.Stats storageGc() {
+    return orphanImageCollector.stats();
+  }
+}
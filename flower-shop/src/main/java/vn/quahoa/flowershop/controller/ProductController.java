@@ -1,9 +1,13 @@
 package vn.quahoa.flowershop.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,19 +15,37 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.cache.EncodedPayload;
 import vn.quahoa.flowershop.dto.image.ImageUrlRequest;
+import vn.quahoa.flowershop.dto.job.ImageJobResponse;
+import vn.quahoa.flowershop.dto.product.ProductBatchRequest;
+import vn.quahoa.flowershop.dto.product.ProductBatchResponse;
+import vn.quahoa.flowershop.dto.product.ProductBrowseResponse;
 import vn.quahoa.flowershop.dto.product.ProductCreateRequest;
+import vn.quahoa.flowershop.dto.product.ProductPageResponse;
 import vn.quahoa.flowershop.dto.product.ProductResponse;
+import vn.quahoa.flowershop.dto.product.ProductSuggestion;
 import vn.quahoa.flowershop.dto.product.ProductUpdateRequest;
+import vn.quahoa.flowershop.model.ImageJob;
+import vn.quahoa.flowershop.service.ImageJobService;
 import vn.quahoa.flowershop.service.ProductService;
+import vn.quahoa.flowershop.util.AcceptEncoding;
 
 @RestController
 @RequestMapping("/api")
@@ -31,33 +53,150 @@ import vn.quahoa.flowershop.service.ProductService;
 public class ProductController {
 
   private final ProductService productService;
+  private final ImageJobService imageJobService;
+  private final ObjectMapper objectMapper;
 
   @PostMapping("/products")
   @ResponseStatus(HttpStatus.CREATED)
   public ProductResponse createProduct(@Valid @RequestBody ProductCreateRequest request) {
-    return ProductResponse.fromEntity(productService.createProduct(request));
+    return productService.createProduct(request);
   }
 
+  /**
+   * Multipart variant: a JSON {@code product} part plus optional {@code image} and {@code images} file
+   * parts, streamed into storage instead of being sent as base64 inside the JSON.
+   */
+  @PostMapping(value = "/products", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public ProductResponse createProductMultipart(@Valid @RequestPart("product") ProductCreateRequest request,
+      @RequestPart(value = "image", required = false) MultipartFile image,
+      @RequestPart(value = "images", required = false) List<MultipartFile> images) {
+    return productService.createProduct(request, image, images);
+  }
+
+  /**
+   * Optional {@code fields=id,name,price,imageUrl} returns only those fields (selected at the query level).
+   */
   @GetMapping("/products")
-  public List<ProductResponse> getAllProducts(@RequestParam(required = false) String search) {
+  public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String search,
+      @RequestParam(required = false) Integer page,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest webRequest) {
     if (search != null && !search.trim().isEmpty()) {
-      return productService.searchProducts(search).stream()
-          .map(ProductResponse::fromEntity)
-          .collect(Collectors.toList());
+      // Ranked by relevance; page/size paginate the search results only
+      return ResponseEntity.ok(productService.searchProducts(search, page, size));
+    }
+    boolean gzip = sendsGzip(fields, acceptEncoding);
+    if (webRequest.checkNotModified(encodingETag(productService.getCatalogETag(), gzip))) {
+      return null;
+    }
+    if (fields != null && !fields.isBlank()) {
+      return ResponseEntity.ok(productService.getAllProductFields(fields));
+    }
+    return encoded(productService.getAllProductsPayload(), gzip);
+  }
+
+  /**
+   * Cursor-paginated listing. Sort by id (default), price or name; pass nextCursor back to continue.
+   */
+  @GetMapping("/products/page")
+  public ProductPageResponse getProductPage(@RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) String sort) {
+    return productService.getProductPage(cursor, size, sort);
+  }
+
+  /**
+   * Loads several products in one call, e.g. {@code /products/batch?ids=3,1,7}; order is preserved.
+   */
+  @GetMapping("/products/batch")
+  public ProductBatchResponse getProductsBatch(@RequestParam List<Long> ids) {
+    return productService.getProductsByIds(ids);
+  }
+
+  /**
+   * Same as the GET variant for id lists too long for a query string.
+   */
+  @PostMapping("/products/batch")
+  public ProductBatchResponse postProductsBatch(@Valid @RequestBody ProductBatchRequest request) {
+    return productService.getProductsByIds(request.getIds());
+  }
+
+  /**
+   * Typeahead: top products whose name (any word) or code starts with q, most viewed first.
+   */
+  @GetMapping("/products/suggest")
+  public List<ProductSuggestion> suggestProducts(@RequestParam String q,
+      @RequestParam(required = false) Integer limit) {
+    return productService.suggestProducts(q, limit);
+  }
+
+  /**
+   * Storefront browsing: optional category, price range and keyword filters, sort
+   * (price, price_desc, name, newest) and page/size, with category and price-range facet counts.
+   */
+  @GetMapping("/products/browse")
+  public ProductBrowseResponse browseProducts(@RequestParam(required = false) Long categoryId,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) Integer page,
+      @RequestParam(required = false) Integer size) {
+    return productService.browseProducts(categoryId, minPrice, maxPrice, q, sort, page, size);
+  }
+
+  /**
+   * Streams the whole catalog as a JSON array, written row by row as the database delivers it.
+   */
+  @GetMapping("/products/stream")
+  public void streamProducts(HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding("UTF-8");
+    try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+      generator.writeStartArray();
+      productService.streamProducts(product -> {
+        try {
+          generator.writeObject(product);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      generator.writeEndArray();
     }
-    return productService.getAllProducts().stream()
-        .map(ProductResponse::fromEntity)
-        .collect(Collectors.toList());
   }
 
   @GetMapping("/products/{id}")
-  public ProductResponse getProduct(@PathVariable Long id) {
-    return ProductResponse.fromEntity(productService.getById(id));
+  public ResponseEntity<?> getProduct(@PathVariable Long id,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest webRequest) {
+    boolean gzip = sendsGzip(fields, acceptEncoding);
+    String eTag = productService.getProductETag(id);
+    if (eTag != null && webRequest.checkNotModified(encodingETag(eTag, gzip))) {
+      return null;
+    }
+    ResponseEntity<?> response = fields != null && !fields.isBlank()
+        ? ResponseEntity.ok(productService.getProductFields(id, fields))
+        : encoded(productService.getProductPayload(id), gzip);
+    // Only full responses count as views, revalidations (304) do not
+    productService.recordProductView(id);
+    return response;
   }
 
+  /**
+   * Send the product's ETag as If-Match to reject the update (412) when someone else saved it first.
+   */
   @PutMapping("/products/{id}")
-  public ProductResponse updateProduct(@PathVariable Long id, @Valid @RequestBody ProductUpdateRequest request) {
-    return ProductResponse.fromEntity(productService.updateProduct(id, request));
+  public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody ProductUpdateRequest request) {
+    ProductResponse updated = ProductResponse.fromEntity(productService.updateProduct(id, request, ifMatch));
+    return ResponseEntity.ok()
+        .eTag(productService.getProductETag(id))
+        .body(updated);
   }
 
   @DeleteMapping("/products/{id}")
@@ -67,10 +206,47 @@ public class ProductController {
   }
 
   @GetMapping("/categories/{categoryId}/products")
-  public List<ProductResponse> getProductsByCategory(@PathVariable Long categoryId) {
-    return productService.getByCategory(categoryId).stream()
-        .map(ProductResponse::fromEntity)
-        .collect(Collectors.toList());
+  public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest webRequest) {
+    boolean gzip = sendsGzip(fields, acceptEncoding);
+    if (webRequest.checkNotModified(encodingETag(productService.getCategoryETag(categoryId), gzip))) {
+      return null;
+    }
+    if (fields != null && !fields.isBlank()) {
+      return ResponseEntity.ok(productService.getCategoryProductFields(categoryId, fields));
+    }
+    return encoded(productService.getCategoryPayload(categoryId), gzip);
+  }
+
+  /**
+   * Whether the response is the cached gzip body: only full (no {@code fields}) listings are pre-compressed.
+   */
+  private static boolean sendsGzip(String fields, String acceptEncoding) {
+    return (fields == null || fields.isBlank()) && AcceptEncoding.accepts(acceptEncoding, "gzip");
+  }
+
+  /**
+   * A strong ETag names one exact representation, so the gzip bytes get a tag of their own.
+   */
+  private static String encodingETag(String eTag, boolean gzip) {
+    return gzip ? eTag + EncodedPayload.GZIP_ETAG_SUFFIX : eTag;
+  }
+
+  /**
+   * Writes a cached, pre-serialized body as-is (gzip when the client accepts it), skipping Jackson.
+   */
+  private ResponseEntity<byte[]> encoded(EncodedPayload payload, boolean gzip) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .contentLength(payload.gzip().length)
+          .body(payload.gzip());
+    }
+    return builder.contentLength(payload.json().length).body(payload.json());
   }
 
   // ============================================
@@ -87,13 +263,13 @@ public class ProductController {
   }
 
   /**
-   * Upload an additional image for a product (from URL)
+   * Upload an additional image for a product (from URL): queued, 202 with the job to poll at /api/jobs/{id}
    */
   @PostMapping("/products/{id}/images/url")
-  public ResponseEntity<String> uploadProductImageFromUrl(@PathVariable Long id,
+  public ResponseEntity<ImageJobResponse> uploadProductImageFromUrl(@PathVariable Long id,
       @RequestBody @Valid ImageUrlRequest request) {
-    String imageUrl = productService.uploadProductImageFromUrl(id, request.getImageUrl());
-    return ResponseEntity.ok(imageUrl);
+    ImageJobResponse job = imageJobService.enqueue(ImageJob.Target.PRODUCT, id, false, request.getImageUrl());
+    return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
   }
 
   /**
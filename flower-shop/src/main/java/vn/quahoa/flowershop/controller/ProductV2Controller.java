@@ -0,0 +1,61 @@
+package vn.quahoa.flowershop.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.service.ProductService;
+
+/**
+ * Read-only product endpoints returning the compact v2 shape
+ * ({@link vn.quahoa.flowershop.dto.product.ProductV2Response}). {@code fields=} works as in v1.
+ */
+@RestController
+@RequestMapping("/api/v2")
+@RequiredArgsConstructor
+public class ProductV2Controller {
+
+  private final ProductService productService;
+
+  @GetMapping("/products")
+  public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String fields, WebRequest webRequest) {
+    if (webRequest.checkNotModified(productService.getCatalogETag())) {
+      return null;
+    }
+    if (fields != null && !fields.isBlank()) {
+      return ResponseEntity.ok(productService.getAllProductFields(fields));
+    }
+    return ResponseEntity.ok(productService.getAllProductsV2());
+  }
+
+  @GetMapping("/products/{id}")
+  public ResponseEntity<?> getProduct(@PathVariable Long id, @RequestParam(required = false) String fields,
+      WebRequest webRequest) {
+    productService.recordProductView(id);
+    String eTag = productService.getProductETag(id);
+    if (eTag != null && webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    if (fields != null && !fields.isBlank()) {
+      return ResponseEntity.ok(productService.getProductFields(id, fields));
+    }
+    return ResponseEntity.ok(productService.getProductV2(id));
+  }
+
+  @GetMapping("/categories/{categoryId}/products")
+  public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId,
+      @RequestParam(required = false) String fields, WebRequest webRequest) {
+    if (webRequest.checkNotModified(productService.getCategoryETag(categoryId))) {
+      return null;
+    }
+    if (fields != null && !fields.isBlank()) {
+      return ResponseEntity.ok(productService.getCategoryProductFields(categoryId, fields));
+    }
+    return ResponseEntity.ok(productService.getByCategoryV2(categoryId));
+  }
+}
@@ -0,0 +1,38 @@
+package vn.quahoa.flowershop.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.service.OrphanImageCollector;
+
+/**
+ * Dry-run view of the orphaned image collector (secured by the /api/admins/** rule).
+ */
+@RestController
+@RequestMapping("/api/admins/storage-gc")
+@RequiredArgsConstructor
+public class StorageGcController {
+
+  private static final int MAX_REPORT_FILES = 100_000;
+
+  private final OrphanImageCollector orphanImageCollector;
+
+  @GetMapping("/report")
+  public OrphanImageCollector.Report report(@RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "5000") int limit) {
+    if (limit < 1 || limit > MAX_REPORT_FILES) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_REPORT_FILES);
+    }
+    try {
+      return orphanImageCollector.report(after, limit);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
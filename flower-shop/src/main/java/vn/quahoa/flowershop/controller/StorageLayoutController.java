@@ -0,0 +1,43 @@
+package vn.quahoa.flowershop.controller;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.service.StorageLayoutMigrator;
+
+/**
+ * Moves legacy flat-directory images into the sharded blob layout (secured by the /api/admins/** rule).
+ */
+@RestController
+@RequestMapping("/api/admins/storage-layout")
+@RequiredArgsConstructor
+public class StorageLayoutController {
+
+  private final StorageLayoutMigrator storageLayoutMigrator;
+
+  @PostMapping("/migration")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public StorageLayoutMigrator.Progress startMigration(@RequestParam(defaultValue = "100") int batchSize,
+      @RequestParam(defaultValue = "200") long pauseMillis) {
+    if (batchSize < 1 || batchSize > 1000) {
+      throw new IllegalArgumentException("batchSize must be between 1 and 1000");
+    }
+    if (pauseMillis < 0 || pauseMillis > 60_000) {
+      throw new IllegalArgumentException("pauseMillis must be between 0 and 60000");
+    }
+    return storageLayoutMigrator.start(batchSize, Duration.ofMillis(pauseMillis));
+  }
+
+  @GetMapping("/migration")
+  public StorageLayoutMigrator.Progress migrationProgress() {
+    return storageLayoutMigrator.progress();
+  }
+}
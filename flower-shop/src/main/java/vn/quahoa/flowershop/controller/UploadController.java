@@ -0,0 +1,102 @@
+package vn.quahoa.flowershop.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.config.UploadProperties;
+import vn.quahoa.flowershop.dto.upload.UploadSessionRequest;
+import vn.quahoa.flowershop.dto.upload.UploadSessionResponse;
+import vn.quahoa.flowershop.model.UploadSession;
+import vn.quahoa.flowershop.service.UploadSessionService;
+
+/**
+ * Resumable image uploads (secured by the /api/admins/** rule).
+ * <p>
+ * POST opens a session, each PUT appends one chunk at {@code Upload-Offset} with an
+ * {@code Upload-Checksum: sha256 <base64>} header, HEAD/GET tells a client where to resume, and
+ * POST /complete attaches the image to its product or blog.
+ */
+@RestController
+@RequestMapping("/api/admins/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+  static final String UPLOAD_OFFSET = "Upload-Offset";
+  static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+
+  private final UploadSessionService uploadSessionService;
+  private final UploadProperties uploadProperties;
+
+  @PostMapping
+  public ResponseEntity<UploadSessionResponse> createSession(@Valid @RequestBody UploadSessionRequest request) {
+    UploadSession session = uploadSessionService.createSession(request);
+    return ResponseEntity.created(URI.create("/api/admins/uploads/" + session.getId()))
+        .header(UPLOAD_OFFSET, "0")
+        .body(toResponse(session));
+  }
+
+  @RequestMapping(value = "/{id}", method = {RequestMethod.GET, RequestMethod.HEAD})
+  public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String id) {
+    return withOffset(uploadSessionService.getSession(id));
+  }
+
+  @PutMapping("/{id}")
+  public ResponseEntity<UploadSessionResponse> appendChunk(@PathVariable String id,
+      @RequestHeader(UPLOAD_OFFSET) long offset,
+      @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+      HttpServletRequest request) {
+    try (InputStream body = request.getInputStream()) {
+      return withOffset(uploadSessionService.appendChunk(id, offset, checksum, body));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @PostMapping("/{id}/complete")
+  public UploadSessionResponse complete(@PathVariable String id) {
+    try {
+      return toResponse(uploadSessionService.complete(id));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void abort(@PathVariable String id) {
+    try {
+      uploadSessionService.abort(id);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ResponseEntity<UploadSessionResponse> withOffset(UploadSession session) {
+    return ResponseEntity.ok()
+        .header(UPLOAD_OFFSET, String.valueOf(session.getReceivedBytes()))
+        .body(toResponse(session));
+  }
+
+  private UploadSessionResponse toResponse(UploadSession session) {
+    return UploadSessionResponse.fromEntity(session, uploadProperties.getMaxChunkSize().toBytes());
+  }
+}
@@ -54,6 +54,11 @@ public class BlogResponse {
     private String imageUrl;
     private String fileName;
     private Integer displayOrder;
+    // Null until computed; lets clients reserve space and paint a placeholder before the image loads
+    private Integer width;
+    private Integer height;
+    private String dominantColor;
+    private String blurHash;
 
     public static BlogImageResponse fromEntity(BlogImage image) {
       BlogImageResponse response = new BlogImageResponse();
@@ -61,6 +66,10 @@ public class BlogResponse {
       response.setImageUrl(image.getImageUrl());
       response.setFileName(image.getFileName());
       response.setDisplayOrder(image.getDisplayOrder());
+      response.setWidth(image.getWidth());
+      response.setHeight(image.getHeight());
+      response.setDominantColor(image.getDominantColor());
+      response.setBlurHash(image.getBlurHash());
       return response;
     }
   }
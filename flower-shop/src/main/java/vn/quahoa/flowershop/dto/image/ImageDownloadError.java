@@ -0,0 +1,7 @@
+package vn.quahoa.flowershop.dto.image;
+
+/**
+ * A remote image that could not be downloaded; the rest of the request still succeeded.
+ */
+public record ImageDownloadError(String url, String error) {
+}
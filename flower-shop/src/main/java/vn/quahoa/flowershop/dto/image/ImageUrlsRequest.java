@@ -0,0 +1,14 @@
+package vn.quahoa.flowershop.dto.image;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ImageUrlsRequest {
+  @NotEmpty
+  @Size(max = 20, message = "At most 20 image URLs per request")
+  private List<String> imageUrls;
+}
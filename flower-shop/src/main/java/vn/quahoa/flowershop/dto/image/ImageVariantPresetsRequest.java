@@ -0,0 +1,13 @@
+package vn.quahoa.flowershop.dto.image;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ImageVariantPresetsRequest {
+  @NotEmpty
+  private List<@NotNull Integer> widths;
+}
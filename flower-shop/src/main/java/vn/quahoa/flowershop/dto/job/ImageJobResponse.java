@@ -0,0 +1,47 @@
+package vn.quahoa.flowershop.dto.job;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import vn.quahoa.flowershop.model.ImageJob;
+
+@Data
+public class ImageJobResponse {
+  private Long id;
+  private ImageJob.Target targetType;
+  private Long targetId;
+  private boolean mainImage;
+  private String sourceUrl;
+  private ImageJob.Status status;
+  private int attempts;
+  private int maxAttempts;
+  // When a queued job runs next (after a failed attempt: the end of its backoff)
+  private LocalDateTime nextAttemptAt;
+  private String lastError;
+  // Set once succeeded
+  private String imageUrl;
+  private LocalDateTime createdAt;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  public static ImageJobResponse fromEntity(ImageJob job, int maxAttempts) {
+    ImageJobResponse response = new ImageJobResponse();
+    response.setId(job.getId());
+    response.setTargetType(job.getTargetType());
+    response.setTargetId(job.getTargetId());
+    response.setMainImage(job.isMainImage());
+    response.setSourceUrl(job.getSourceUrl());
+    response.setStatus(job.getStatus());
+    response.setAttempts(job.getAttempts());
+    response.setMaxAttempts(maxAttempts);
+    if (job.getStatus() == ImageJob.Status.QUEUED) {
+      response.setNextAttemptAt(job.getRunAt());
+    }
+    response.setLastError(job.getLastError());
+    response.setImageUrl(job.getImageUrl());
+    response.setCreatedAt(job.getCreatedAt());
+    response.setStartedAt(job.getStartedAt());
+    response.setFinishedAt(job.getFinishedAt());
+    return response;
+  }
+}
@@ -0,0 +1,16 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+/**
+ * Fixed price ranges (VND) used for the price facet. {@code min} is inclusive, {@code max} exclusive;
+ * null means unbounded.
+ */
+public record PriceBucket(Long min, Long max) {
+
+  public static final List<PriceBucket> BUCKETS = List.of(
+      new PriceBucket(null, 200_000L),
+      new PriceBucket(200_000L, 500_000L),
+      new PriceBucket(500_000L, 1_000_000L),
+      new PriceBucket(1_000_000L, null));
+}
@@ -0,0 +1,13 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class ProductBatchRequest {
+
+  @NotEmpty(message = "At least one product id is required")
+  private List<Long> ids;
+}
@@ -0,0 +1,13 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductBatchResponse {
+  // In the requested order, duplicates removed
+  private List<ProductResponse> items;
+  // Requested ids that do not exist (e.g. products deleted since they were added to a cart)
+  private List<Long> missingIds;
+}
@@ -0,0 +1,22 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * Criteria of a browse request. Every field except {@code sort} is optional (null = no filter).
+ *
+ * @param keyword already folded with {@code TextNormalizer}
+ */
+public record ProductBrowseFilter(
+    Long categoryId,
+    Double minPrice,
+    Double maxPrice,
+    String keyword,
+    ProductBrowseSort sort) {
+
+  public boolean hasPriceRange() {
+    return minPrice != null || maxPrice != null;
+  }
+
+  public boolean hasKeyword() {
+    return keyword != null && !keyword.isEmpty();
+  }
+}
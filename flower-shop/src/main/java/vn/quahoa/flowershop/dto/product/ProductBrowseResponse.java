@@ -0,0 +1,23 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductBrowseResponse {
+  private List<ProductResponse> items;
+  private int page;
+  private int size;
+  private long totalElements;
+  private int totalPages;
+  // Counts per category ignore the category filter, counts per price range ignore the price filter
+  private List<CategoryFacet> categories;
+  private List<PriceRangeFacet> priceRanges;
+
+  public record CategoryFacet(Long categoryId, String categoryName, long count) {
+  }
+
+  public record PriceRangeFacet(Long min, Long max, long count) {
+  }
+}
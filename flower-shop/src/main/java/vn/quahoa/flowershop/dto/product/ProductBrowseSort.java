@@ -0,0 +1,35 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.Locale;
+
+/**
+ * Sort orders accepted by the browse endpoint ({@code ?sort=price|price_desc|name|newest}).
+ * Ids are assigned in insertion order, so "newest" is the highest id first.
+ */
+public enum ProductBrowseSort {
+  PRICE("p.price ASC, p.id ASC"),
+  PRICE_DESC("p.price DESC, p.id ASC"),
+  NAME("p.name ASC, p.id ASC"),
+  NEWEST("p.id DESC");
+
+  private final String orderBy;
+
+  ProductBrowseSort(String orderBy) {
+    this.orderBy = orderBy;
+  }
+
+  public String orderBy() {
+    return orderBy;
+  }
+
+  public static ProductBrowseSort from(String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return NEWEST;
+    }
+    try {
+      return ProductBrowseSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+  }
+}
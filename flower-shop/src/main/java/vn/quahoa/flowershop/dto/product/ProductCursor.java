@@ -0,0 +1,47 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last product on the previous page.
+ * Encoded as URL-safe base64 of {@code SORT:id:value} so clients never depend on its shape.
+ */
+public record ProductCursor(ProductSort sort, Long id, String value) {
+
+  public static ProductCursor after(ProductSort sort, Long id, String name, double price) {
+    String value = switch (sort) {
+      case ID -> "";
+      case PRICE -> Double.toString(price);
+      case NAME -> name;
+    };
+    return new ProductCursor(sort, id, value);
+  }
+
+  public String encode() {
+    String raw = sort.name() + ":" + id + ":" + (value != null ? value : "");
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public double priceValue() {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  public static ProductCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":", 3);
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new ProductCursor(ProductSort.valueOf(parts[0]), Long.valueOf(parts[1]), parts[2]);
+    } catch (IllegalArgumentException e) {
+      // Also covers bad base64, unknown sort names and NumberFormatException
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * One group of the facet query: products of a category falling in a price bucket.
+ *
+ * @param bucket       index into {@link PriceBucket#BUCKETS}
+ * @param total        products in the group, ignoring the price filter
+ * @param inPriceRange products in the group that also pass the price filter
+ */
+public record ProductFacetRow(
+    Long categoryId,
+    String categoryName,
+    Integer bucket,
+    Long total,
+    Long inPriceRange) {
+}
@@ -0,0 +1,65 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Fields selectable with {@code ?fields=}, named as in {@link ProductResponse}.
+ * Each maps to the JPQL path selected for it; {@code images} is loaded by a separate query.
+ */
+public enum ProductField {
+  ID("id", "p.id"),
+  PRODUCT_CODE("productCode", "p.productCode"),
+  NAME("name", "p.name"),
+  DESCRIPTION("description", "p.description"),
+  PRICE("price", "p.price"),
+  IMAGE_URL("imageUrl", "p.mainImageUrl"),
+  CATEGORY_ID("categoryId", "p.category.id"),
+  CATEGORY_NAME("categoryName", "c.name"),
+  IMAGES("images", null);
+
+  private final String jsonName;
+  private final String path;
+
+  ProductField(String jsonName, String path) {
+    this.jsonName = jsonName;
+    this.path = path;
+  }
+
+  public String jsonName() {
+    return jsonName;
+  }
+
+  /**
+   * @return the selected JPQL expression, null for fields not backed by a products column
+   */
+  public String path() {
+    return path;
+  }
+
+  /**
+   * Parses a comma-separated list such as {@code id,name,price,imageUrl}.
+   * The id is always included so clients can key the results.
+   */
+  public static Set<ProductField> parse(String fields) {
+    Set<ProductField> parsed = EnumSet.of(ID);
+    for (String name : fields.split(",")) {
+      String trimmed = name.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      parsed.add(fromJsonName(trimmed));
+    }
+    return parsed;
+  }
+
+  private static ProductField fromJsonName(String name) {
+    for (ProductField field : values()) {
+      if (field.jsonName.toLowerCase(Locale.ROOT).equals(name.toLowerCase(Locale.ROOT))) {
+        return field;
+      }
+    }
+    throw new IllegalArgumentException("Unknown product field: " + name);
+  }
+}
@@ -9,6 +9,11 @@ public class ProductImageResponse {
   private String imageUrl;
   private String fileName;
   private Integer displayOrder;
+  // Null until computed; lets clients reserve space and paint a placeholder before the image loads
+  private Integer width;
+  private Integer height;
+  private String dominantColor;
+  private String blurHash;
 
   public static ProductImageResponse fromEntity(ProductImage image) {
     ProductImageResponse response = new ProductImageResponse();
@@ -16,6 +21,23 @@ public class ProductImageResponse {
     response.setImageUrl(image.getImageUrl());
     response.setFileName(image.getFileName());
     response.setDisplayOrder(image.getDisplayOrder());
+    response.setWidth(image.getWidth());
+    response.setHeight(image.getHeight());
+    response.setDominantColor(image.getDominantColor());
+    response.setBlurHash(image.getBlurHash());
+    return response;
+  }
+
+  public static ProductImageResponse fromRow(ProductImageRow row) {
+    ProductImageResponse response = new ProductImageResponse();
+    response.setId(row.id());
+    response.setImageUrl(row.imageUrl());
+    response.setFileName(row.fileName());
+    response.setDisplayOrder(row.displayOrder());
+    response.setWidth(row.width());
+    response.setHeight(row.height());
+    response.setDominantColor(row.dominantColor());
+    response.setBlurHash(row.blurHash());
     return response;
   }
 }
@@ -0,0 +1,16 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * Flat projection of an additional product image, batch-loaded by product id.
+ */
+public record ProductImageRow(
+    Long productId,
+    Long id,
+    String imageUrl,
+    String fileName,
+    Integer displayOrder,
+    Integer width,
+    Integer height,
+    String dominantColor,
+    String blurHash) {
+}
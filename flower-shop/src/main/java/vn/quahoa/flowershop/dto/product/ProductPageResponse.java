@@ -0,0 +1,14 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductPageResponse {
+  private List<ProductResponse> items;
+  private int size;
+  private boolean hasMore;
+  // Pass back as ?cursor= to fetch the next page; null on the last page
+  private String nextCursor;
+}
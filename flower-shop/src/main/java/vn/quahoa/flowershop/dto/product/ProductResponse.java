@@ -3,7 +3,10 @@ package vn.quahoa.flowershop.dto.product;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
+import vn.quahoa.flowershop.dto.image.ImageDownloadError;
 import vn.quahoa.flowershop.model.Product;
 
 @Data
@@ -18,6 +21,9 @@ public class ProductResponse {
     private List<ProductImageResponse> images; // Full image info with id, fileName, etc.
     private Long categoryId;
     private String categoryName;
+    // Only set on create: remote images that could not be downloaded
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<ImageDownloadError> imageErrors;
 
     public static ProductResponse fromEntity(Product product) {
         ProductResponse response = new ProductResponse();
@@ -52,4 +58,31 @@ public class ProductResponse {
         
         return response;
     }
+
+    /**
+     * Builds the response from a projection row and its pre-loaded images
+     * without touching any lazy association.
+     */
+    public static ProductResponse fromRow(ProductRow row, List<ProductImageResponse> images) {
+        ProductResponse response = new ProductResponse();
+        response.setId(row.id());
+        response.setProductCode(row.productCode());
+        response.setName(row.name());
+        response.setDescription(row.description());
+        response.setPrice(row.price());
+        response.setImageUrl(row.mainImageUrl());
+        response.setCategoryId(row.categoryId());
+        response.setCategoryName(row.categoryName());
+
+        if (images != null && !images.isEmpty()) {
+            response.setImageUrls(
+                images.stream()
+                    .map(ProductImageResponse::getImageUrl)
+                    .collect(Collectors.toList())
+            );
+            response.setImages(images);
+        }
+
+        return response;
+    }
 }
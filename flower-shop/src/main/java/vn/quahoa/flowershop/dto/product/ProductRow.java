@@ -0,0 +1,16 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * Flat projection of a product joined with its category, selected straight into a DTO
+ * so no entity (and no lazy association) is involved on read paths.
+ */
+public record ProductRow(
+    Long id,
+    String productCode,
+    String name,
+    String description,
+    double price,
+    String mainImageUrl,
+    Long categoryId,
+    String categoryName) {
+}
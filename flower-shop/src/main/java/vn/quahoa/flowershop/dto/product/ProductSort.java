@@ -0,0 +1,24 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.Locale;
+
+/**
+ * Sort keys supported by keyset (cursor) pagination.
+ * Every key is paired with the product id as a tie-breaker so the ordering is total.
+ */
+public enum ProductSort {
+  ID,
+  PRICE,
+  NAME;
+
+  public static ProductSort from(String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return ID;
+    }
+    try {
+      return ProductSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * Lightweight autocomplete entry, everything the search dropdown renders.
+ */
+public record ProductSuggestion(
+    Long id,
+    String productCode,
+    String name,
+    double price,
+    String imageUrl) {
+}
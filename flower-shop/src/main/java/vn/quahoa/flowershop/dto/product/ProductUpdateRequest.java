@@ -26,10 +26,21 @@ public class ProductUpdateRequest {
 
     // Main product image as URL or binary data
     private String imageUrl;
+
+    /**
+     * @deprecated legacy base64-in-JSON upload, held fully in memory; send a multipart request
+     *             (POST /api/products) or use the /products/{id}/images endpoints instead
+     */
+    @Deprecated
     private byte[] image;
     
     // Additional product images as URLs or binary data
     private List<String> imageUrls;
+
+    /**
+     * @deprecated see {@link #image}
+     */
+    @Deprecated
     private List<byte[]> images;
 
     @NotNull(message = "Category id is required")
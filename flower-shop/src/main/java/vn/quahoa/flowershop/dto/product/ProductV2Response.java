@@ -0,0 +1,35 @@
+package vn.quahoa.flowershop.dto.product;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact product shape served under {@code /api/v2}: one image list (URLs in display order)
+ * instead of both {@code imageUrls} and {@code images}, and absent fields are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductV2Response(
+    Long id,
+    String productCode,
+    String name,
+    String description,
+    double price,
+    String imageUrl,
+    Long categoryId,
+    String categoryName,
+    List<String> images) {
+
+  public static ProductV2Response from(ProductResponse product, boolean withDescription) {
+    return new ProductV2Response(
+        product.getId(),
+        product.getProductCode(),
+        product.getName(),
+        withDescription ? product.getDescription() : null,
+        product.getPrice(),
+        product.getImageUrl(),
+        product.getCategoryId(),
+        product.getCategoryName(),
+        product.getImageUrls() != null && !product.getImageUrls().isEmpty() ? product.getImageUrls() : null);
+  }
+}
@@ -0,0 +1,22 @@
+package vn.quahoa.flowershop.dto.product;
+
+/**
+ * Cheap aggregate over a set of products used to derive ETags without loading them.
+ * <p>
+ * Any write changes at least one component: edits (including image changes, which bump the
+ * owning product's version) raise {@code versionSum}, inserts and deletes change
+ * {@code count}/{@code idSum}, and category renames raise {@code categoryVersionSum}.
+ */
+public record VersionStamp(Long count, Long versionSum, Long idSum, Long categoryVersionSum) {
+
+  public boolean isEmpty() {
+    return count == null || count == 0;
+  }
+
+  /**
+   * Unquoted strong ETag value; Spring adds the quotes when writing the header.
+   */
+  public String toETag(String scope) {
+    return scope + "-" + count + "-" + versionSum + "-" + idSum + "-" + categoryVersionSum;
+  }
+}
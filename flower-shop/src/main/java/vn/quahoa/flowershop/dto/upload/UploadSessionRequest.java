@@ -0,0 +1,31 @@
+package vn.quahoa.flowershop.dto.upload;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import vn.quahoa.flowershop.model.UploadSession;
+
+@Data
+public class UploadSessionRequest {
+  @NotNull(message = "Target type is required")
+  private UploadSession.Target targetType;
+
+  @NotNull(message = "Target id is required")
+  private Long targetId;
+
+  // Attach as main image instead of an additional one
+  private boolean mainImage;
+
+  @Size(max = 255)
+  private String fileName;
+
+  @NotNull(message = "Size is required")
+  @Positive(message = "Size must be greater than zero")
+  private Long size;
+
+  // Optional hex SHA-256 of the whole file, verified on completion
+  @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "sha256 must be 64 hex characters")
+  private String sha256;
+}
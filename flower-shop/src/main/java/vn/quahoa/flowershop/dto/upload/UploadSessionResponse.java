@@ -0,0 +1,40 @@
+package vn.quahoa.flowershop.dto.upload;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import vn.quahoa.flowershop.model.UploadSession;
+
+@Data
+public class UploadSessionResponse {
+  private String id;
+  private UploadSession.Target targetType;
+  private Long targetId;
+  private boolean mainImage;
+  private String fileName;
+  private long size;
+  // Offset the next chunk must start at
+  private long offset;
+  // Largest chunk the server accepts
+  private long maxChunkSize;
+  private UploadSession.Status status;
+  // Set once completed
+  private String imageUrl;
+  private LocalDateTime expiresAt;
+
+  public static UploadSessionResponse fromEntity(UploadSession session, long maxChunkSize) {
+    UploadSessionResponse response = new UploadSessionResponse();
+    response.setId(session.getId());
+    response.setTargetType(session.getTargetType());
+    response.setTargetId(session.getTargetId());
+    response.setMainImage(session.isMainImage());
+    response.setFileName(session.getFileName());
+    response.setSize(session.getTotalSize());
+    response.setOffset(session.getReceivedBytes());
+    response.setMaxChunkSize(maxChunkSize);
+    response.setStatus(session.getStatus());
+    response.setImageUrl(session.getImageUrl());
+    response.setExpiresAt(session.getExpiresAt());
+    return response;
+  }
+}
@@ -0,0 +1,7 @@
+package vn.quahoa.flowershop.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package vn.quahoa.flowershop.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
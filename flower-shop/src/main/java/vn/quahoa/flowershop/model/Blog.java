@@ -19,9 +19,12 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.ToString;
+import vn.quahoa.flowershop.util.TextNormalizer;
 
 @Entity
 @Table(name = "blogs")
@@ -54,6 +57,13 @@ public class Blog {
     @OneToMany(mappedBy = "blog", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BlogImage> images = new ArrayList<>();
 
+    // Accent-folded title, and title + content, maintained on every write for search
+    @Column(name = "search_title")
+    private String searchTitle;
+
+    @Column(name = "search_text", columnDefinition = "TEXT")
+    private String searchText;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -62,6 +72,13 @@ public class Blog {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    public void updateSearchColumns() {
+        searchTitle = TextNormalizer.fold(title);
+        searchText = TextNormalizer.foldAll(title, content);
+    }
+
     public enum BlogStatus {
         DRAFT, PUBLISHED
     }
@@ -31,6 +31,17 @@ public class BlogImage {
     @Column(name = "display_order")
     private Integer displayOrder = 0;
 
+    // Placeholder data computed at ingest (see ImagePlaceholderService), null until then
+    private Integer width;
+
+    private Integer height;
+
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor;
+
+    @Column(name = "blur_hash", length = 64)
+    private String blurHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "blog_id", nullable = false)
     private Blog blog;
@@ -0,0 +1,85 @@
+package vn.quahoa.flowershop.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A queued "download this URL and attach it" request, picked up by the background image workers.
+ * A failed attempt goes back to {@code QUEUED} with {@code runAt} pushed out, until the attempts run out.
+ */
+@Entity
+@Table(name = "image_jobs", indexes = @Index(name = "idx_image_jobs_status_run_at", columnList = "status, run_at"))
+@Data
+public class ImageJob {
+
+    public enum Target {
+        PRODUCT, BLOG
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private Target targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    // Attach as main image instead of an additional one
+    @Column(name = "main_image", nullable = false)
+    private boolean mainImage;
+
+    @Column(name = "source_url", nullable = false, columnDefinition = "TEXT")
+    private String sourceUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+
+    // Attempts started so far, including the running one
+    @Column(nullable = false)
+    private int attempts;
+
+    // Earliest time the next attempt may start
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime runAt;
+
+    // Lease of the worker running it; a RUNNING job past its lease is picked up again
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Public URL of the attached image once succeeded
+    @Column(name = "image_url", length = 500)
+    private String imageUrl;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -13,15 +13,26 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.ToString;
+import vn.quahoa.flowershop.util.TextNormalizer;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Browse: category filter + price range/sort, and price/name sorts over the whole catalog
+    @Index(name = "idx_products_category_price", columnList = "category_id, price, id"),
+    @Index(name = "idx_products_category_name", columnList = "category_id, name, id"),
+    @Index(name = "idx_products_price", columnList = "price, id"),
+    @Index(name = "idx_products_name", columnList = "name, id")
+})
 @Data
 @ToString(exclude = "category")
 public class Product {
@@ -29,6 +40,11 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking; also the basis of the HTTP ETags
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @Column(nullable = false, unique = true, length = 50)
     private String productCode;
 
@@ -53,6 +69,15 @@ public class Product {
     @JsonIgnore
     private Category category;
 
+    // Accent-folded copies of name + code and description, maintained on every write for search
+    @Column(name = "search_name", length = 320)
+    @JsonIgnore
+    private String searchName;
+
+    @Column(name = "search_description", length = 2000)
+    @JsonIgnore
+    private String searchDescription;
+
     @JsonProperty(value = "categoryId", access = JsonProperty.Access.READ_ONLY)
     public Long getCategoryId() {
         return category != null ? category.getId() : null;
@@ -67,6 +92,13 @@ public class Product {
         return mainImageUrl;
     }
     
+    @PrePersist
+    @PreUpdate
+    public void updateSearchColumns() {
+        searchName = TextNormalizer.foldAll(name, productCode);
+        searchDescription = TextNormalizer.fold(description);
+    }
+
     /**
      * Helper method to add an additional image to the product
      */
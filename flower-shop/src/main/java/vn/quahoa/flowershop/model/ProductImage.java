@@ -34,6 +34,17 @@ public class ProductImage {
     @Column(name = "file_name")
     private String fileName;
 
+    // Placeholder data computed at ingest (see ImagePlaceholderService), null until then
+    private Integer width;
+
+    private Integer height;
+
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor;
+
+    @Column(name = "blur_hash", length = 64)
+    private String blurHash;
+
     // Product relationship
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
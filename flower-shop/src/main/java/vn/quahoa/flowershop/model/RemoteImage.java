@@ -0,0 +1,52 @@
+package vn.quahoa.flowershop.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A remote image that was downloaded once: where it came from, the validators the server sent for
+ * it, and the blob holding its content.
+ */
+@Entity
+@Table(name = "remote_images")
+@Data
+public class RemoteImage {
+    // Hex SHA-256 of the source URL (URLs are too long for a key)
+    @Id
+    @Column(name = "url_hash", length = 64)
+    private String urlHash;
+
+    @Column(name = "source_url", nullable = false, columnDefinition = "TEXT")
+    private String sourceUrl;
+
+    // Blob key, e.g. blobs/ab/cd/<hash>.jpg
+    @Column(name = "storage_key", nullable = false, length = 200)
+    private String storageKey;
+
+    // Hex SHA-256 of the content
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(length = 500)
+    private String etag;
+
+    // Last-Modified header as sent by the server
+    @Column(name = "last_modified", length = 100)
+    private String lastModified;
+
+    // Last full download
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    // Last time the server confirmed the content (download or 304)
+    @Column(name = "validated_at", nullable = false)
+    private LocalDateTime validatedAt;
+}
@@ -0,0 +1,32 @@
+package vn.quahoa.flowershop.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A file moved out of the flat legacy layout: requests for the old path are redirected to the new key.
+ */
+@Entity
+@Table(name = "storage_redirects")
+@Data
+public class StorageRedirect {
+    // Old path relative to the storage root, e.g. products/3f2a....jpg
+    @Id
+    @Column(name = "old_path", length = 500)
+    private String oldPath;
+
+    // Blob key now holding the content, e.g. blobs/ab/cd/<hash>.jpg
+    @Column(name = "new_key", nullable = false, length = 200)
+    private String newKey;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
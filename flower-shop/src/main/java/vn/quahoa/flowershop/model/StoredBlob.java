@@ -0,0 +1,42 @@
+package vn.quahoa.flowershop.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One content-addressed file of the blob store and the number of records pointing at it.
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Data
+public class StoredBlob {
+    // Hex SHA-256 of the content
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    // Path relative to the storage root, e.g. blobs/ab/cd/<hash>.jpg
+    @Column(name = "storage_key", nullable = false, length = 200)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // Last store or retain; the orphan collector leaves recently referenced blobs alone
+    @Column(name = "last_referenced_at")
+    private LocalDateTime lastReferencedAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,82 @@
+package vn.quahoa.flowershop.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+
+/**
+ * A resumable image upload: chunks are written into a staging file until {@code receivedBytes}
+ * reaches {@code totalSize}, then the file is moved into the blob store and attached to its target.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = @Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at"))
+@Data
+public class UploadSession {
+
+    public enum Target {
+        PRODUCT, BLOG
+    }
+
+    public enum Status {
+        ACTIVE, COMPLETED
+    }
+
+    // Random UUID, also the staging file name
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private Target targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    // Attach as main image instead of an additional one
+    @Column(name = "main_image", nullable = false)
+    private boolean mainImage;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    // Bytes durably written and verified, i.e. the offset of the next chunk
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    // Optional hex SHA-256 of the whole file, checked on completion
+    @Column(length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.ACTIVE;
+
+    // Public URL of the attached image once completed
+    @Column(name = "image_url", length = 500)
+    private String imageUrl;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Pushed forward on every chunk
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Version
+    private Long version;
+}
@@ -1,10 +1,38 @@
 package vn.quahoa.flowershop.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.quahoa.flowershop.model.BlogImage;
 
 @Repository
 public interface BlogImageRepository extends JpaRepository<BlogImage, Long> {
+
+    @Query("SELECT i.imageUrl FROM BlogImage i WHERE i.imageUrl IN :urls")
+    List<String> findImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    List<BlogImage> findByImageUrl(String imageUrl);
+
+    /**
+     * Next images without a placeholder after {@code afterId} (keyset; Pageable is only the LIMIT).
+     */
+    @Query("SELECT i FROM BlogImage i WHERE i.blurHash IS NULL AND i.id > :afterId ORDER BY i.id ASC")
+    List<BlogImage> findWithoutPlaceholder(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Skipped when the image was replaced or deleted since the placeholder was computed.
+     */
+    @Modifying
+    @Query("UPDATE BlogImage i SET i.width = :width, i.height = :height, i.dominantColor = :dominantColor, " +
+           "i.blurHash = :blurHash WHERE i.id = :id AND i.imageUrl = :imageUrl")
+    int updatePlaceholder(@Param("id") Long id, @Param("imageUrl") String imageUrl, @Param("width") int width,
+                          @Param("height") int height, @Param("dominantColor") String dominantColor,
+                          @Param("blurHash") String blurHash);
 }
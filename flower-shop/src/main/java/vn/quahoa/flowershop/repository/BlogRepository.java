@@ -1,7 +1,9 @@
 package vn.quahoa.flowershop.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,8 +16,27 @@ public interface BlogRepository extends JpaRepository<Blog, Long> {
     
     List<Blog> findByAuthor_Id(Long authorId);
     
+    /**
+     * Substring search over the accent-folded title + content; :keyword must be folded.
+     * On PostgreSQL the LIKE is served by the trigram GIN index on search_text.
+     */
     @Query("SELECT b FROM Blog b WHERE b.status = :status AND " +
-           "(LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.content) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+           "b.searchText LIKE CONCAT('%', :keyword, '%')")
     List<Blog> searchPublishedBlogs(@Param("status") BlogStatus status, @Param("keyword") String keyword);
+
+    /**
+     * PostgreSQL only: substring match plus trigram word similarity on the folded title for typos.
+     */
+    @Query(value = "SELECT * FROM blogs b WHERE b.status = :status AND " +
+           "(b.search_text LIKE CONCAT('%', :keyword, '%') OR :keyword <% b.search_title) " +
+           "ORDER BY word_similarity(:keyword, b.search_title) DESC, b.created_at DESC", nativeQuery = true)
+    List<Blog> fuzzySearchPublishedBlogs(@Param("status") String status, @Param("keyword") String keyword);
+
+    @Query("SELECT b FROM Blog b WHERE b.searchText IS NULL")
+    List<Blog> findWithoutSearchColumns(Pageable pageable);
+
+    @Query("SELECT b.imageUrl FROM Blog b WHERE b.imageUrl IN :urls")
+    List<String> findImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    List<Blog> findByImageUrl(String imageUrl);
 }
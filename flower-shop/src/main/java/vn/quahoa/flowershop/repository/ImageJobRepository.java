@@ -0,0 +1,41 @@
+package vn.quahoa.flowershop.repository;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import vn.quahoa.flowershop.model.ImageJob;
+
+@Repository
+public interface ImageJobRepository extends JpaRepository<ImageJob, Long> {
+
+    /**
+     * Due jobs, locked for the calling transaction. Rows another worker has locked are skipped
+     * (lock timeout -2 is Hibernate's SKIP LOCKED), so workers never wait on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT j FROM ImageJob j WHERE (j.status = :queued AND j.runAt <= :now) " +
+           "OR (j.status = :running AND j.lockedUntil < :now) ORDER BY j.runAt ASC")
+    List<ImageJob> findDueForUpdate(@Param("queued") ImageJob.Status queued, @Param("running") ImageJob.Status running,
+                                    @Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(ImageJob.Status status);
+
+    @Modifying
+    @Query("DELETE FROM ImageJob j WHERE j.status IN :statuses AND j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("statuses") Collection<ImageJob.Status> statuses, @Param("before") LocalDateTime before);
+}
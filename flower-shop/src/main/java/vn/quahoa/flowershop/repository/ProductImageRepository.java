@@ -1,11 +1,47 @@
 package vn.quahoa.flowershop.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import vn.quahoa.flowershop.dto.product.ProductImageRow;
 import vn.quahoa.flowershop.model.ProductImage;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findByProduct_IdOrderByDisplayOrderAsc(Long productId);
+
+    /**
+     * Loads the images of many products in one round trip (IN list on the foreign key).
+     */
+    @Query("SELECT new vn.quahoa.flowershop.dto.product.ProductImageRow(" +
+           "i.product.id, i.id, i.imageUrl, i.fileName, i.displayOrder, i.width, i.height, i.dominantColor, i.blurHash) " +
+           "FROM ProductImage i WHERE i.product.id IN :productIds ORDER BY i.product.id ASC, i.id ASC")
+    List<ProductImageRow> findRowsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT i.imageUrl FROM ProductImage i WHERE i.imageUrl IN :urls")
+    List<String> findImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    List<ProductImage> findByImageUrl(String imageUrl);
+
+    /**
+     * Next images without a placeholder after {@code afterId} (keyset; Pageable is only the LIMIT),
+     * with their product for cache invalidation.
+     */
+    @Query("SELECT i FROM ProductImage i JOIN FETCH i.product WHERE i.blurHash IS NULL AND i.id > :afterId ORDER BY i.id ASC")
+    List<ProductImage> findWithoutPlaceholder(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Skipped when the image was replaced or deleted since the placeholder was computed.
+     */
+    @Modifying
+    @Query("UPDATE ProductImage i SET i.width = :width, i.height = :height, i.dominantColor = :dominantColor, " +
+           "i.blurHash = :blurHash WHERE i.id = :id AND i.imageUrl = :imageUrl")
+    int updatePlaceholder(@Param("id") Long id, @Param("imageUrl") String imageUrl, @Param("width") int width,
+                          @Param("height") int height, @Param("dominantColor") String dominantColor,
+                          @Param("blurHash") String blurHash);
 }
@@ -1,26 +1,155 @@
 package vn.quahoa.flowershop.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+import vn.quahoa.flowershop.dto.product.VersionStamp;
 import vn.quahoa.flowershop.model.Product;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String ROW_SELECT = "SELECT new vn.quahoa.flowershop.dto.product.ProductRow(" +
+           "p.id, p.productCode, p.name, p.description, p.price, p.mainImageUrl, c.id, c.name) " +
+           "FROM Product p JOIN p.category c ";
+
+    String VERSION_STAMP_SELECT = "SELECT new vn.quahoa.flowershop.dto.product.VersionStamp(" +
+           "COUNT(p), COALESCE(SUM(p.version), 0L), COALESCE(SUM(p.id), 0L), COALESCE(SUM(c.version), 0L)) " +
+           "FROM Product p JOIN p.category c ";
+
+    String KEYWORD_FILTER = "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.productCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))";
+
+    // :keyword must already be folded with TextNormalizer
+    String FOLDED_KEYWORD_FILTER = "p.searchName LIKE CONCAT('%', :keyword, '%') OR " +
+           "p.searchDescription LIKE CONCAT('%', :keyword, '%')";
+
     List<Product> findByCategory_Id(Long categoryId);
     
     Optional<Product> findByProductCodeIgnoreCase(String productCode);
     
     Optional<Product> findByNameIgnoreCase(String name);
     
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.productCode) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    @Query("SELECT p FROM Product p WHERE " + KEYWORD_FILTER)
     List<Product> searchProducts(@Param("keyword") String keyword);
-}
 
+    // ============================================
+    // READ MODEL (DTO projections, no lazy loading)
+    // ============================================
+
+    @Query(ROW_SELECT + "ORDER BY p.id ASC")
+    List<ProductRow> findAllRows();
+
+    @Query(ROW_SELECT + "WHERE p.id = :id")
+    Optional<ProductRow> findRowById(@Param("id") Long id);
+
+    @Query(ROW_SELECT + "WHERE p.id IN :ids")
+    List<ProductRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(ROW_SELECT + "WHERE c.id = :categoryId ORDER BY p.id ASC")
+    List<ProductRow> findRowsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * LIKE fallback over the folded columns, used when full-text search is unavailable (H2).
+     */
+    @Query(ROW_SELECT + "WHERE " + FOLDED_KEYWORD_FILTER + " ORDER BY p.id ASC")
+    List<ProductRow> searchRows(@Param("keyword") String keyword, Pageable pageable);
+
+    /**
+     * PostgreSQL full-text search over the generated search_vector column (GIN indexed).
+     * Name and product code are weighted above description, so they rank first.
+     */
+    @Query(value = "SELECT p.id FROM products p, to_tsquery('simple', :query) q " +
+           "WHERE p.search_vector @@ q " +
+           "ORDER BY ts_rank(p.search_vector, q) DESC, p.id ASC " +
+           "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> fullTextSearchIds(@Param("query") String tsQuery, @Param("limit") int limit, @Param("offset") int offset);
+
+    /**
+     * Full-text search plus trigram word similarity on the folded name, so misspelled
+     * names still match. Both predicates are served by GIN indexes (BitmapOr).
+     */
+    @Query(value = "SELECT p.id FROM products p, to_tsquery('simple', :query) q " +
+           "WHERE p.search_vector @@ q OR :folded <% p.search_name " +
+           "ORDER BY ts_rank(p.search_vector, q) + word_similarity(:folded, p.search_name) DESC, p.id ASC " +
+           "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> fuzzySearchIds(@Param("query") String tsQuery, @Param("folded") String folded,
+                              @Param("limit") int limit, @Param("offset") int offset);
 
+    // ============================================
+    // VERSION STAMPS (ETags), aggregates only
+    // ============================================
+
+    @Query(VERSION_STAMP_SELECT)
+    VersionStamp versionStamp();
+
+    @Query(VERSION_STAMP_SELECT + "WHERE c.id = :categoryId")
+    VersionStamp versionStampByCategory(@Param("categoryId") Long categoryId);
+
+    @Query(VERSION_STAMP_SELECT + "WHERE p.id = :id")
+    VersionStamp versionStampById(@Param("id") Long id);
+
+    /**
+     * For image rows updated without going through their product, so the ETags still change.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.version = p.version + 1 WHERE p.id IN :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p WHERE p.searchName IS NULL")
+    List<Product> findWithoutSearchColumns(Pageable pageable);
+
+    // ============================================
+    // KEYSET PAGINATION
+    // Pageable is only used as a LIMIT here, ordering is fixed by each query
+    // ============================================
+
+    @Query(ROW_SELECT + "ORDER BY p.id ASC")
+    List<ProductRow> findFirstPageById(Pageable pageable);
+
+    @Query(ROW_SELECT + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductRow> findFirstPageByPrice(Pageable pageable);
+
+    @Query(ROW_SELECT + "ORDER BY p.name ASC, p.id ASC")
+    List<ProductRow> findFirstPageByName(Pageable pageable);
+
+    @Query(ROW_SELECT + "WHERE p.id > :id ORDER BY p.id ASC")
+    List<ProductRow> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query(ROW_SELECT + "WHERE p.price > :price OR (p.price = :price AND p.id > :id) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductRow> findPageAfterPrice(@Param("price") double price, @Param("id") Long id, Pageable pageable);
+
+    @Query(ROW_SELECT + "WHERE p.name > :name OR (p.name = :name AND p.id > :id) " +
+           "ORDER BY p.name ASC, p.id ASC")
+    List<ProductRow> findPageAfterName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Scrolls the whole catalog with a server-side cursor.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @Query(ROW_SELECT + "ORDER BY p.id ASC")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ProductRow> streamAllRows();
+
+    /**
+     * Which of the given URLs are used as a main image (see ImageReferenceLookup).
+     */
+    @Query("SELECT p.mainImageUrl FROM Product p WHERE p.mainImageUrl IN :urls")
+    List<String> findMainImageUrlsIn(@Param("urls") Collection<String> urls);
+
+    List<Product> findByMainImageUrl(String mainImageUrl);
+}
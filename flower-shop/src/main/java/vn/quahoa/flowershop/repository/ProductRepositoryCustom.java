@@ -0,0 +1,34 @@
+package vn.quahoa.flowershop.repository;
+
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.Tuple;
+
+import vn.quahoa.flowershop.dto.product.ProductBrowseFilter;
+import vn.quahoa.flowershop.dto.product.ProductFacetRow;
+import vn.quahoa.flowershop.dto.product.ProductField;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+
+/**
+ * Queries whose WHERE clause depends on which filters are present.
+ */
+public interface ProductRepositoryCustom {
+
+    List<ProductRow> browse(ProductBrowseFilter filter, int offset, int limit);
+
+    /**
+     * Facet counts grouped by category and price bucket in a single query.
+     * The keyword filter always applies; category and price filters are left to the caller
+     * so each facet can ignore its own dimension.
+     */
+    List<ProductFacetRow> browseFacets(ProductBrowseFilter filter);
+
+    /**
+     * Selects only the columns of the requested fields, aliased by their JSON names, ordered by id.
+     *
+     * @param categoryId optional category filter
+     * @param productId  optional single-product filter
+     */
+    List<Tuple> findFields(Set<ProductField> fields, Long categoryId, Long productId);
+}
@@ -0,0 +1,134 @@
+package vn.quahoa.flowershop.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import vn.quahoa.flowershop.dto.product.PriceBucket;
+import vn.quahoa.flowershop.dto.product.ProductBrowseFilter;
+import vn.quahoa.flowershop.dto.product.ProductFacetRow;
+import vn.quahoa.flowershop.dto.product.ProductField;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String FACET_SELECT = "SELECT new vn.quahoa.flowershop.dto.product.ProductFacetRow(" +
+           "c.id, c.name, %s, COUNT(p), %s) FROM Product p JOIN p.category c ";
+
+    // Bucket bounds are constants, inlined so the SELECT and GROUP BY expressions are identical
+    private static final String BUCKET_EXPRESSION = bucketExpression();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductRow> browse(ProductBrowseFilter filter, int offset, int limit) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.categoryId() != null) {
+            conditions.add("c.id = :categoryId");
+        }
+        if (filter.hasPriceRange()) {
+            conditions.add(priceCondition(filter));
+        }
+        if (filter.hasKeyword()) {
+            conditions.add("(" + ProductRepository.FOLDED_KEYWORD_FILTER + ")");
+        }
+
+        String jpql = ProductRepository.ROW_SELECT + where(conditions) + " ORDER BY " + filter.sort().orderBy();
+        TypedQuery<ProductRow> query = entityManager.createQuery(jpql, ProductRow.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        bind(query, filter, true);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<ProductFacetRow> browseFacets(ProductBrowseFilter filter) {
+        // Conditional count instead of a price-range WHERE, so price buckets outside the range are still counted
+        String inPriceRange = filter.hasPriceRange()
+                ? "SUM(CASE WHEN " + priceCondition(filter) + " THEN 1L ELSE 0L END)"
+                : "COUNT(p)";
+        List<String> conditions = new ArrayList<>();
+        if (filter.hasKeyword()) {
+            conditions.add("(" + ProductRepository.FOLDED_KEYWORD_FILTER + ")");
+        }
+
+        String jpql = String.format(FACET_SELECT, BUCKET_EXPRESSION, inPriceRange) + where(conditions) +
+                " GROUP BY c.id, c.name, " + BUCKET_EXPRESSION;
+        TypedQuery<ProductFacetRow> query = entityManager.createQuery(jpql, ProductFacetRow.class);
+        bind(query, filter, false);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Tuple> findFields(Set<ProductField> fields, Long categoryId, Long productId) {
+        List<String> selections = new ArrayList<>();
+        for (ProductField field : fields) {
+            if (field.path() != null) {
+                selections.add(field.path() + " AS " + field.jsonName());
+            }
+        }
+        List<String> conditions = new ArrayList<>();
+        if (categoryId != null) {
+            conditions.add("p.category.id = :categoryId");
+        }
+        if (productId != null) {
+            conditions.add("p.id = :productId");
+        }
+
+        // The category row is only joined when its name is asked for
+        String from = fields.contains(ProductField.CATEGORY_NAME) ? " FROM Product p JOIN p.category c " : " FROM Product p ";
+        String jpql = "SELECT " + String.join(", ", selections) + from + where(conditions) + " ORDER BY p.id ASC";
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (productId != null) {
+            query.setParameter("productId", productId);
+        }
+        return query.getResultList();
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String priceCondition(ProductBrowseFilter filter) {
+        List<String> bounds = new ArrayList<>(2);
+        if (filter.minPrice() != null) {
+            bounds.add("p.price >= :minPrice");
+        }
+        if (filter.maxPrice() != null) {
+            bounds.add("p.price <= :maxPrice");
+        }
+        return String.join(" AND ", bounds);
+    }
+
+    private static void bind(TypedQuery<?> query, ProductBrowseFilter filter, boolean withCategory) {
+        if (withCategory && filter.categoryId() != null) {
+            query.setParameter("categoryId", filter.categoryId());
+        }
+        if (filter.minPrice() != null) {
+            query.setParameter("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            query.setParameter("maxPrice", filter.maxPrice());
+        }
+        if (filter.hasKeyword()) {
+            query.setParameter("keyword", filter.keyword());
+        }
+    }
+
+    private static String bucketExpression() {
+        StringBuilder expression = new StringBuilder("CASE");
+        List<PriceBucket> buckets = PriceBucket.BUCKETS;
+        for (int i = 0; i < buckets.size() - 1; i++) {
+            expression.append(" WHEN p.price < ").append(buckets.get(i).max()).append(" THEN ").append(i);
+        }
+        return expression.append(" ELSE ").append(buckets.size() - 1).append(" END").toString();
+    }
+}
@@ -0,0 +1,10 @@
+package vn.quahoa.flowershop.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import vn.quahoa.flowershop.model.RemoteImage;
+
+@Repository
+public interface RemoteImageRepository extends JpaRepository<RemoteImage, String> {
+}
@@ -40,6 +40,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     this.adminRepository = adminRepository;
   }
 
+  /**
+   * Image requests never carry credentials that matter (see ImageServlet)
+   */
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    return request.getRequestURI().startsWith(request.getContextPath() + "/images/");
+  }
+
   @Override
   protected void doFilterInternal(@NonNull HttpServletRequest request,
       @NonNull HttpServletResponse response,
@@ -1,9 +1,12 @@
 package vn.quahoa.flowershop.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import lombok.RequiredArgsConstructor;
@@ -17,6 +20,7 @@ import vn.quahoa.flowershop.model.BlogImage;
 import vn.quahoa.flowershop.repository.AdminRepository;
 import vn.quahoa.flowershop.repository.BlogImageRepository;
 import vn.quahoa.flowershop.repository.BlogRepository;
+import vn.quahoa.flowershop.util.TextNormalizer;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +30,8 @@ public class BlogService {
     private final AdminRepository adminRepository;
     private final BlogImageRepository blogImageRepository;
     private final ImageStorageService imageStorageService;
+    private final SearchSupport searchSupport;
+    private final ImagePlaceholderService imagePlaceholderService;
 
     public Blog createBlog(BlogCreateRequest request) {
         Blog blog = new Blog();
@@ -65,7 +71,11 @@ public class BlogService {
     }
 
     public List<Blog> searchBlogs(String keyword) {
-        return blogRepository.searchPublishedBlogs(BlogStatus.PUBLISHED, keyword);
+        String folded = TextNormalizer.fold(keyword);
+        if (searchSupport.isTrigramEnabled()) {
+            return blogRepository.fuzzySearchPublishedBlogs(BlogStatus.PUBLISHED.name(), folded);
+        }
+        return blogRepository.searchPublishedBlogs(BlogStatus.PUBLISHED, folded);
     }
 
     public Blog updateBlog(Long id, BlogUpdateRequest request) {
@@ -85,7 +95,16 @@ public class BlogService {
 
     public void deleteBlog(Long id) {
         Blog blog = getBlogById(id);
+        List<String> imageUrls = new ArrayList<>();
+        if (blog.getImageUrl() != null) {
+            imageUrls.add(blog.getImageUrl());
+        }
+        blog.getImages().forEach(image -> imageUrls.add(image.getImageUrl()));
+
         blogRepository.delete(blog);
+
+        // Files that fail to go here are picked up by the orphan image collector
+        imageUrls.forEach(imageStorageService::deleteImage);
     }
 
     public Blog publishBlog(Long id) {
@@ -121,83 +140,52 @@ public class BlogService {
     }
 
     /**
-     * Upload main/featured image from URL
+     * Upload additional image from file
      */
-    public String uploadMainBlogImageFromUrl(Long blogId, String imageUrl) {
-        System.out.println("=== UPLOAD MAIN BLOG IMAGE FROM URL ===");
-        System.out.println("Blog ID: " + blogId);
-        System.out.println("Image URL: " + imageUrl);
-        
-        Blog blog = getBlogById(blogId);
+    public String uploadBlogImage(Long blogId, MultipartFile file) {
+        getBlogById(blogId);
 
         try {
-            System.out.println("Attempting to download main blog image from URL...");
-            String savedImageUrl = imageStorageService.saveBlogImageFromUrl(imageUrl, blogId, true);
-            blog.setImageUrl(savedImageUrl);
-            blogRepository.save(blog);
-            System.out.println("✅ Main blog image from URL saved successfully: " + savedImageUrl);
-            return savedImageUrl;
+            String imageUrl = imageStorageService.saveBlogImageFromFile(file, blogId, false);
+            return attachBlogImage(blogId, imageUrl, file.getOriginalFilename());
         } catch (IOException e) {
-            System.err.println("❌ Failed to upload main blog image from URL: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to upload main blog image from URL", e);
+            throw new RuntimeException("Failed to upload blog image", e);
         }
     }
 
     /**
-     * Upload additional image from file
+     * Adds an image that is already in storage to the blog's additional images
      */
-    public String uploadBlogImage(Long blogId, MultipartFile file) {
+    public String attachBlogImage(Long blogId, String imageUrl, String fileName) {
         Blog blog = getBlogById(blogId);
 
-        try {
-            String imageUrl = imageStorageService.saveBlogImageFromFile(file, blogId, false);
-
-            BlogImage blogImage = new BlogImage();
-            blogImage.setFileName(file.getOriginalFilename());
-            blogImage.setFilePath(imageUrl);
-            blogImage.setImageUrl(imageUrl);
-            blogImage.setBlog(blog);
-            blog.getImages().add(blogImage);
+        BlogImage blogImage = new BlogImage();
+        blogImage.setFileName(fileName);
+        blogImage.setFilePath(imageUrl);
+        blogImage.setImageUrl(imageUrl);
+        imagePlaceholderService.fill(blogImage);
+        blogImage.setBlog(blog);
+        blog.getImages().add(blogImage);
 
-            blogRepository.save(blog);
+        blogRepository.save(blog);
 
-            return imageUrl;
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload blog image", e);
-        }
+        return imageUrl;
     }
 
     /**
-     * Upload additional image from URL
+     * Makes an image that is already in storage the blog's main image, releasing the old one once the
+     * change is committed
      */
-    public String uploadBlogImageFromUrl(Long blogId, String imageUrl) {
-        System.out.println("=== UPLOAD ADDITIONAL BLOG IMAGE FROM URL ===");
-        System.out.println("Blog ID: " + blogId);
-        System.out.println("Image URL: " + imageUrl);
-        
+    public String attachMainBlogImage(Long blogId, String imageUrl) {
         Blog blog = getBlogById(blogId);
+        String oldImageUrl = blog.getImageUrl();
 
-        try {
-            System.out.println("Attempting to download additional blog image from URL...");
-            String savedImageUrl = imageStorageService.saveBlogImageFromUrl(imageUrl, blogId, false);
-
-            BlogImage blogImage = new BlogImage();
-            blogImage.setFileName("URL Image");
-            blogImage.setFilePath(savedImageUrl);
-            blogImage.setImageUrl(savedImageUrl);
-            blogImage.setBlog(blog);
-            blog.getImages().add(blogImage);
-
-            blogRepository.save(blog);
-            System.out.println("✅ Additional blog image from URL saved successfully: " + savedImageUrl);
-
-            return savedImageUrl;
-        } catch (IOException e) {
-            System.err.println("❌ Failed to upload additional blog image from URL: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to upload blog image from URL", e);
+        blog.setImageUrl(imageUrl);
+        blogRepository.save(blog);
+        if (oldImageUrl != null) {
+            afterCommit(() -> imageStorageService.deleteImage(oldImageUrl));
         }
+        return imageUrl;
     }
 
     /**
@@ -244,4 +232,17 @@ public class BlogService {
         blog.getImages().clear();
         blogRepository.save(blog);
     }
+
+    private static void afterCommit(Runnable release) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+    }
 }
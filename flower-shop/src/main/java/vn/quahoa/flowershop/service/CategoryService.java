@@ -5,6 +5,7 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.cache.CatalogCache;
 import vn.quahoa.flowershop.dto.category.CategoryRequest;
 import vn.quahoa.flowershop.exception.ResourceNotFoundException;
 import vn.quahoa.flowershop.exception.ValidationException;
@@ -16,6 +17,7 @@ import vn.quahoa.flowershop.repository.CategoryRepository;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogCache catalogCache;
 
     public Category createCategory(CategoryRequest request) {
         validateUniqueName(request.getName(), null);
@@ -37,12 +39,15 @@ public class CategoryService {
         Category category = getById(id);
         validateUniqueName(request.getName(), id);
         category.setName(request.getName());
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        catalogCache.categoryChanged(id);
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         Category category = getById(id);
         categoryRepository.delete(category);
+        catalogCache.categoryChanged(id);
     }
 
     private void validateUniqueName(String name, Long currentId) {
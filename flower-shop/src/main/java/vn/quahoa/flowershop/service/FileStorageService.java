@@ -5,8 +5,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,6 +14,10 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.ImageMemoryCache;
+import vn.quahoa.flowershop.storage.ImageVariants;
+import vn.quahoa.flowershop.storage.LocalBlobStore;
 
 @Slf4j
 @Service
@@ -22,6 +25,10 @@ import vn.quahoa.flowershop.config.StorageProperties;
 public class FileStorageService {
 
     private final StorageProperties storageProperties;
+    private final RemoteImageCache remoteImageCache;
+    private final BlobStore blobStore;
+    private final ImageNormalizer imageNormalizer;
+    private final ImageMemoryCache imageMemoryCache;
     
     @PostConstruct
     public void init() {
@@ -51,58 +58,39 @@ public class FileStorageService {
     }
     
     /**
-     * Lưu file từ MultipartFile và trả về đường dẫn tương đối
+     * Lưu file từ MultipartFile vào blob store và trả về đường dẫn tương đối
      * 
      * @param file MultipartFile cần lưu
-     * @param subDirectory Thư mục con (ví dụ: "products", "blogs")
-     * @return Đường dẫn tương đối (ví dụ: "products/uuid_filename.jpg")
+     * @param subDirectory Không còn dùng: file được lưu theo hash nội dung (giữ lại cho tương thích)
+     * @return Đường dẫn tương đối (ví dụ: "blobs/ab/cd/<sha256>.jpg")
      */
     public String saveFile(MultipartFile file, String subDirectory) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot save empty file");
         }
         
-        String originalFileName = file.getOriginalFilename();
-        String fileName = generateUniqueFileName(originalFileName);
-        
-        return saveFileLocally(file.getInputStream(), fileName, subDirectory);
+        try (InputStream inputStream = file.getInputStream()) {
+            return store(inputStream, LocalBlobStore.extensionOf(file.getOriginalFilename()));
+        }
     }
     
     /**
-     * Lưu file từ InputStream và trả về đường dẫn tương đối
+     * Lưu file từ InputStream vào blob store và trả về đường dẫn tương đối
      * 
      * @param inputStream InputStream của file
-     * @param originalFileName Tên file gốc
-     * @param subDirectory Thư mục con (ví dụ: "products", "blogs")
-     * @return Đường dẫn tương đối (ví dụ: "products/uuid_filename.jpg")
+     * @param originalFileName Tên file gốc (chỉ dùng để lấy phần mở rộng)
+     * @param subDirectory Không còn dùng: file được lưu theo hash nội dung (giữ lại cho tương thích)
+     * @return Đường dẫn tương đối (ví dụ: "blobs/ab/cd/<sha256>.jpg")
      */
     public String saveFileLocally(InputStream inputStream, String originalFileName, String subDirectory) throws IOException {
-        String fileName = generateUniqueFileName(originalFileName);
-        
-        // Tạo đường dẫn đầy đủ
-        Path uploadPath = Paths.get(storageProperties.getLocalPath()).resolve(subDirectory);
-        
-        // Đảm bảo thư mục tồn tại
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-        
-        Path filePath = uploadPath.resolve(fileName);
-        
-        // Copy file vào thư mục
-        Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
-        
-        log.info("Saved file: {}", filePath.toAbsolutePath());
-        
-        // Trả về đường dẫn tương đối
-        return subDirectory + "/" + fileName;
+        return store(inputStream, LocalBlobStore.extensionOf(originalFileName));
     }
     
     /**
-     * Tải file từ URL và lưu vào local storage
+     * Tải file từ URL thẳng vào blob store (không ghi file trung gian); URL đã tải trước đó được dùng lại
      * 
      * @param imageUrl URL của ảnh cần tải
-     * @param subDirectory Thư mục con (ví dụ: "products", "blogs")
+     * @param subDirectory Không còn dùng (giữ lại cho tương thích)
      * @return Đường dẫn tương đối
      */
     public String saveFileFromUrl(String imageUrl, String subDirectory) throws IOException {
@@ -111,43 +99,11 @@ public class FileStorageService {
         }
         
         log.info("Downloading image from URL: {}", imageUrl);
-        
-        try {
-            java.net.URI uri = java.net.URI.create(imageUrl);
-            java.net.URL url = uri.toURL();
-            
-            // Mở connection với timeout và User-Agent header
-            java.net.HttpURLConnection connection = (java.net.HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000); // 10 seconds
-            connection.setReadTimeout(10000); // 10 seconds
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            connection.setInstanceFollowRedirects(true);
-            
-            int responseCode = connection.getResponseCode();
-            
-            if (responseCode == java.net.HttpURLConnection.HTTP_OK) {
-                String fileName = extractFileNameFromUrl(imageUrl);
-                
-                try (InputStream inputStream = connection.getInputStream()) {
-                    String relativePath = saveFileLocally(inputStream, fileName, subDirectory);
-                    log.info("Successfully downloaded and saved image from URL: {}", imageUrl);
-                    return relativePath;
-                }
-            } else {
-                String errorMsg = String.format("Failed to download image from URL: %s, HTTP code: %d", imageUrl, responseCode);
-                log.error(errorMsg);
-                throw new IOException(errorMsg);
-            }
-        } catch (Exception e) {
-            String errorMsg = String.format("Error downloading image from URL: %s, Error: %s", imageUrl, e.getMessage());
-            log.error(errorMsg, e);
-            throw new IOException(errorMsg, e);
-        }
+        return remoteImageCache.fetch(imageUrl).key();
     }
     
     /**
-     * Xóa file khỏi storage
+     * Xóa file khỏi storage: với blob chỉ bỏ một tham chiếu, file bị xóa khi không còn ai dùng
      * 
      * @param relativePath Đường dẫn tương đối của file cần xóa
      */
@@ -156,51 +112,51 @@ public class FileStorageService {
             return;
         }
         
+        Optional<String> blobKey = blobStore.keyOf(relativePath);
+        if (blobKey.isPresent()) {
+            blobStore.release(blobKey.get());
+            // Bỏ khỏi cache bộ nhớ ngay cả khi blob còn được dùng ở nơi khác, lần xem sau đọc lại từ đĩa
+            imageMemoryCache.invalidate(blobStore.resolve(blobKey.get()));
+            return;
+        }
+        
+        // File cũ lưu theo thư mục products/, blogs/ trước khi có blob store
         Path filePath = Paths.get(storageProperties.getLocalPath()).resolve(relativePath);
+        imageMemoryCache.invalidate(filePath);
         
         if (Files.exists(filePath)) {
             Files.delete(filePath);
             log.info("Deleted file: {}", filePath.toAbsolutePath());
         }
+        ImageVariants.deleteVariants(filePath);
     }
     
     /**
-     * Tạo tên file duy nhất bằng UUID
+     * Xóa file theo URL công khai (bỏ qua URL không thuộc storage này)
      * 
-     * @param originalFileName Tên file gốc
-     * @return Tên file mới với UUID
+     * @param publicUrl URL công khai, ví dụ: http://localhost:8080/images/blobs/ab/cd/<sha256>.jpg
      */
-    private String generateUniqueFileName(String originalFileName) {
-        String uuid = UUID.randomUUID().toString();
-        String extension = "";
-        
-        if (originalFileName != null && originalFileName.contains(".")) {
-            extension = originalFileName.substring(originalFileName.lastIndexOf("."));
+    public void deleteFileByUrl(String publicUrl) throws IOException {
+        if (publicUrl == null || publicUrl.trim().isEmpty()) {
+            return;
         }
         
-        return uuid + extension;
-    }
-    
-    /**
-     * Trích xuất tên file từ URL
-     * 
-     * @param url URL cần trích xuất
-     * @return Tên file
-     */
-    private String extractFileNameFromUrl(String url) {
-        String fileName = url.substring(url.lastIndexOf('/') + 1);
-        
-        // Nếu URL có query string, loại bỏ nó
-        if (fileName.contains("?")) {
-            fileName = fileName.substring(0, fileName.indexOf("?"));
+        String baseUrl = getPublicUrl("");
+        if (!publicUrl.startsWith(baseUrl)) {
+            log.warn("Image URL does not match base URL: {}", publicUrl);
+            return;
         }
         
-        // Nếu không có extension, thêm .jpg mặc định
-        if (!fileName.contains(".")) {
-            fileName += ".jpg";
+        String relativePath = publicUrl.substring(baseUrl.length());
+        if (relativePath.startsWith("/")) {
+            relativePath = relativePath.substring(1);
         }
-        
-        return fileName;
+        deleteFile(relativePath);
+    }
+    
+    private String store(InputStream inputStream, String extension) throws IOException {
+        BlobStore.StoredBlobRef blob = imageNormalizer.store(inputStream, extension);
+        return blob.key();
     }
     
     /**
@@ -0,0 +1,288 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+
+/**
+ * Downloads remote images through one shared {@link HttpClient} (pooled connections, HTTP/2 when
+ * the server offers it). Bodies are handed to the caller as a stream with the size cap enforced while
+ * reading, so the blob store can write the image without an intermediate copy.
+ */
+@Slf4j
+@Service
+public class ImageDownloadService {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp",
+            "image/avif", ".avif",
+            "image/bmp", ".bmp");
+
+    private final ImageDownloadProperties properties;
+    private final HttpClient httpClient;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Result of a conditional download, with the validators to send next time.
+     */
+    public record Fetched<T>(T result, String etag, String lastModified) {
+    }
+
+    /**
+     * @param rejected    failures refused for scheme, content type or size (included in {@code failures})
+     * @param notModified conditional requests answered 304, no body transferred
+     */
+    public record Stats(
+            long successes,
+            long failures,
+            long rejected,
+            long notModified,
+            long bytes,
+            long averageMillis,
+            long maxMillis) {
+    }
+
+    /**
+     * Consumes a download body; {@code extension} is derived from the served content type.
+     */
+    @FunctionalInterface
+    public interface BodyConsumer<T> {
+        T accept(InputStream body, String extension) throws IOException;
+    }
+
+    public ImageDownloadService(ImageDownloadProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Hands the body to {@code consumer} as a stream, with the size cap enforced while it reads, so
+     * the image can be stored without an intermediate copy.
+     */
+    public <T> T download(String url, BodyConsumer<T> consumer) throws IOException {
+        return downloadIfModified(url, null, null, consumer).result();
+    }
+
+    /**
+     * Like {@link #download}, but revalidates with {@code If-None-Match} / {@code If-Modified-Since}
+     * when validators from an earlier response are given.
+     *
+     * @return null when the server answered 304 Not Modified (the consumer is not called)
+     */
+    public <T> Fetched<T> downloadIfModified(String url, String etag, String lastModified, BodyConsumer<T> consumer)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = send(url, etag, lastModified);
+            if (response.statusCode() == 304 && (etag != null || lastModified != null)) {
+                response.body().close();
+                notModified.increment();
+                return null;
+            }
+            String contentType = checkResponse(url, response);
+            T result;
+            long size;
+            try (LimitedInputStream body = new LimitedInputStream(url, response.body())) {
+                result = consumer.accept(body, EXTENSIONS.getOrDefault(contentType, extensionFromUrl(url)));
+                size = body.count;
+            }
+            recordSuccess(size, start);
+            return new Fetched<>(result, response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the image into memory, with the same size cap and content-type checks.
+     */
+    public byte[] downloadBytes(String url) throws IOException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = send(url, null, null);
+            checkResponse(url, response);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream body = response.body()) {
+                copyLimited(url, body, out);
+            }
+            recordSuccess(out.size(), start);
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        long count = successes.sum();
+        return new Stats(count, failures.sum(), rejected.sum(), notModified.sum(), bytes.sum(),
+                count == 0 ? 0 : totalMillis.sum() / count, maxMillis.get());
+    }
+
+    private HttpResponse<InputStream> send(String url, String etag, String lastModified) throws IOException {
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid image URL: " + url, e);
+        }
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw reject("Only http and https image URLs are supported: " + url);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(properties.getRequestTimeout())
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "image/*")
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        HttpRequest request = builder.build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + url, e);
+        }
+    }
+
+    /**
+     * @return the normalized content type
+     */
+    private String checkResponse(String url, HttpResponse<InputStream> response) throws IOException {
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Failed to download image from URL: " + url + ", HTTP code: " + response.statusCode());
+        }
+        String contentType = response.headers().firstValue("Content-Type")
+                .map(value -> value.split(";")[0].trim().toLowerCase(Locale.ROOT))
+                .orElse("");
+        if (!properties.getAllowedContentTypes().contains(contentType)) {
+            response.body().close();
+            throw reject("Unsupported content type '" + contentType + "' for " + url);
+        }
+        OptionalLong length = response.headers().firstValueAsLong("Content-Length");
+        if (length.isPresent() && length.getAsLong() > maxBytes()) {
+            response.body().close();
+            throw reject("Image too large (" + length.getAsLong() + " bytes) at " + url);
+        }
+        return contentType;
+    }
+
+    private long copyLimited(String url, InputStream in, OutputStream out) throws IOException {
+        long limit = maxBytes();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > limit) {
+                throw reject("Image exceeds " + limit + " bytes at " + url);
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private final class LimitedInputStream extends FilterInputStream {
+
+        private final String url;
+        private long count;
+
+        LimitedInputStream(String url, InputStream in) {
+            super(in);
+            this.url = url;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counted(read);
+            }
+            return read;
+        }
+
+        private void counted(int read) throws IOException {
+            count += read;
+            if (count > maxBytes()) {
+                throw reject("Image exceeds " + maxBytes() + " bytes at " + url);
+            }
+        }
+    }
+
+    private IOException reject(String message) {
+        rejected.increment();
+        return new IOException(message);
+    }
+
+    private void recordSuccess(long size, long startNanos) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        successes.increment();
+        bytes.add(size);
+        totalMillis.add(millis);
+        maxMillis.accumulate(millis);
+    }
+
+    private long maxBytes() {
+        return properties.getMaxSize().toBytes();
+    }
+
+    private static String extensionFromUrl(String url) {
+        String path = URI.create(url.trim()).getPath();
+        if (path != null) {
+            int dot = path.lastIndexOf('.');
+            if (dot > path.lastIndexOf('/') && path.length() - dot <= 5) {
+                return path.substring(dot).toLowerCase(Locale.ROOT);
+            }
+        }
+        return ".jpg";
+    }
+}
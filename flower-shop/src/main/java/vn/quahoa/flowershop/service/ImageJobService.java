@@ -0,0 +1,67 @@
+package vn.quahoa.flowershop.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.config.ImageJobProperties;
+import vn.quahoa.flowershop.dto.job.ImageJobResponse;
+import vn.quahoa.flowershop.exception.ResourceNotFoundException;
+import vn.quahoa.flowershop.model.ImageJob;
+import vn.quahoa.flowershop.repository.ImageJobRepository;
+
+/**
+ * Queues image downloads for the {@link ImageJobWorker}s, so admin requests return as soon as the
+ * job row is written instead of waiting for the remote server.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageJobService {
+
+    private final ImageJobRepository imageJobRepository;
+    private final ImageJobProperties properties;
+    private final ProductService productService;
+    private final BlogService blogService;
+
+    /**
+     * Queues downloading {@code sourceUrl} and attaching it to the product or blog.
+     */
+    public ImageJobResponse enqueue(ImageJob.Target target, Long targetId, boolean mainImage, String sourceUrl) {
+        return enqueueAll(target, targetId, mainImage, List.of(sourceUrl)).get(0);
+    }
+
+    /**
+     * One job per URL; they run independently, in parallel when workers are free.
+     */
+    public List<ImageJobResponse> enqueueAll(ImageJob.Target target, Long targetId, boolean mainImage, List<String> sourceUrls) {
+        // The target must exist now; the worker checks again when attaching
+        switch (target) {
+            case PRODUCT -> productService.getById(targetId);
+            case BLOG -> blogService.getBlogById(targetId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageJob> jobs = sourceUrls.stream().map(url -> {
+            ImageJob job = new ImageJob();
+            job.setTargetType(target);
+            job.setTargetId(targetId);
+            job.setMainImage(mainImage);
+            job.setSourceUrl(url.trim());
+            job.setRunAt(now);
+            return job;
+        }).toList();
+        return imageJobRepository.saveAll(jobs).stream().map(this::toResponse).toList();
+    }
+
+    public ImageJobResponse getJob(Long id) {
+        return imageJobRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Image job", id));
+    }
+
+    private ImageJobResponse toResponse(ImageJob job) {
+        return ImageJobResponse.fromEntity(job, properties.getMaxAttempts());
+    }
+}
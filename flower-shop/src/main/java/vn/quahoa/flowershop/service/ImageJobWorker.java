@@ -0,0 +1,282 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageJobProperties;
+import vn.quahoa.flowershop.exception.ResourceNotFoundException;
+import vn.quahoa.flowershop.model.ImageJob;
+import vn.quahoa.flowershop.repository.ImageJobRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+/**
+ * Runs queued {@link ImageJob}s on a fixed pool of {@code app.image-jobs.workers} threads.
+ * <p>
+ * Each poll claims at most as many due jobs as there are idle workers, in one short transaction
+ * using {@code SELECT ... FOR UPDATE SKIP LOCKED}, so several instances can share the queue without
+ * blocking each other or running a job twice. The download happens outside any transaction; the
+ * image is then attached and the job marked done in one transaction. A failed attempt is retried
+ * with exponential backoff, and a job whose worker died is picked up again once its lease expires.
+ */
+@Slf4j
+@Service
+public class ImageJobWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ImageJobProperties properties;
+    private final ImageJobRepository imageJobRepository;
+    private final FileStorageService fileStorageService;
+    private final ImageStorageService imageStorageService;
+    private final BlobStore blobStore;
+    private final ProductService productService;
+    private final BlogService blogService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor;
+    private final Semaphore idle;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ImageJobWorker(ImageJobProperties properties, ImageJobRepository imageJobRepository,
+                          FileStorageService fileStorageService, ImageStorageService imageStorageService,
+                          BlobStore blobStore, ProductService productService, BlogService blogService,
+                          PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.imageJobRepository = imageJobRepository;
+        this.fileStorageService = fileStorageService;
+        this.imageStorageService = imageStorageService;
+        this.blobStore = blobStore;
+        this.productService = productService;
+        this.blogService = blogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int workers = Math.max(1, properties.getWorkers());
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "image-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.idle = new Semaphore(workers);
+    }
+
+    /**
+     * @param queued   jobs waiting for their first attempt or a retry
+     * @param busy     workers running a job on this instance right now
+     * @param retried  failed attempts that were scheduled again
+     * @param failed   jobs given up on
+     */
+    public record Stats(long queued, int workers, int busy, long succeeded, long retried, long failed) {
+    }
+
+    @Scheduled(initialDelayString = "${app.image-jobs.poll-interval:1s}", fixedDelayString = "${app.image-jobs.poll-interval:1s}")
+    public void poll() {
+        int free = idle.availablePermits();
+        if (free == 0) {
+            return;
+        }
+        List<ImageJob> jobs;
+        try {
+            jobs = claim(free);
+        } catch (RuntimeException e) {
+            log.warn("Could not claim image jobs, retrying next poll", e);
+            return;
+        }
+        for (ImageJob job : jobs) {
+            idle.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(job);
+                    } finally {
+                        idle.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the lease runs out and the job is picked up again
+                idle.release();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.image-jobs.cleanup-interval:1h}")
+    public void removeFinishedJobs() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getRetention());
+        Integer removed = transactionTemplate.execute(status -> imageJobRepository.deleteFinishedBefore(
+                List.of(ImageJob.Status.SUCCEEDED, ImageJob.Status.FAILED), before));
+        if (removed != null && removed > 0) {
+            log.info("Removed {} finished image jobs", removed);
+        }
+    }
+
+    public Stats stats() {
+        int workers = Math.max(1, properties.getWorkers());
+        return new Stats(imageJobRepository.countByStatus(ImageJob.Status.QUEUED), workers,
+                workers - idle.availablePermits(), succeeded.sum(), retried.sum(), failed.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Marks up to {@code limit} due jobs RUNNING under a lease; rows locked by another poller are skipped.
+     */
+    List<ImageJob> claim(int limit) {
+        List<ImageJob> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ImageJob> due = imageJobRepository.findDueForUpdate(ImageJob.Status.QUEUED, ImageJob.Status.RUNNING,
+                    now, PageRequest.of(0, limit));
+            List<ImageJob> runnable = due.stream().filter(job -> {
+                if (job.getStatus() == ImageJob.Status.RUNNING && job.getAttempts() >= properties.getMaxAttempts()) {
+                    // Its worker died during the last attempt
+                    giveUp(job, "Worker stopped during the last attempt", now);
+                    return false;
+                }
+                return true;
+            }).toList();
+            for (ImageJob job : runnable) {
+                job.setStatus(ImageJob.Status.RUNNING);
+                job.setAttempts(job.getAttempts() + 1);
+                job.setLockedUntil(now.plus(properties.getLease()));
+                if (job.getStartedAt() == null) {
+                    job.setStartedAt(now);
+                }
+            }
+            imageJobRepository.saveAll(due);
+            return runnable;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    void run(ImageJob job) {
+        String key;
+        try {
+            key = fileStorageService.saveFileFromUrl(job.getSourceUrl(),
+                    job.getTargetType() == ImageJob.Target.PRODUCT ? "products" : "blogs");
+        } catch (IOException | RuntimeException e) {
+            attemptFailed(job, e);
+            return;
+        }
+
+        try {
+            String imageUrl = transactionTemplate.execute(status -> complete(job, key));
+            if (imageUrl == null) {
+                // Lease expired and the job was claimed again: that attempt attaches it
+                release(key);
+                return;
+            }
+            succeeded.increment();
+            log.info("Image job {} attached {} to {} {}", job.getId(), imageUrl, job.getTargetType(), job.getTargetId());
+        } catch (RuntimeException e) {
+            release(key);
+            attemptFailed(job, e);
+        }
+    }
+
+    private void release(String key) {
+        try {
+            blobStore.release(key);
+        } catch (IOException e) {
+            // Left to the orphan image collector
+            log.warn("Could not release downloaded image {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Attaches the stored image and marks the job done; runs in one transaction.
+     *
+     * @return the image's public URL, or null when this worker no longer owns the job
+     */
+    private String complete(ImageJob claimed, String key) {
+        Optional<ImageJob> current = imageJobRepository.findById(claimed.getId());
+        if (current.isEmpty() || current.get().getStatus() != ImageJob.Status.RUNNING
+                || current.get().getAttempts() != claimed.getAttempts()) {
+            return null;
+        }
+        ImageJob job = current.get();
+        String imageUrl = switch (job.getTargetType()) {
+            case PRODUCT -> job.isMainImage()
+                    ? productService.attachMainProductImage(job.getTargetId(), key)
+                    : productService.attachProductImage(job.getTargetId(), key, "Image from URL");
+            case BLOG -> job.isMainImage()
+                    ? blogService.attachMainBlogImage(job.getTargetId(), imageStorageService.publicUrl(key))
+                    : blogService.attachBlogImage(job.getTargetId(), imageStorageService.publicUrl(key), "URL Image");
+        };
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(ImageJob.Status.SUCCEEDED);
+        job.setImageUrl(imageUrl);
+        job.setLastError(null);
+        job.setLockedUntil(null);
+        job.setFinishedAt(now);
+        imageJobRepository.save(job);
+        return imageUrl;
+    }
+
+    private void attemptFailed(ImageJob job, Exception e) {
+        LocalDateTime now = LocalDateTime.now();
+        // A deleted product or blog will not come back by retrying
+        if (e instanceof ResourceNotFoundException || job.getAttempts() >= properties.getMaxAttempts()) {
+            giveUp(job, e.getMessage(), now);
+            log.warn("Image job {} failed after {} attempts: {}", job.getId(), job.getAttempts(), e.getMessage());
+        } else {
+            Duration backoff = backoff(job.getAttempts());
+            job.setStatus(ImageJob.Status.QUEUED);
+            job.setLastError(truncate(e.getMessage()));
+            job.setLockedUntil(null);
+            job.setRunAt(now.plus(backoff));
+            retried.increment();
+            log.info("Image job {} attempt {} failed, retrying in {}: {}", job.getId(), job.getAttempts(), backoff, e.getMessage());
+        }
+        try {
+            imageJobRepository.save(job);
+        } catch (RuntimeException saveFailure) {
+            // The lease runs out and the job is picked up again
+            log.warn("Could not record the outcome of image job {}", job.getId(), saveFailure);
+        }
+    }
+
+    private void giveUp(ImageJob job, String error, LocalDateTime now) {
+        job.setStatus(ImageJob.Status.FAILED);
+        job.setLastError(truncate(error));
+        job.setLockedUntil(null);
+        job.setFinishedAt(now);
+        failed.increment();
+    }
+
+    /**
+     * initial-backoff doubled per failed attempt, capped at max-backoff
+     */
+    Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,643 @@
+package vn.quahoa.flowershop.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageNormalizationProperties;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.ImageVariants;
+
+/**
+ * Cleans up uploaded images on their way into the blob store.
+ * <p>
+ * The format is taken from the file's magic bytes, not its name. JPEGs lose their metadata segments
+ * (EXIF with GPS and embedded thumbnails, XMP, IPTC, trailing multi-picture data) without touching
+ * the pixels; they are re-encoded at {@code app.image-normalization.quality} when they need rotating
+ * per their EXIF orientation, exceed {@code max-dimension}, or simply come out smaller. PNGs lose
+ * their text chunks and are re-encoded only when oversized, BMPs become PNGs, and GIF, WebP and HEIC
+ * (animation, or no decoder in the JDK) are stored as they are.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageNormalizer {
+
+    // Decoding allocates 4 bytes per pixel; reject decompression bombs up front
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    // Larger sources are decoded with subsampling down to twice the target size
+    private static final int SUBSAMPLE_HEADROOM = 2;
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "eXIf", "tIME");
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final ImageNormalizationProperties properties;
+    private final BlobStore blobStore;
+
+    private final LongAdder normalized = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    enum Format {
+        JPEG("jpg"), PNG("png"), GIF("gif"), WEBP("webp"), BMP("bmp"), HEIC("heic");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * @param normalized uploads rewritten (metadata stripped, rotated, downscaled or re-encoded)
+     * @param unchanged  uploads stored as they came (formats that are not rewritten)
+     * @param bytesSaved {@code bytesIn - bytesOut}
+     */
+    public record Stats(boolean enabled, long normalized, long unchanged, long bytesIn, long bytesOut,
+                        long bytesSaved, long averageBytesSaved) {
+    }
+
+    /**
+     * Normalized counterpart of {@link BlobStore#store}: the content is spooled to the staging
+     * directory first, since it has to be read more than once.
+     */
+    public BlobStore.StoredBlobRef store(InputStream content, String extension) throws IOException {
+        if (!properties.isEnabled()) {
+            return blobStore.store(content, extension);
+        }
+        Path spool = Files.createTempFile(blobStore.stagingDirectory(), "normalize-", ".tmp");
+        try {
+            Files.copy(content, spool, StandardCopyOption.REPLACE_EXISTING);
+            return storeFile(spool, extension);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Normalized counterpart of {@link BlobStore#storeFile}: on success the file is gone (or kept as
+     * the original), on failure it is left in place.
+     *
+     * @param extension declared by the client; only used when normalization is disabled
+     */
+    public BlobStore.StoredBlobRef storeFile(Path file, String extension) throws IOException {
+        if (!properties.isEnabled()) {
+            return blobStore.storeFile(file, extension);
+        }
+        Format format = sniff(file);
+        if (format == null) {
+            throw new IllegalArgumentException("Unsupported image format, expected JPEG, PNG, GIF, WebP, BMP or HEIC");
+        }
+        long originalSize = Files.size(file);
+
+        Output output = normalize(file, format);
+        if (output == null) {
+            BlobStore.StoredBlobRef blob = blobStore.storeFile(file, "." + format.extension);
+            unchanged.increment();
+            bytesIn.add(originalSize);
+            bytesOut.add(originalSize);
+            return blob;
+        }
+
+        BlobStore.StoredBlobRef blob;
+        try {
+            blob = blobStore.storeFile(output.file(), "." + output.format().extension);
+        } finally {
+            Files.deleteIfExists(output.file());
+        }
+        if (properties.isKeepOriginal()) {
+            keepOriginal(file, blob.key(), format);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        normalized.increment();
+        bytesIn.add(originalSize);
+        bytesOut.add(blob.size());
+        log.info("Normalized {} upload to {}: {} -> {} bytes ({})", format, blob.key(), originalSize, blob.size(),
+                output.description());
+        return blob;
+    }
+
+    public Stats stats() {
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+        long uploads = normalized.sum() + unchanged.sum();
+        return new Stats(properties.isEnabled(), normalized.sum(), unchanged.sum(), in, out, in - out,
+                uploads == 0 ? 0 : (in - out) / uploads);
+    }
+
+    /**
+     * @return the rewritten file in the staging directory, or null to store {@code file} as is
+     */
+    private Output normalize(Path file, Format format) throws IOException {
+        return switch (format) {
+            case JPEG -> normalizeJpeg(file);
+            case PNG -> normalizePng(file);
+            case BMP -> reencode(file, 1, Format.PNG, false, "converted to PNG");
+            case GIF, WEBP, HEIC -> null;
+        };
+    }
+
+    private Output normalizeJpeg(Path file) throws IOException {
+        Path stripped = tempFile();
+        try {
+            int orientation;
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(stripped))) {
+                orientation = stripJpeg(in, out);
+            } catch (IOException e) {
+                // Not parseable as a JPEG after all: keep it untouched rather than break the upload
+                log.debug("Could not strip JPEG metadata from {}", file, e);
+                Files.deleteIfExists(stripped);
+                return null;
+            }
+
+            Output encoded = reencode(stripped, orientation, Format.JPEG, false, "re-encoded");
+            if (encoded == null) {
+                // Without the EXIF tag a rotated picture would show sideways: then store the original
+                return orientation == 1 ? new Output(stripped, Format.JPEG, "metadata stripped", false) : null;
+            }
+            if (orientation == 1 && !encoded.resized() && Files.size(encoded.file()) >= Files.size(stripped)) {
+                // Already well compressed: re-encoding would only lose quality
+                Files.deleteIfExists(encoded.file());
+                return new Output(stripped, Format.JPEG, "metadata stripped", false);
+            }
+            Files.deleteIfExists(stripped);
+            return encoded;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stripped);
+            throw e;
+        }
+    }
+
+    private Output normalizePng(Path file) throws IOException {
+        Output encoded = reencode(file, 1, Format.PNG, true, "downscaled");
+        if (encoded != null) {
+            return encoded;
+        }
+        Path stripped = tempFile();
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(stripped))) {
+            stripPng(in, out);
+        } catch (IOException e) {
+            log.debug("Could not strip PNG metadata from {}", file, e);
+            Files.deleteIfExists(stripped);
+            return null;
+        }
+        return new Output(stripped, Format.PNG, "metadata stripped", false);
+    }
+
+    /**
+     * Decodes, applies the EXIF orientation, fits into max-dimension and encodes as {@code target}.
+     *
+     * @param onlyIfOversized skip images that already fit
+     * @return null when skipped or when ImageIO cannot decode or encode the image (e.g. CMYK JPEGs)
+     */
+    private Output reencode(Path file, int orientation, Format target, boolean onlyIfOversized, String description)
+            throws IOException {
+        int maxDimension = properties.getMaxDimension();
+        BufferedImage image;
+        boolean oversized;
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("Image is too large: " + width + "x" + height + " pixels");
+                }
+                oversized = Math.max(width, height) > maxDimension;
+                if (onlyIfOversized && !oversized) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(width, height) / (maxDimension * SUBSAMPLE_HEADROOM);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IIOException e) {
+            log.debug("ImageIO cannot decode {}", file, e);
+            return null;
+        }
+
+        boolean alpha = target == Format.PNG && image.getColorModel().hasAlpha();
+        BufferedImage result = fit(orient(image, orientation), maxDimension, alpha);
+        if (target == Format.JPEG) {
+            result = toRgb(result);
+        }
+        Path encoded = tempFile();
+        try {
+            write(result, target, encoded);
+        } catch (IIOException e) {
+            log.debug("ImageIO cannot encode {}", file, e);
+            Files.deleteIfExists(encoded);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(encoded);
+            throw e;
+        }
+        String detail = description + ", " + image.getWidth() + "x" + image.getHeight() + " -> "
+                + result.getWidth() + "x" + result.getHeight();
+        return new Output(encoded, target, detail, oversized);
+    }
+
+    /**
+     * Copies a JPEG without its metadata segments (APP1 EXIF/XMP, APP13 IPTC, other APPn, comments)
+     * and without anything after the end-of-image marker. JFIF, ICC profiles and the Adobe segment
+     * (needed for color decoding) are kept.
+     *
+     * @return the EXIF orientation, 1 when absent
+     */
+    static int stripJpeg(InputStream source, OutputStream out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source));
+        if (in.readUnsignedShort() != 0xFFD8) {
+            throw new IOException("Missing JPEG start-of-image marker");
+        }
+        out.write(0xFF);
+        out.write(0xD8);
+        int orientation = 1;
+        while (true) {
+            if (in.readUnsignedByte() != 0xFF) {
+                throw new IOException("Corrupt JPEG marker");
+            }
+            int marker = in.readUnsignedByte();
+            while (marker == 0xFF) {
+                marker = in.readUnsignedByte();
+            }
+            if (marker == 0xD9 || marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Markers without a length
+                out.write(0xFF);
+                out.write(marker);
+                if (marker == 0xD9) {
+                    return orientation;
+                }
+                continue;
+            }
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                throw new IOException("Corrupt JPEG segment length");
+            }
+            byte[] payload = in.readNBytes(length - 2);
+            if (payload.length != length - 2) {
+                throw new EOFException("Truncated JPEG segment");
+            }
+            if (marker == 0xE1 && startsWith(payload, "Exif\0\0")) {
+                orientation = exifOrientation(payload);
+            }
+            if (keepJpegSegment(marker, payload)) {
+                out.write(0xFF);
+                out.write(marker);
+                out.write(length >> 8);
+                out.write(length & 0xFF);
+                out.write(payload);
+            }
+            if (marker == 0xDA) {
+                copyScans(in, out);
+                return orientation;
+            }
+        }
+    }
+
+    private static boolean keepJpegSegment(int marker, byte[] payload) {
+        if (marker == 0xFE) {
+            return false;
+        }
+        if (marker < 0xE0 || marker > 0xEF) {
+            return true;
+        }
+        return (marker == 0xE0 && startsWith(payload, "JFIF\0"))
+                || (marker == 0xE2 && startsWith(payload, "ICC_PROFILE\0"))
+                || (marker == 0xEE && startsWith(payload, "Adobe"));
+    }
+
+    /**
+     * Copies entropy-coded data and any segments between progressive scans, up to and including EOI.
+     */
+    private static void copyScans(DataInputStream in, OutputStream out) throws IOException {
+        int current = in.read();
+        while (current != -1) {
+            if (current != 0xFF) {
+                out.write(current);
+                current = in.read();
+                continue;
+            }
+            int next = in.read();
+            while (next == 0xFF) {
+                next = in.read();
+            }
+            out.write(0xFF);
+            if (next == -1) {
+                return;
+            }
+            out.write(next);
+            if (next == 0xD9) {
+                return;
+            }
+            if (next != 0x00 && (next < 0xD0 || next > 0xD7)) {
+                // DHT, SOS, DRI... between scans: copied whole so their bytes are not taken for markers
+                int length = in.readUnsignedShort();
+                out.write(length >> 8);
+                out.write(length & 0xFF);
+                byte[] payload = in.readNBytes(Math.max(0, length - 2));
+                out.write(payload);
+            }
+            current = in.read();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation from the JPEG header only, without copying anything.
+     *
+     * @return 1 when absent or when the header cannot be parsed
+     */
+    static int jpegOrientation(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source));
+        if (in.readUnsignedShort() != 0xFFD8) {
+            return 1;
+        }
+        while (true) {
+            if (in.readUnsignedByte() != 0xFF) {
+                return 1;
+            }
+            int marker = in.readUnsignedByte();
+            while (marker == 0xFF) {
+                marker = in.readUnsignedByte();
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                return 1;
+            }
+            if (marker == 0xE1) {
+                byte[] payload = in.readNBytes(length - 2);
+                if (startsWith(payload, "Exif\0\0")) {
+                    return exifOrientation(payload);
+                }
+            } else {
+                in.skipNBytes(length - 2);
+            }
+        }
+    }
+
+    /**
+     * Reads the orientation tag (0x0112) from IFD0 of an APP1 EXIF payload.
+     */
+    static int exifOrientation(byte[] app1) {
+        int tiff = 6;
+        if (app1.length < tiff + 8) {
+            return 1;
+        }
+        boolean littleEndian = app1[tiff] == 'I';
+        int ifd = tiff + readInt(app1, tiff + 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > app1.length) {
+            return 1;
+        }
+        int entries = readShort(app1, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                break;
+            }
+            if (readShort(app1, entry, littleEndian) == 0x0112) {
+                int value = readShort(app1, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Copies a PNG without its text, EXIF and timestamp chunks.
+     */
+    static void stripPng(InputStream source, OutputStream out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source));
+        byte[] signature = in.readNBytes(PNG_SIGNATURE.length);
+        if (!Arrays.equals(signature, PNG_SIGNATURE)) {
+            throw new IOException("Missing PNG signature");
+        }
+        out.write(signature);
+        while (true) {
+            int length = in.readInt();
+            byte[] type = in.readNBytes(4);
+            if (length < 0 || type.length != 4) {
+                throw new IOException("Corrupt PNG chunk");
+            }
+            String name = new String(type, StandardCharsets.ISO_8859_1);
+            boolean keep = !PNG_METADATA_CHUNKS.contains(name);
+            if (keep) {
+                out.write(length >>> 24);
+                out.write(length >>> 16);
+                out.write(length >>> 8);
+                out.write(length);
+                out.write(type);
+            }
+            // Data plus CRC
+            long remaining = length + 4L;
+            byte[] buffer = new byte[8192];
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new EOFException("Truncated PNG chunk " + name);
+                }
+                if (keep) {
+                    out.write(buffer, 0, read);
+                }
+                remaining -= read;
+            }
+            if (name.equals("IEND")) {
+                return;
+            }
+        }
+    }
+
+    static Format sniff(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(12);
+        }
+        return sniff(head);
+    }
+
+    static Format sniff(byte[] head) {
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return Format.JPEG;
+        }
+        if (head.length >= 8 && Arrays.equals(Arrays.copyOf(head, 8), PNG_SIGNATURE)) {
+            return Format.PNG;
+        }
+        if (startsWith(head, "GIF87a") || startsWith(head, "GIF89a")) {
+            return Format.GIF;
+        }
+        if (head.length >= 12 && startsWith(head, "RIFF")
+                && new String(head, 8, 4, StandardCharsets.ISO_8859_1).equals("WEBP")) {
+            return Format.WEBP;
+        }
+        if (head.length >= 12 && new String(head, 4, 4, StandardCharsets.ISO_8859_1).equals("ftyp")) {
+            String brand = new String(head, 8, 4, StandardCharsets.ISO_8859_1);
+            if (brand.startsWith("hei") || brand.startsWith("hev") || brand.equals("mif1") || brand.equals("msf1")) {
+                return Format.HEIC;
+            }
+        }
+        if (startsWith(head, "BM")) {
+            return Format.BMP;
+        }
+        return null;
+    }
+
+    /**
+     * Applies an EXIF orientation (1-8) so the pixels are upright.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            default -> new AffineTransform(0, -1, 1, 0, 0, width);
+        };
+        BufferedImage upright = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = upright.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return upright;
+    }
+
+    private static BufferedImage fit(BufferedImage image, int maxDimension, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) <= maxDimension) {
+            return image;
+        }
+        int targetWidth = width >= height ? maxDimension : Math.max(1, (int) Math.round((double) width * maxDimension / height));
+        return ImageVariantService.scale(image, targetWidth, alpha);
+    }
+
+    /**
+     * The JPEG writer only takes plain RGB or gray rasters, not decoded images with an embedded color space.
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_BYTE_GRAY) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private void write(BufferedImage image, Format format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format == Format.JPEG ? "jpeg" : "png").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format == Format.JPEG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(properties.getQuality());
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private void keepOriginal(Path file, String key, Format format) throws IOException {
+        Path original = ImageVariants.originalPath(blobStore.resolve(key), format.extension);
+        Files.createDirectories(original.getParent());
+        try {
+            Files.move(file, original, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same normalized content uploaded before: the first original stays
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Path tempFile() throws IOException {
+        return Files.createTempFile(blobStore.stagingDirectory(), "normalize-", ".tmp");
+    }
+
+    private static boolean startsWith(byte[] data, String prefix) {
+        byte[] expected = prefix.getBytes(StandardCharsets.ISO_8859_1);
+        return data.length >= expected.length && Arrays.equals(Arrays.copyOf(data, expected.length), expected);
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    /**
+     * @param resized the long side was reduced to max-dimension
+     */
+    private record Output(Path file, Format format, String description, boolean resized) {
+    }
+}
@@ -0,0 +1,223 @@
+package vn.quahoa.flowershop.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.cache.CatalogCache;
+import vn.quahoa.flowershop.exception.ConflictException;
+import vn.quahoa.flowershop.model.BlogImage;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.model.ProductImage;
+import vn.quahoa.flowershop.repository.BlogImageRepository;
+import vn.quahoa.flowershop.repository.ProductImageRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+/**
+ * Computes the placeholders of product and blog images stored before they were computed at upload.
+ * <p>
+ * Images without a BlurHash are read a batch at a time in id order; the batch is decoded on a
+ * pool of {@code parallelism} threads, then written in one transaction that only touches rows
+ * whose image is still the same. Products whose images changed get a new version (ETag) and are
+ * evicted from the catalog cache. Images that get no placeholder (not in the blob store, WebP...)
+ * are skipped and looked at again by the next run.
+ */
+@Slf4j
+@Service
+public class ImagePlaceholderBackfill {
+
+    private final ImagePlaceholderService imagePlaceholderService;
+    private final ProductImageRepository productImageRepository;
+    private final BlogImageRepository blogImageRepository;
+    private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-placeholder-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public ImagePlaceholderBackfill(ImagePlaceholderService imagePlaceholderService,
+                                    ProductImageRepository productImageRepository,
+                                    BlogImageRepository blogImageRepository, ProductRepository productRepository,
+                                    CatalogCache catalogCache, PlatformTransactionManager transactionManager) {
+        this.imagePlaceholderService = imagePlaceholderService;
+        this.productImageRepository = productImageRepository;
+        this.blogImageRepository = blogImageRepository;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts a backfill run in the background.
+     *
+     * @param batchSize   images read and written per transaction
+     * @param parallelism images decoded at the same time
+     */
+    public Progress start(int batchSize, int parallelism) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("An image placeholder backfill is already running");
+        }
+        scanned.set(0);
+        updated.set(0);
+        skipped.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        coordinator.execute(() -> {
+            ExecutorService workers = workers(parallelism);
+            try {
+                backfillProductImages(batchSize, workers);
+                backfillBlogImages(batchSize, workers);
+                log.info("Image placeholder backfill finished: {}", progress());
+            } catch (RuntimeException e) {
+                log.error("Image placeholder backfill stopped", e);
+            } finally {
+                workers.shutdownNow();
+                finishedAt = LocalDateTime.now();
+                running.set(false);
+            }
+        });
+        return progress();
+    }
+
+    public Progress progress() {
+        return new Progress(running.get(), startedAt, finishedAt, scanned.get(), updated.get(), skipped.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void backfillProductImages(int batchSize, ExecutorService workers) {
+        long afterId = 0;
+        List<ProductImage> batch;
+        do {
+            batch = productImageRepository.findWithoutPlaceholder(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            List<ProductImage> images = batch;
+            List<Optional<ImagePlaceholderService.Placeholder>> placeholders =
+                    compute(images, ProductImage::getImageUrl, workers);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Long> changedProducts = new HashMap<>();
+                for (int i = 0; i < images.size(); i++) {
+                    ProductImage image = images.get(i);
+                    Optional<ImagePlaceholderService.Placeholder> placeholder = placeholders.get(i);
+                    if (placeholder.isPresent() && update(image.getId(), image.getImageUrl(), placeholder.get(),
+                            productImageRepository::updatePlaceholder)) {
+                        Product product = image.getProduct();
+                        changedProducts.put(product.getId(), product.getCategoryId());
+                    }
+                }
+                if (!changedProducts.isEmpty()) {
+                    productRepository.incrementVersions(changedProducts.keySet());
+                    changedProducts.forEach(catalogCache::productChanged);
+                }
+            });
+        } while (batch.size() == batchSize);
+    }
+
+    private void backfillBlogImages(int batchSize, ExecutorService workers) {
+        long afterId = 0;
+        List<BlogImage> batch;
+        do {
+            batch = blogImageRepository.findWithoutPlaceholder(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            List<BlogImage> images = batch;
+            List<Optional<ImagePlaceholderService.Placeholder>> placeholders =
+                    compute(images, BlogImage::getImageUrl, workers);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < images.size(); i++) {
+                    BlogImage image = images.get(i);
+                    Optional<ImagePlaceholderService.Placeholder> placeholder = placeholders.get(i);
+                    if (placeholder.isPresent()) {
+                        update(image.getId(), image.getImageUrl(), placeholder.get(), blogImageRepository::updatePlaceholder);
+                    }
+                }
+            });
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Decodes the batch on the worker pool.
+     *
+     * @return the placeholders in batch order, empty for images that get none
+     */
+    private <T> List<Optional<ImagePlaceholderService.Placeholder>> compute(List<T> batch, Function<T, String> imageUrl,
+                                                                          ExecutorService workers) {
+        List<CompletableFuture<Optional<ImagePlaceholderService.Placeholder>>> futures = batch.stream()
+                .map(image -> CompletableFuture.supplyAsync(
+                        () -> imagePlaceholderService.compute(imageUrl.apply(image)), workers))
+                .toList();
+        List<Optional<ImagePlaceholderService.Placeholder>> placeholders = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        scanned.addAndGet(placeholders.size());
+        skipped.addAndGet(placeholders.stream().filter(Optional::isEmpty).count());
+        return placeholders;
+    }
+
+    private boolean update(Long id, String imageUrl, ImagePlaceholderService.Placeholder placeholder,
+                           PlaceholderUpdate query) {
+        boolean changed = query.update(id, imageUrl, placeholder.width(), placeholder.height(),
+                placeholder.dominantColor(), placeholder.blurHash()) > 0;
+        if (changed) {
+            updated.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * The {@code updatePlaceholder} query of either image repository.
+     */
+    @FunctionalInterface
+    private interface PlaceholderUpdate {
+        int update(Long id, String imageUrl, int width, int height, String dominantColor, String blurHash);
+    }
+
+    private static ExecutorService workers(int parallelism) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "image-placeholder-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public record Progress(boolean running, LocalDateTime startedAt, LocalDateTime finishedAt, long scanned,
+                           long updated, long skipped) {
+    }
+}
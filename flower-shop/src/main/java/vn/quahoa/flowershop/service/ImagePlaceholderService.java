@@ -0,0 +1,173 @@
+package vn.quahoa.flowershop.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.model.BlogImage;
+import vn.quahoa.flowershop.model.ProductImage;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.util.BlurHash;
+
+/**
+ * Dimensions, dominant color and BlurHash of a stored image, computed once when the image is attached
+ * (and by {@link ImagePlaceholderBackfill} for older rows) so clients can reserve layout space and
+ * paint a placeholder before the image itself arrives.
+ * <p>
+ * Only a thumbnail of {@value #SAMPLE_SIZE}px is decoded (with subsampling), so this is cheap enough
+ * to run inline. Images outside the blob store or that ImageIO cannot decode (WebP, HEIC) get none.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImagePlaceholderService {
+
+    // A 4x3 BlurHash does not get any better from more pixels than this
+    private static final int SAMPLE_SIZE = 32;
+    private static final int SUBSAMPLE_HEADROOM = 2;
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private final BlobStore blobStore;
+
+    /**
+     * @param width         as displayed, i.e. after the EXIF orientation is applied
+     * @param dominantColor {@code #rrggbb}
+     */
+    public record Placeholder(int width, int height, String dominantColor, String blurHash) {
+    }
+
+    public void fill(ProductImage image) {
+        compute(image.getImageUrl()).ifPresent(placeholder -> {
+            image.setWidth(placeholder.width());
+            image.setHeight(placeholder.height());
+            image.setDominantColor(placeholder.dominantColor());
+            image.setBlurHash(placeholder.blurHash());
+        });
+    }
+
+    public void fill(BlogImage image) {
+        compute(image.getImageUrl()).ifPresent(placeholder -> {
+            image.setWidth(placeholder.width());
+            image.setHeight(placeholder.height());
+            image.setDominantColor(placeholder.dominantColor());
+            image.setBlurHash(placeholder.blurHash());
+        });
+    }
+
+    /**
+     * @return empty when the URL is not in the blob store or the image cannot be decoded; never throws,
+     * a missing placeholder must not fail the upload
+     */
+    public Optional<Placeholder> compute(String imageUrl) {
+        Optional<String> key = blobStore.keyOf(imageUrl);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = blobStore.resolve(key.get());
+        try {
+            return Optional.ofNullable(compute(file));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not compute placeholder for {}: {}", key.get(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return null when ImageIO has no reader for the file
+     */
+    static Placeholder compute(Path file) throws IOException {
+        int orientation = 1;
+        if (ImageNormalizer.sniff(file) == ImageNormalizer.Format.JPEG) {
+            try (InputStream in = Files.newInputStream(file)) {
+                orientation = ImageNormalizer.jpegOrientation(in);
+            }
+        }
+
+        int width;
+        int height;
+        BufferedImage sample;
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large: " + width + "x" + height + " pixels");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(width, height) / (SAMPLE_SIZE * SUBSAMPLE_HEADROOM);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                sample = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        sample = ImageNormalizer.orient(sample, orientation);
+        if (orientation >= 5) {
+            int swapped = width;
+            width = height;
+            height = swapped;
+        }
+        int sampleWidth = sample.getWidth() >= sample.getHeight()
+                ? SAMPLE_SIZE
+                : Math.max(1, (int) Math.round((double) sample.getWidth() * SAMPLE_SIZE / sample.getHeight()));
+        // Also flattens transparency onto white, as the image is shown on the white storefront
+        BufferedImage thumbnail = ImageVariantService.scale(sample, sampleWidth, false);
+
+        int thumbWidth = thumbnail.getWidth();
+        int thumbHeight = thumbnail.getHeight();
+        int[] pixels = thumbnail.getRGB(0, 0, thumbWidth, thumbHeight, null, 0, thumbWidth);
+        String blurHash = thumbWidth >= thumbHeight
+                ? BlurHash.encode(pixels, thumbWidth, thumbHeight, 4, 3)
+                : BlurHash.encode(pixels, thumbWidth, thumbHeight, 3, 4);
+        return new Placeholder(width, height, dominantColor(pixels), blurHash);
+    }
+
+    /**
+     * Most frequent color at 4 bits per channel, averaged over the pixels in that bucket so it is not
+     * snapped to the bucket's corner.
+     */
+    static String dominantColor(int[] pixels) {
+        int[] counts = new int[4096];
+        long[][] sums = new long[4096][3];
+        for (int pixel : pixels) {
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            int bucket = (r >> 4) << 8 | (g >> 4) << 4 | (b >> 4);
+            counts[bucket]++;
+            sums[bucket][0] += r;
+            sums[bucket][1] += g;
+            sums[bucket][2] += b;
+        }
+        int best = 0;
+        for (int bucket = 1; bucket < counts.length; bucket++) {
+            if (counts[bucket] > counts[best]) {
+                best = bucket;
+            }
+        }
+        int count = Math.max(1, counts[best]);
+        return String.format("#%02x%02x%02x", sums[best][0] / count, sums[best][1] / count, sums[best][2] / count);
+    }
+}
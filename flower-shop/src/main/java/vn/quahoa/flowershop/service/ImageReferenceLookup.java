@@ -0,0 +1,76 @@
+package vn.quahoa.flowershop.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.config.StorageGcProperties;
+import vn.quahoa.flowershop.repository.BlogImageRepository;
+import vn.quahoa.flowershop.repository.BlogRepository;
+import vn.quahoa.flowershop.repository.ProductImageRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+/**
+ * Finds which stored files are used by products and blogs. Records keep full public URLs, built
+ * either from app.storage.base-url or from app.upload.base-url + /images/, so each storage path is
+ * looked up under every URL it may have been saved as, a whole batch per query.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageReferenceLookup {
+
+    private final StorageGcProperties storageGcProperties;
+    private final FileStorageService fileStorageService;
+    private final ImageStorageService imageStorageService;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final BlogRepository blogRepository;
+    private final BlogImageRepository blogImageRepository;
+
+    /**
+     * @return the given storage paths that at least one record points at
+     */
+    public Set<String> referencedPaths(Collection<String> paths) {
+        Map<String, String> pathByUrl = urlsFor(paths);
+        Set<String> referenced = new HashSet<>();
+        storedUrls(pathByUrl.keySet()).forEach(url -> referenced.add(pathByUrl.get(url)));
+        return referenced;
+    }
+
+    /**
+     * @return the URLs, exactly as stored, that point at {@code path}
+     */
+    public Set<String> referencingUrls(String path) {
+        return new HashSet<>(storedUrls(urlsFor(List.of(path)).keySet()));
+    }
+
+    private List<String> storedUrls(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return List.of();
+        }
+        return Stream.of(productRepository.findMainImageUrlsIn(urls), productImageRepository.findImageUrlsIn(urls),
+                        blogRepository.findImageUrlsIn(urls), blogImageRepository.findImageUrlsIn(urls))
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private Map<String, String> urlsFor(Collection<String> paths) {
+        Map<String, String> pathByUrl = new HashMap<>();
+        for (String path : paths) {
+            pathByUrl.put(path, path);
+            pathByUrl.put(fileStorageService.getPublicUrl(path), path);
+            pathByUrl.put(imageStorageService.publicUrl(path), path);
+            for (String prefix : storageGcProperties.getExtraUrlPrefixes()) {
+                pathByUrl.put(prefix.endsWith("/") ? prefix + path : prefix + "/" + path, path);
+            }
+        }
+        return pathByUrl;
+    }
+}
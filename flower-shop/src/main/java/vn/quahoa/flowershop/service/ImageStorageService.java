@@ -2,31 +2,39 @@ package vn.quahoa.flowershop.service;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.ImageMemoryCache;
+import vn.quahoa.flowershop.storage.ImageVariants;
+import vn.quahoa.flowershop.storage.LocalBlobStore;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class ImageStorageService {
 
+    private final ImageDownloadService imageDownloadService;
+    private final BlobStore blobStore;
+    private final RemoteImageCache remoteImageCache;
+    private final ImageNormalizer imageNormalizer;
+    private final ImageMemoryCache imageMemoryCache;
+
     @Value("${app.upload.base-url:http://localhost:8080}")
     private String baseUrl;
 
     @Value("${app.storage.local-path:/app/images}")
     private String localStoragePath;
 
-    private static final String UPLOAD_DIR_PRODUCTS = "products";
-    private static final String UPLOAD_DIR_BLOGS = "blogs";
-
     public String getBaseUrl() {
         return baseUrl;
     }
@@ -39,29 +47,17 @@ public class ImageStorageService {
     }
 
     /**
-     * Save image from MultipartFile with type (product/blog)
+     * Save image from MultipartFile with type (product/blog) into the blob store
      */
     private String saveImageFromFileWithType(MultipartFile file, Long entityId, boolean isMain, String type) throws IOException {
-        String baseDir = type.equals("blog") ? UPLOAD_DIR_BLOGS : UPLOAD_DIR_PRODUCTS;
-        String subDir = isMain ? "/main" : "";
-        String relativePathFromImages = baseDir + "/" + entityId + subDir;
-        
-        // Absolute path on disk: /app/images/blogs/1/main
-        Path uploadDir = Paths.get(localStoragePath, relativePathFromImages);
-
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
+        BlobStore.StoredBlobRef blob;
+        try (InputStream inputStream = file.getInputStream()) {
+            blob = imageNormalizer.store(inputStream, LocalBlobStore.extensionOf(file.getOriginalFilename()));
         }
+        log.info("Saved {} image from file for {}: {}", type, entityId, blob.key());
 
-        String prefix = isMain ? "main_" : "";
-        String fileName = prefix + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path filePath = uploadDir.resolve(fileName);
-        
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        log.info("Saved {} image from file: {}", type, filePath);
-
-        // Return URL: http://localhost:8080/images/blogs/1/main/main_123.jpg
-        return baseUrl + "/images/" + relativePathFromImages + "/" + fileName;
+        // Return URL: http://localhost:8080/images/blobs/ab/cd/<sha256>.jpg
+        return publicUrl(blob.key());
     }
 
     /**
@@ -93,56 +89,38 @@ public class ImageStorageService {
             return null;
         }
 
-        // If it's already a local URL, return as is
-        if (imageUrl.startsWith(baseUrl)) {
-            return imageUrl;
-        }
-
-        String baseDir = type.equals("blog") ? UPLOAD_DIR_BLOGS : UPLOAD_DIR_PRODUCTS;
-        String subDir = isMain ? "/main" : "";
-        String relativePathFromImages = baseDir + "/" + entityId + subDir;
-        
-        // Absolute path on disk: /app/images/blogs/1/main
-        Path uploadDir = Paths.get(localStoragePath, relativePathFromImages);
-
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-        }
-
-        // Extract file extension from URL
-        String extension = getExtensionFromUrl(imageUrl);
-        String prefix = isMain ? "main_" : "";
-        String fileName = prefix + System.currentTimeMillis() + extension;
-        Path filePath = uploadDir.resolve(fileName);
-
-        // Download image from URL
-        try (InputStream in = new URL(imageUrl).openStream()) {
-            Files.copy(in, filePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("Downloaded {} image from URL: {} to {}", type, imageUrl, filePath);
-        } catch (Exception e) {
+        try {
+            return downloadImage(imageUrl, entityId, isMain, type);
+        } catch (IOException e) {
             log.error("Failed to download {} image from URL: {}", type, imageUrl, e);
             // If download fails, return original URL
             return imageUrl;
         }
-
-        // Return URL: http://localhost:8080/images/blogs/1/main/main_123.jpg
-        return baseUrl + "/images/" + relativePathFromImages + "/" + fileName;
     }
 
     /**
-     * Extract file extension from URL
+     * Download an additional blog image from URL, failing instead of falling back to the source URL
      */
-    private String getExtensionFromUrl(String url) {
-        try {
-            String path = new URL(url).getPath();
-            int lastDot = path.lastIndexOf('.');
-            if (lastDot > 0) {
-                return path.substring(lastDot);
-            }
-        } catch (Exception e) {
-            log.warn("Could not extract extension from URL: {}", url);
+    public String downloadBlogImage(String imageUrl, Long blogId) throws IOException {
+        if (imageUrl == null || imageUrl.trim().isEmpty()) {
+            throw new IOException("Image URL is empty");
+        }
+        return downloadImage(imageUrl.trim(), blogId, false, "blog");
+    }
+
+    private String downloadImage(String imageUrl, Long entityId, boolean isMain, String type) throws IOException {
+        // If it's already a local URL, reuse it (one more reference when it is a stored blob)
+        if (imageUrl.startsWith(baseUrl)) {
+            blobStore.keyOf(imageUrl).ifPresent(blobStore::retain);
+            return imageUrl;
         }
-        return ".jpg"; // default extension
+
+        // Same source URL seen before: reused or revalidated instead of downloaded again
+        BlobStore.StoredBlobRef blob = remoteImageCache.fetch(imageUrl);
+        log.info("Downloaded {} image for {} from URL: {} to {}", type, entityId, imageUrl, blob.key());
+
+        // Return URL: http://localhost:8080/images/blobs/ab/cd/<sha256>.jpg
+        return publicUrl(blob.key());
     }
 
     /**
@@ -153,16 +131,11 @@ public class ImageStorageService {
             return null;
         }
 
-        try (InputStream in = new URL(imageUrl).openStream()) {
-            return in.readAllBytes();
-        } catch (Exception e) {
-            log.error("Failed to download image from URL: {}", imageUrl, e);
-            throw new IOException("Failed to download image from URL: " + imageUrl, e);
-        }
+        return imageDownloadService.downloadBytes(imageUrl);
     }
 
     /**
-     * Delete image file
+     * Delete image file: a blob only loses one reference and is removed with the last one
      */
     public void deleteImage(String imageUrl) {
         if (imageUrl == null || !imageUrl.startsWith(baseUrl)) {
@@ -170,16 +143,33 @@ public class ImageStorageService {
         }
 
         try {
-            // URL: http://localhost:8080/images/blogs/1/main/main_123.jpg
+            Optional<String> blobKey = blobStore.keyOf(imageUrl);
+            if (blobKey.isPresent()) {
+                blobStore.release(blobKey.get());
+                // Dropped even when the blob is still used elsewhere: the next view reads it from disk again
+                imageMemoryCache.invalidate(blobStore.resolve(blobKey.get()));
+                return;
+            }
+
+            // Legacy layout, URL: http://localhost:8080/images/blogs/1/main/main_123.jpg
             // Extract: blogs/1/main/main_123.jpg
             String relativePath = imageUrl.replace(baseUrl + "/images/", "");
             
             // Full path: /app/images/blogs/1/main/main_123.jpg
             Path filePath = Paths.get(localStoragePath, relativePath);
+            imageMemoryCache.invalidate(filePath);
             Files.deleteIfExists(filePath);
+            ImageVariants.deleteVariants(filePath);
             log.info("Deleted image: {}", filePath);
         } catch (Exception e) {
             log.error("Failed to delete image: {}", imageUrl, e);
         }
     }
+
+    /**
+     * Public URL of a storage path, e.g. a blob key
+     */
+    public String publicUrl(String key) {
+        return baseUrl + "/images/" + key;
+    }
 }
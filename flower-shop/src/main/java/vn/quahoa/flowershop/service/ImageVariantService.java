@@ -0,0 +1,328 @@
+package vn.quahoa.flowershop.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageVariantProperties;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.storage.ImageVariants;
+
+/**
+ * Resized derivatives of stored images, generated with ImageIO on first request and cached on disk
+ * beside the original (see {@link ImageVariants}).
+ * <p>
+ * Requested widths snap to the configured presets, so callers cannot fill the disk with arbitrary
+ * sizes. Generation runs on a small bounded pool; concurrent requests for the same variant share one
+ * job, and when the pool is saturated or a job is slow the original is served instead.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final Set<String> READABLE = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final int MIN_WIDTH = 16;
+    private static final int MAX_WIDTH = 4096;
+    private static final int MAX_PRESETS = 12;
+    // Larger sources are decoded with subsampling down to twice the target width
+    private static final int SUBSAMPLE_HEADROOM = 2;
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private final ImageVariantProperties properties;
+    private final Path root;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile List<Integer> presets;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+
+    public record Stats(
+            List<Integer> presets,
+            long hits,
+            long generated,
+            long shared,
+            long fallbacks,
+            long averageMillis,
+            int queued) {
+    }
+
+    public ImageVariantService(ImageVariantProperties properties, StorageProperties storageProperties) {
+        this.properties = properties;
+        this.root = Paths.get(storageProperties.getLocalPath()).toAbsolutePath().normalize();
+        this.presets = normalizePresets(properties.getWidths());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the cached or freshly generated derivative of {@code original} for the preset closest to
+     * {@code requestedWidth}, or empty when the original should be served as is.
+     */
+    public Optional<Path> variant(Path original, int requestedWidth) {
+        if (!properties.isEnabled() || requestedWidth <= 0) {
+            return Optional.empty();
+        }
+        Path source = original.toAbsolutePath().normalize();
+        if (!source.startsWith(root) || ImageVariants.isVariant(source)
+                || !READABLE.contains(ImageVariants.extension(source)) || !Files.isRegularFile(source)) {
+            return Optional.empty();
+        }
+
+        int width = presetFor(requestedWidth);
+        Path target = ImageVariants.variantPath(source, width);
+        if (isFresh(target, source)) {
+            hits.increment();
+            return Optional.of(target);
+        }
+
+        CompletableFuture<Path> job = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(target, job);
+        if (running != null) {
+            shared.increment();
+            return await(running, source);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    job.complete(generate(source, target, width));
+                } catch (Throwable e) {
+                    job.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(target, job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(target, job);
+            fallbacks.increment();
+            log.debug("Variant queue full, serving original {}", source);
+            return Optional.empty();
+        }
+        return await(job, source);
+    }
+
+    public List<Integer> getPresets() {
+        return presets;
+    }
+
+    /**
+     * Replaces the allowed widths at runtime. Variants of removed presets stay on disk until their
+     * original is deleted.
+     */
+    public List<Integer> updatePresets(List<Integer> widths) {
+        List<Integer> normalized = normalizePresets(widths);
+        presets = normalized;
+        properties.setWidths(normalized);
+        log.info("Image variant presets set to {}", normalized);
+        return normalized;
+    }
+
+    public Stats stats() {
+        long count = generated.sum();
+        return new Stats(presets, hits.sum(), count, shared.sum(), fallbacks.sum(),
+                count == 0 ? 0 : totalMillis.sum() / count, executor.getQueue().size());
+    }
+
+    private int presetFor(int requestedWidth) {
+        List<Integer> widths = presets;
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths.get(widths.size() - 1);
+    }
+
+    private Optional<Path> await(CompletableFuture<Path> job, Path source) {
+        Duration timeout = properties.getWaitTimeout();
+        try {
+            return Optional.ofNullable(job.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            // Keep generating in the background, the next request gets the cached file
+            log.debug("Variant of {} not ready after {} ms, serving original", source, timeout.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Failed to create variant of {}", source, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fallbacks.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * @return the written variant, or null when ImageIO cannot decode the source
+     */
+    private Path generate(Path source, Path target, int width) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage image = read(source, width);
+        if (image == null) {
+            return null;
+        }
+        String format = ImageVariants.formatOf(source);
+        BufferedImage scaled = scale(image, width, format.equals("png"));
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            write(scaled, format, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        generated.increment();
+        totalMillis.add(millis);
+        log.info("Created {}px variant {} ({} -> {} bytes, {} ms)", width, target.getFileName(),
+                Files.size(source), Files.size(target), millis);
+        return target;
+    }
+
+    private static BufferedImage read(Path source, int width) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                if ((long) sourceWidth * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large to resize: " + source);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = sourceWidth / (width * SUBSAMPLE_HEADROOM);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscales in halving steps (bilinear each), which keeps quality close to bicubic at a fraction
+     * of the cost. Never upscales.
+     */
+    static BufferedImage scale(BufferedImage source, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            int nextWidth = Math.max(targetWidth, currentWidth / 2);
+            int nextHeight = nextWidth == targetWidth ? targetHeight : Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, nextWidth, nextHeight);
+                }
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > targetWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format.equals("jpg") ? "jpeg" : format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equals("jpg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(properties.getQuality());
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static boolean isFresh(Path variant, Path source) {
+        try {
+            return Files.exists(variant)
+                    && Files.getLastModifiedTime(variant).compareTo(Files.getLastModifiedTime(source)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static List<Integer> normalizePresets(List<Integer> widths) {
+        if (widths == null || widths.isEmpty()) {
+            throw new IllegalArgumentException("At least one image width preset is required");
+        }
+        List<Integer> normalized = widths.stream().distinct().sorted().toList();
+        if (normalized.size() > MAX_PRESETS) {
+            throw new IllegalArgumentException("At most " + MAX_PRESETS + " image width presets are allowed");
+        }
+        if (normalized.get(0) < MIN_WIDTH || normalized.get(normalized.size() - 1) > MAX_WIDTH) {
+            throw new IllegalArgumentException("Image widths must be between " + MIN_WIDTH + " and " + MAX_WIDTH);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,281 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.StorageGcProperties;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.ImageVariants;
+import vn.quahoa.flowershop.storage.StorageWalker;
+
+/**
+ * Removes stored images that no product or blog points at any more.
+ * <p>
+ * Each round checks one small batch of files, in walk order after a cursor kept in
+ * {@code .storage-gc/cursor}, so a pass over the whole volume is spread out and resumes where it
+ * stopped after a restart. A batch costs one IN query per image column (see
+ * {@link ImageReferenceLookup}); files younger than the grace period are left alone, and orphans are
+ * moved to {@code .storage-gc/quarantine} (or deleted) with a pause after each one so the collector
+ * never competes with serving images.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrphanImageCollector {
+
+    static final String STATE_DIR = ".storage-gc";
+    private static final String CURSOR_FILE = "cursor";
+    private static final String QUARANTINE_DIR = "quarantine";
+    private static final int REPORT_BATCH = 500;
+    private static final int REPORT_MAX_ORPHANS = 1000;
+
+    private final StorageGcProperties properties;
+    private final StorageProperties storageProperties;
+    private final BlobStore blobStore;
+    private final ImageReferenceLookup imageReferenceLookup;
+
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong quarantined = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong bytesFreed = new AtomicLong();
+    private volatile LocalDateTime lastPassCompletedAt;
+
+    @Scheduled(initialDelayString = "${app.storage-gc.initial-delay:5m}", fixedDelayString = "${app.storage-gc.interval:1m}")
+    public void collectBatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            List<String> batch = new StorageWalker(root()).nextBatch(readCursor(), properties.getBatchSize());
+            scanned.addAndGet(batch.size());
+            for (Orphan orphan : classify(batch).orphans()) {
+                if (dispose(orphan) && !pause()) {
+                    // Interrupted (shutting down): this batch is checked again next time
+                    return;
+                }
+            }
+            if (batch.size() < properties.getBatchSize()) {
+                writeCursor("");
+                passes.incrementAndGet();
+                lastPassCompletedAt = LocalDateTime.now();
+                purgeQuarantine();
+            } else {
+                writeCursor(batch.get(batch.size() - 1));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Orphan image collection failed, retrying next round", e);
+        }
+    }
+
+    /**
+     * Dry run: what a pass would remove, without touching anything or moving the cursor.
+     *
+     * @param after    continue a previous report from its {@code resumeAfter}, or null to start at the top
+     * @param maxFiles files to check in this call
+     */
+    public Report report(String after, int maxFiles) throws IOException {
+        StorageWalker walker = new StorageWalker(root());
+        String cursor = after != null ? after : "";
+        int checked = 0;
+        int referenced = 0;
+        int recent = 0;
+        int orphanCount = 0;
+        long orphanBytes = 0;
+        List<Orphan> orphans = new ArrayList<>();
+        boolean complete = false;
+
+        while (checked < maxFiles) {
+            int limit = Math.min(REPORT_BATCH, maxFiles - checked);
+            List<String> batch = walker.nextBatch(cursor, limit);
+            Classification result = classify(batch);
+            checked += batch.size();
+            referenced += result.referenced();
+            recent += result.recent();
+            for (Orphan orphan : result.orphans()) {
+                orphanCount++;
+                orphanBytes += orphan.size();
+                if (orphans.size() < REPORT_MAX_ORPHANS) {
+                    orphans.add(orphan);
+                }
+            }
+            if (batch.size() < limit) {
+                complete = true;
+                break;
+            }
+            cursor = batch.get(batch.size() - 1);
+        }
+        return new Report(checked, referenced, recent, orphanCount, orphanBytes, orphans, complete, complete ? null : cursor);
+    }
+
+    public Stats stats() {
+        String cursor;
+        try {
+            cursor = readCursor();
+        } catch (IOException e) {
+            cursor = null;
+        }
+        return new Stats(properties.isEnabled(), properties.isQuarantine(), cursor, passes.get(), scanned.get(),
+                quarantined.get(), deleted.get(), bytesFreed.get(), lastPassCompletedAt);
+    }
+
+    private Classification classify(List<String> paths) throws IOException {
+        Set<String> used = imageReferenceLookup.referencedPaths(paths);
+        Instant graceCutoff = Instant.now().minus(properties.getGracePeriod());
+        int referenced = 0;
+        int recent = 0;
+        List<Orphan> orphans = new ArrayList<>();
+        for (String path : paths) {
+            if (used.contains(path)) {
+                referenced++;
+                continue;
+            }
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(root().resolve(path), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            Instant modified = attributes.lastModifiedTime().toInstant();
+            if (modified.isAfter(graceCutoff)) {
+                recent++;
+                continue;
+            }
+            boolean blob = blobStore.keyOf(path).filter(path::equals).isPresent();
+            orphans.add(new Orphan(path, attributes.size(), LocalDateTime.ofInstant(modified, ZoneId.systemDefault()), blob));
+        }
+        return new Classification(referenced, recent, orphans);
+    }
+
+    /**
+     * @return false when the file was left in place (a blob referenced again meanwhile, or gone already)
+     */
+    private boolean dispose(Orphan orphan) {
+        try {
+            if (orphan.blob()) {
+                LocalDateTime referencedBefore = LocalDateTime.now().minus(properties.getGracePeriod());
+                if (!blobStore.evict(orphan.path(), referencedBefore, this::discard)) {
+                    return false;
+                }
+            } else {
+                Path file = root().resolve(orphan.path());
+                discard(file);
+                ImageVariants.deleteVariants(file);
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Could not remove orphaned image {}", orphan.path(), e);
+            return false;
+        }
+
+        (properties.isQuarantine() ? quarantined : deleted).incrementAndGet();
+        bytesFreed.addAndGet(orphan.size());
+        log.info("{} orphaned image {} ({} bytes)", properties.isQuarantine() ? "Quarantined" : "Deleted", orphan.path(), orphan.size());
+        return true;
+    }
+
+    private void discard(Path file) throws IOException {
+        if (!properties.isQuarantine()) {
+            Files.delete(file);
+            return;
+        }
+        Path target = quarantineDirectory().resolve(root().relativize(file));
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        // Retention counts from the move
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+    }
+
+    private void purgeQuarantine() throws IOException {
+        Path quarantine = quarantineDirectory();
+        if (!Files.isDirectory(quarantine)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(properties.getQuarantineRetention());
+        try (Stream<Path> files = Files.walk(quarantine)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    log.debug("Purged quarantined image {}", file);
+                }
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getDeletionPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String readCursor() throws IOException {
+        Path file = stateDirectory().resolve(CURSOR_FILE);
+        return Files.exists(file) ? Files.readString(file).trim() : "";
+    }
+
+    private void writeCursor(String cursor) throws IOException {
+        Path directory = Files.createDirectories(stateDirectory());
+        Path temp = directory.resolve(CURSOR_FILE + ".tmp");
+        Files.writeString(temp, cursor);
+        Files.move(temp, directory.resolve(CURSOR_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path quarantineDirectory() {
+        return stateDirectory().resolve(QUARANTINE_DIR);
+    }
+
+    private Path stateDirectory() {
+        return root().resolve(STATE_DIR);
+    }
+
+    private Path root() {
+        return Paths.get(storageProperties.getLocalPath());
+    }
+
+    private record Classification(int referenced, int recent, List<Orphan> orphans) {
+    }
+
+    /**
+     * @param blob content-addressed file, removed through the blob store so its reference row goes too
+     */
+    public record Orphan(String path, long size, LocalDateTime lastModified, boolean blob) {
+    }
+
+    /**
+     * @param recent      unreferenced but inside the grace period
+     * @param orphans     at most the first 1000, {@code orphanCount} has the total
+     * @param resumeAfter pass as {@code after} to continue, null when the walk reached the end
+     */
+    public record Report(int scanned, int referenced, int recent, int orphanCount, long orphanBytes,
+                         List<Orphan> orphans, boolean complete, String resumeAfter) {
+    }
+
+    public record Stats(boolean enabled, boolean quarantine, String cursor, long passes, long scanned,
+                        long quarantined, long deleted, long bytesFreed, LocalDateTime lastPassCompletedAt) {
+    }
+}
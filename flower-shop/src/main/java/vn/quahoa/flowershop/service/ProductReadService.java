@@ -0,0 +1,316 @@
+package vn.quahoa.flowershop.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.dto.product.PriceBucket;
+import vn.quahoa.flowershop.dto.product.ProductBrowseFilter;
+import vn.quahoa.flowershop.dto.product.ProductBrowseResponse;
+import vn.quahoa.flowershop.dto.product.ProductCursor;
+import vn.quahoa.flowershop.dto.product.ProductFacetRow;
+import vn.quahoa.flowershop.dto.product.ProductField;
+import vn.quahoa.flowershop.dto.product.ProductImageResponse;
+import vn.quahoa.flowershop.dto.product.ProductImageRow;
+import vn.quahoa.flowershop.dto.product.ProductPageResponse;
+import vn.quahoa.flowershop.dto.product.ProductResponse;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+import vn.quahoa.flowershop.dto.product.ProductSort;
+import vn.quahoa.flowershop.dto.product.VersionStamp;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.ProductImageRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+/**
+ * Read model for products.
+ * A listing costs one DTO projection joined with the category, then one IN query for the images
+ * of every {@value #BATCH_SIZE} returned products: two queries for any page (at most
+ * {@value #MAX_PAGE_SIZE} products), ceil(N/{@value #BATCH_SIZE}) + 1 for a full listing of N products.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductReadService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Rows buffered per image query while streaming, and upper bound of a single IN list
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductSearchService productSearchService;
+
+    public List<ProductResponse> findAll() {
+        return assemble(productRepository.findAllRows());
+    }
+
+    public Optional<ProductResponse> findById(Long id) {
+        return productRepository.findRowById(id)
+                .map(row -> assemble(List.of(row)).get(0));
+    }
+
+    /**
+     * Loads the given products in id chunks; result order is unspecified. Both the rows and their
+     * images take one query per {@value #BATCH_SIZE} ids.
+     */
+    public List<ProductResponse> findByIds(Collection<Long> ids) {
+        List<Long> idList = List.copyOf(ids);
+        List<ProductRow> rows = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += BATCH_SIZE) {
+            rows.addAll(productRepository.findRowsByIdIn(idList.subList(from, Math.min(from + BATCH_SIZE, idList.size()))));
+        }
+        return assemble(rows);
+    }
+
+    public List<ProductResponse> findByCategory(Long categoryId) {
+        return assemble(productRepository.findRowsByCategoryId(categoryId));
+    }
+
+    /**
+     * Ranked keyword search, one page at a time.
+     *
+     * @param page zero-based page number
+     * @param size page size, defaults to {@link #MAX_PAGE_SIZE}
+     */
+    public List<ProductResponse> search(String keyword, Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int pageSize = size != null ? resolvePageSize(size) : MAX_PAGE_SIZE;
+        return assemble(productSearchService.search(keyword, pageNumber, pageSize));
+    }
+
+    /**
+     * Keyset-paginated listing. Each page seeks past the cursor instead of using OFFSET,
+     * so the cost of a page does not grow with its position in the catalog.
+     */
+    public ProductPageResponse getPage(String cursor, Integer size, String sort) {
+        ProductSort productSort = ProductSort.from(sort);
+        int pageSize = resolvePageSize(size);
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<ProductRow> rows;
+        if (cursor == null || cursor.trim().isEmpty()) {
+            rows = switch (productSort) {
+                case ID -> productRepository.findFirstPageById(limit);
+                case PRICE -> productRepository.findFirstPageByPrice(limit);
+                case NAME -> productRepository.findFirstPageByName(limit);
+            };
+        } else {
+            ProductCursor after = ProductCursor.decode(cursor);
+            if (after.sort() != productSort) {
+                throw new IllegalArgumentException("Cursor does not match sort " + productSort.name().toLowerCase());
+            }
+            rows = switch (productSort) {
+                case ID -> productRepository.findPageAfterId(after.id(), limit);
+                case PRICE -> productRepository.findPageAfterPrice(after.priceValue(), after.id(), limit);
+                case NAME -> productRepository.findPageAfterName(after.value(), after.id(), limit);
+            };
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        ProductPageResponse page = new ProductPageResponse();
+        page.setItems(assemble(rows));
+        page.setSize(pageSize);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            ProductRow last = rows.get(rows.size() - 1);
+            page.setNextCursor(ProductCursor.after(productSort, last.id(), last.name(), last.price()).encode());
+        }
+        return page;
+    }
+
+    /**
+     * Sparse fieldset: selects only the requested columns, and queries images only when asked for.
+     *
+     * @return one map per product, keys in field order
+     */
+    public List<Map<String, Object>> findFields(Set<ProductField> fields, Long categoryId, Long productId) {
+        List<Tuple> tuples = productRepository.findFields(fields, categoryId, productId);
+        Map<Long, List<ProductImageResponse>> images = fields.contains(ProductField.IMAGES) && !tuples.isEmpty()
+                ? loadImages(tuples.stream().map(tuple -> tuple.get(ProductField.ID.jsonName(), Long.class)).toList())
+                : Map.of();
+
+        List<Map<String, Object>> products = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                if (field == ProductField.IMAGES) {
+                    Long id = tuple.get(ProductField.ID.jsonName(), Long.class);
+                    product.put(field.jsonName(), images.getOrDefault(id, List.of()));
+                } else {
+                    product.put(field.jsonName(), tuple.get(field.jsonName()));
+                }
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Filtered, sorted and paginated listing with facet counts.
+     * Two catalog queries (facets, then the page) plus the image query; the total comes from
+     * the facet groups so no separate COUNT is needed.
+     *
+     * @param page zero-based page number
+     */
+    public ProductBrowseResponse browse(ProductBrowseFilter filter, Integer page, Integer size) {
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice() > filter.maxPrice()) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int pageSize = resolvePageSize(size);
+
+        List<ProductFacetRow> facetRows = productRepository.browseFacets(filter);
+        Map<Long, ProductBrowseResponse.CategoryFacet> categories = new LinkedHashMap<>();
+        long[] bucketCounts = new long[PriceBucket.BUCKETS.size()];
+        long total = 0;
+        for (ProductFacetRow row : facetRows) {
+            boolean inCategory = filter.categoryId() == null || filter.categoryId().equals(row.categoryId());
+            if (row.inPriceRange() > 0) {
+                categories.merge(row.categoryId(),
+                        new ProductBrowseResponse.CategoryFacet(row.categoryId(), row.categoryName(), row.inPriceRange()),
+                        (a, b) -> new ProductBrowseResponse.CategoryFacet(a.categoryId(), a.categoryName(), a.count() + b.count()));
+            }
+            if (inCategory) {
+                bucketCounts[row.bucket()] += row.total();
+                total += row.inPriceRange();
+            }
+        }
+
+        long offset = (long) pageNumber * pageSize;
+        List<ProductRow> rows = offset < total
+                ? productRepository.browse(filter, (int) offset, pageSize)
+                : List.of();
+
+        ProductBrowseResponse response = new ProductBrowseResponse();
+        response.setItems(assemble(rows));
+        response.setPage(pageNumber);
+        response.setSize(pageSize);
+        response.setTotalElements(total);
+        response.setTotalPages((int) ((total + pageSize - 1) / pageSize));
+        response.setCategories(categories.values().stream()
+                .sorted(Comparator.comparing(ProductBrowseResponse.CategoryFacet::categoryName))
+                .toList());
+        List<ProductBrowseResponse.PriceRangeFacet> priceRanges = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            PriceBucket bucket = PriceBucket.BUCKETS.get(i);
+            priceRanges.add(new ProductBrowseResponse.PriceRangeFacet(bucket.min(), bucket.max(), bucketCounts[i]));
+        }
+        response.setPriceRanges(priceRanges);
+        return response;
+    }
+
+    /**
+     * Pushes every product to the consumer as rows come off a scrolled result set.
+     * Rows are assembled in fixed-size batches so memory use stays flat regardless of catalog size.
+     */
+    public void stream(Consumer<ProductResponse> consumer) {
+        try (Stream<ProductRow> rows = productRepository.streamAllRows()) {
+            Iterator<ProductRow> iterator = rows.iterator();
+            List<ProductRow> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE) {
+                    assemble(batch).forEach(consumer);
+                    batch.clear();
+                }
+            }
+            assemble(batch).forEach(consumer);
+        }
+    }
+
+    // ============================================
+    // ETAGS (derived from aggregate queries, no entity loading)
+    // ============================================
+
+    /**
+     * @return the product's ETag, or null when it does not exist
+     */
+    public String productETag(Long id) {
+        VersionStamp stamp = productRepository.versionStampById(id);
+        return stamp.isEmpty() ? null : stamp.toETag("p" + id);
+    }
+
+    /**
+     * The same ETag as {@link #productETag(Long)}, from a product already loaded.
+     */
+    public String productETag(Product product) {
+        return new VersionStamp(1L, product.getVersion(), product.getId(), product.getCategory().getVersion())
+                .toETag("p" + product.getId());
+    }
+
+    public String catalogETag() {
+        return productRepository.versionStamp().toETag("all");
+    }
+
+    public String categoryETag(Long categoryId) {
+        return productRepository.versionStampByCategory(categoryId).toETag("c" + categoryId);
+    }
+
+    /**
+     * Attaches images to projection rows, keeping the row order.
+     */
+    public List<ProductResponse> assemble(List<ProductRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<ProductImageResponse>> imagesByProduct = loadImages(rows.stream().map(ProductRow::id).toList());
+
+        List<ProductResponse> responses = new ArrayList<>(rows.size());
+        for (ProductRow row : rows) {
+            responses.add(ProductResponse.fromRow(row, imagesByProduct.get(row.id())));
+        }
+        return responses;
+    }
+
+    private Map<Long, List<ProductImageResponse>> loadImages(List<Long> productIds) {
+        Map<Long, List<ProductImageResponse>> imagesByProduct = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            Collection<Long> chunk = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            for (ProductImageRow image : productImageRepository.findRowsByProductIds(chunk)) {
+                imagesByProduct.computeIfAbsent(image.productId(), id -> new ArrayList<>())
+                        .add(ProductImageResponse.fromRow(image));
+            }
+        }
+        return imagesByProduct;
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
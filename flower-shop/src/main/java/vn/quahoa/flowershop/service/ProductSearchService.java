@@ -0,0 +1,84 @@
+package vn.quahoa.flowershop.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+import vn.quahoa.flowershop.repository.ProductRepository;
+import vn.quahoa.flowershop.util.TextNormalizer;
+
+/**
+ * Keyword search over products.
+ * <p>
+ * Queries are accent-folded the same way as the stored search columns, so "hoa hong"
+ * finds "Hoa hồng". On PostgreSQL the GIN-indexed {@code search_vector} (name and code
+ * weighted A, description weighted B) is ranked with {@code ts_rank}, and trigram word
+ * similarity on the folded name catches typos. Other databases (H2 in tests/dev) fall back
+ * to the LIKE query in {@link ProductRepository}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductSearchService {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final SearchSupport searchSupport;
+
+    /**
+     * Returns one page of matching products, best matches first.
+     */
+    public List<ProductRow> search(String keyword, int page, int size) {
+        String folded = TextNormalizer.fold(keyword);
+        if (!searchSupport.isFullTextEnabled()) {
+            return productRepository.searchRows(folded, PageRequest.of(page, size));
+        }
+
+        String tsQuery = toPrefixTsQuery(folded);
+        if (tsQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> rankedIds = searchSupport.isTrigramEnabled()
+                ? productRepository.fuzzySearchIds(tsQuery, folded, size, page * size)
+                : productRepository.fullTextSearchIds(tsQuery, size, page * size);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ProductRow> rowsById = new HashMap<>();
+        for (ProductRow row : productRepository.findRowsByIdIn(rankedIds)) {
+            rowsById.put(row.id(), row);
+        }
+        List<ProductRow> ordered = new ArrayList<>(rankedIds.size());
+        for (Long id : rankedIds) {
+            ProductRow row = rowsById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * "hoa hong do" -> "hoa:* & hong:* & do:*" so partially typed words still match.
+     * Tokens only keep letters and digits, which also keeps tsquery operators out of user input.
+     */
+    static String toPrefixTsQuery(String keyword) {
+        List<String> terms = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(keyword)) {
+            if (!token.isEmpty()) {
+                terms.add(token + ":*");
+            }
+        }
+        return String.join(" & ", terms);
+    }
+}
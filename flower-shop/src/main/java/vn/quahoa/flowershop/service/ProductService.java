@@ -1,15 +1,38 @@
 package vn.quahoa.flowershop.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.cache.CatalogCache;
+import vn.quahoa.flowershop.cache.EncodedPayload;
+import vn.quahoa.flowershop.dto.image.ImageDownloadError;
+import vn.quahoa.flowershop.dto.product.ProductBatchResponse;
+import vn.quahoa.flowershop.dto.product.ProductBrowseFilter;
+import vn.quahoa.flowershop.dto.product.ProductBrowseResponse;
+import vn.quahoa.flowershop.dto.product.ProductBrowseSort;
 import vn.quahoa.flowershop.dto.product.ProductCreateRequest;
+import vn.quahoa.flowershop.dto.product.ProductField;
+import vn.quahoa.flowershop.dto.product.ProductPageResponse;
+import vn.quahoa.flowershop.dto.product.ProductResponse;
+import vn.quahoa.flowershop.dto.product.ProductSuggestion;
 import vn.quahoa.flowershop.dto.product.ProductUpdateRequest;
+import vn.quahoa.flowershop.dto.product.ProductV2Response;
+import vn.quahoa.flowershop.exception.PreconditionFailedException;
 import vn.quahoa.flowershop.exception.ResourceNotFoundException;
 import vn.quahoa.flowershop.exception.ValidationException;
 import vn.quahoa.flowershop.model.Category;
@@ -18,28 +41,46 @@ import vn.quahoa.flowershop.model.ProductImage;
 import vn.quahoa.flowershop.repository.CategoryRepository;
 import vn.quahoa.flowershop.repository.ProductImageRepository;
 import vn.quahoa.flowershop.repository.ProductRepository;
+import vn.quahoa.flowershop.util.TextNormalizer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    // Upper bound of ids per batch request (GET query string or POST body)
+    public static final int MAX_BATCH_IDS = 200;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductImageRepository productImageRepository;
     private final FileStorageService fileStorageService;
+    private final ProductReadService productReadService;
+    private final CatalogCache catalogCache;
+    private final ProductSuggestService productSuggestService;
+    private final RemoteImageFetcher remoteImageFetcher;
+    private final ImagePlaceholderService imagePlaceholderService;
+
+    /**
+     * Creates the product. Remote images that fail to download do not fail the request;
+     * they are listed in {@link ProductResponse#getImageErrors()}.
+     */
+    public ProductResponse createProduct(ProductCreateRequest request) {
+        return createProduct(request, null, List.of());
+    }
+
+    /**
+     * Creates the product with uploaded image parts (multipart request). Files are streamed from the
+     * request into storage; an uploaded main image is used when no {@code imageUrl} is given, uploaded
+     * additional images follow the {@code imageUrls} ones.
+     */
+    @SuppressWarnings("deprecation")
+    public ProductResponse createProduct(ProductCreateRequest request, MultipartFile imageFile, List<MultipartFile> imageFiles) {
+        List<MultipartFile> uploads = imageFiles == null ? List.of()
+                : imageFiles.stream().filter(file -> file != null && !file.isEmpty()).toList();
+        log.debug("Creating product {} with {} uploaded image file(s){}", request.getProductCode(), uploads.size(),
+                imageFile != null && !imageFile.isEmpty() ? " and an uploaded main image" : "");
 
-    public Product createProduct(ProductCreateRequest request) {
-        // Debug logging
-        System.out.println("=== CREATE PRODUCT REQUEST ===");
-        System.out.println("Product Code: " + request.getProductCode());
-        System.out.println("Name: " + request.getName());
-        System.out.println("Price: " + request.getPrice());
-        System.out.println("ImageUrl: " + request.getImageUrl());
-        System.out.println("Image (binary): " + (request.getImage() != null ? request.getImage().length + " bytes" : "null"));
-        System.out.println("ImageUrls: " + request.getImageUrls());
-        System.out.println("Images (binary): " + (request.getImages() != null ? request.getImages().size() + " items" : "null"));
-        System.out.println("===============================");
-        
         Category category = categoryRepository.findById(Objects.requireNonNull(request.getCategoryId(), "Category ID must not be null"))
                 .orElseThrow(() -> new ResourceNotFoundException("Category", request.getCategoryId()));
 
@@ -55,19 +96,41 @@ public class ProductService {
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         
-        // Set main image from URL or binary data
-        if (request.getImageUrl() != null && !request.getImageUrl().trim().isEmpty()) {
+        // Download all remote images (main + additional) concurrently, before anything is saved
+        boolean remoteMain = request.getImageUrl() != null && !request.getImageUrl().trim().isEmpty();
+        boolean remoteAdditional = request.getImageUrls() != null && !request.getImageUrls().isEmpty();
+        List<String> remoteUrls = new ArrayList<>();
+        if (remoteMain) {
+            remoteUrls.add(request.getImageUrl().trim());
+        }
+        if (remoteAdditional) {
+            for (String imageUrl : request.getImageUrls()) {
+                if (imageUrl != null && !imageUrl.trim().isEmpty()) {
+                    remoteUrls.add(imageUrl.trim());
+                }
+            }
+        }
+        List<RemoteImageFetcher.Result> downloads = remoteImageFetcher.fetchAll(remoteUrls,
+                url -> fileStorageService.getPublicUrl(fileStorageService.saveFileFromUrl(url, "products")),
+                this::deleteImageFile);
+        List<ImageDownloadError> imageErrors = new ArrayList<>();
+        for (RemoteImageFetcher.Result download : downloads) {
+            if (!download.succeeded()) {
+                imageErrors.add(new ImageDownloadError(download.sourceUrl(), download.error()));
+            }
+        }
+
+        // Set main image from URL, uploaded file or binary data
+        if (remoteMain) {
+            RemoteImageFetcher.Result main = downloads.get(0);
+            if (main.succeeded()) {
+                product.setMainImageUrl(main.stored());
+            }
+        } else if (imageFile != null && !imageFile.isEmpty()) {
             try {
-                System.out.println("Attempting to download main image from URL: " + request.getImageUrl());
-                String relativePath = fileStorageService.saveFileFromUrl(request.getImageUrl(), "products");
-                String publicUrl = fileStorageService.getPublicUrl(relativePath);
-                product.setMainImageUrl(publicUrl);
-                System.out.println("Successfully saved main image. Public URL: " + publicUrl);
+                product.setMainImageUrl(fileStorageService.getPublicUrl(fileStorageService.saveFile(imageFile, "products")));
             } catch (IOException e) {
-                String errorMsg = "Failed to download and save main image from URL: " + request.getImageUrl();
-                System.err.println(errorMsg);
-                e.printStackTrace();
-                throw new RuntimeException(errorMsg, e);
+                throw new RuntimeException("Failed to save main image", e);
             }
         } else if (request.getImage() != null && request.getImage().length > 0) {
             // For backward compatibility - save from binary data (from base64 or file upload)
@@ -85,33 +148,32 @@ public class ProductService {
         // Save product first to get ID
         product = productRepository.save(product);
         
-        // Add additional images from URLs or binary data
-        if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
-            int order = 0;
-            for (String imageUrl : request.getImageUrls()) {
-                if (imageUrl != null && !imageUrl.trim().isEmpty()) {
-                    try {
-                        System.out.println("Downloading additional image from URL: " + imageUrl);
-                        String relativePath = fileStorageService.saveFileFromUrl(imageUrl, "products");
-                        String publicUrl = fileStorageService.getPublicUrl(relativePath);
-                        
-                        ProductImage image = new ProductImage();
-                        image.setImageUrl(publicUrl);
-                        image.setDisplayOrder(order++);
-                        product.addImage(image);
-                        System.out.println("Successfully saved additional image. Public URL: " + publicUrl);
-                    } catch (IOException e) {
-                        // Log and continue with other images
-                        System.err.println("Failed to download image from URL: " + imageUrl + ", Error: " + e.getMessage());
-                        e.printStackTrace();
-                    }
+        // Add additional images from URLs (already downloaded, kept in request order), uploaded files or binary data
+        int order = 0;
+        if (remoteAdditional) {
+            for (RemoteImageFetcher.Result download : downloads.subList(remoteMain ? 1 : 0, downloads.size())) {
+                if (download.succeeded()) {
+                    ProductImage image = new ProductImage();
+                    image.setImageUrl(download.stored());
+                    image.setDisplayOrder(order++);
+                    imagePlaceholderService.fill(image);
+                    product.addImage(image);
                 }
             }
-            if (order > 0) {
-                product = productRepository.save(product);
+        }
+        for (MultipartFile upload : uploads) {
+            try {
+                ProductImage image = new ProductImage();
+                image.setImageUrl(fileStorageService.getPublicUrl(fileStorageService.saveFile(upload, "products")));
+                image.setDisplayOrder(order++);
+                imagePlaceholderService.fill(image);
+                product.addImage(image);
+            } catch (IOException e) {
+                log.warn("Failed to save image {}: {}", upload.getOriginalFilename(), e.getMessage());
+                imageErrors.add(new ImageDownloadError(upload.getOriginalFilename(), e.getMessage()));
             }
-        } else if (request.getImages() != null && !request.getImages().isEmpty()) {
-            int order = 0;
+        }
+        if (!remoteAdditional && uploads.isEmpty() && request.getImages() != null) {
             for (byte[] imageData : request.getImages()) {
                 if (imageData != null && imageData.length > 0) {
                     try {
@@ -121,23 +183,28 @@ public class ProductService {
                         ProductImage image = new ProductImage();
                         image.setImageUrl(fileStorageService.getPublicUrl(relativePath));
                         image.setDisplayOrder(order++);
+                        imagePlaceholderService.fill(image);
                         product.addImage(image);
                     } catch (IOException e) {
-                        System.err.println("Failed to save image: " + e.getMessage());
-                        e.printStackTrace();
+                        log.warn("Failed to save image", e);
                     }
                 }
             }
-            if (order > 0) {
-                product = productRepository.save(product);
-            }
+        }
+        if (order > 0) {
+            product = productRepository.save(product);
         }
         
-        return product;
+        catalogCache.productAdded(product.getId(), category.getId());
+        productSuggestService.productSaved(product);
+
+        ProductResponse response = ProductResponse.fromEntity(product);
+        response.setImageErrors(imageErrors);
+        return response;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<ProductResponse> getAllProducts() {
+        return catalogCache.listing(CatalogCache.ALL_PRODUCTS, productReadService::findAll, productReadService::findByIds);
     }
 
     public Product getById(Long id) {
@@ -145,30 +212,171 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
     }
 
-    public List<Product> getByCategory(Long categoryId) {
+    // ============================================
+    // PRE-SERIALIZED PAYLOADS (hot storefront GETs)
+    // ============================================
+
+    public EncodedPayload getAllProductsPayload() {
+        return catalogCache.payload(CatalogCache.ALL_PRODUCTS, this::getAllProducts);
+    }
+
+    public EncodedPayload getProductPayload(Long id) {
+        return catalogCache.payload(CatalogCache.productKey(id), () -> getProductResponse(id));
+    }
+
+    public EncodedPayload getCategoryPayload(Long categoryId) {
+        return catalogCache.payload(CatalogCache.categoryKey(categoryId), () -> getByCategory(categoryId));
+    }
+
+    // ============================================
+    // SPARSE FIELDSETS (?fields=) AND V2 SHAPE
+    // ============================================
+
+    public List<Map<String, Object>> getAllProductFields(String fields) {
+        return productReadService.findFields(ProductField.parse(fields), null, null);
+    }
+
+    public List<Map<String, Object>> getCategoryProductFields(Long categoryId, String fields) {
         if (!categoryRepository.existsById(Objects.requireNonNull(categoryId, "Category ID must not be null"))) {
             throw new ResourceNotFoundException("Category", categoryId);
         }
-        return productRepository.findByCategory_Id(categoryId);
+        return productReadService.findFields(ProductField.parse(fields), categoryId, null);
+    }
+
+    public Map<String, Object> getProductFields(Long id, String fields) {
+        List<Map<String, Object>> found = productReadService.findFields(ProductField.parse(fields), null,
+                Objects.requireNonNull(id, "Product ID must not be null"));
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("Product", id);
+        }
+        return found.get(0);
+    }
+
+    /**
+     * Listings in the v2 shape leave out descriptions; fetch a single product for its description.
+     */
+    public List<ProductV2Response> getAllProductsV2() {
+        return getAllProducts().stream().map(product -> ProductV2Response.from(product, false)).toList();
+    }
+
+    public List<ProductV2Response> getByCategoryV2(Long categoryId) {
+        return getByCategory(categoryId).stream().map(product -> ProductV2Response.from(product, false)).toList();
+    }
+
+    public ProductV2Response getProductV2(Long id) {
+        return ProductV2Response.from(getProductResponse(id), true);
+    }
+
+    public ProductResponse getProductResponse(Long id) {
+        ProductResponse product = catalogCache.product(Objects.requireNonNull(id, "Product ID must not be null"),
+                () -> productReadService.findById(id));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", id);
+        }
+        return product;
+    }
+
+    public List<ProductResponse> getByCategory(Long categoryId) {
+        Objects.requireNonNull(categoryId, "Category ID must not be null");
+        return catalogCache.listing(CatalogCache.categoryKey(categoryId), () -> {
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new ResourceNotFoundException("Category", categoryId);
+            }
+            return productReadService.findByCategory(categoryId);
+        }, productReadService::findByIds);
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword);
+    public List<ProductResponse> searchProducts(String keyword, Integer page, Integer size) {
+        return productReadService.search(keyword, page, size);
+    }
+
+    public ProductPageResponse getProductPage(String cursor, Integer size, String sort) {
+        return productReadService.getPage(cursor, size, sort);
+    }
+
+    /**
+     * Loads many products at once (carts, wishlists): cache hits first, then one projection
+     * query plus one image query for the rest. Missing ids are reported instead of failing.
+     */
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one product id is required");
+        }
+        Set<Long> requested = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                requested.add(id);
+            }
+        }
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " product ids per request");
+        }
+
+        Map<Long, ProductResponse> found = catalogCache.products(requested, productReadService::findByIds);
+        List<ProductResponse> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ProductResponse product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        ProductBatchResponse response = new ProductBatchResponse();
+        response.setItems(items);
+        response.setMissingIds(missingIds);
+        return response;
+    }
+
+    public List<ProductSuggestion> suggestProducts(String query, Integer limit) {
+        return productSuggestService.suggest(query, limit);
+    }
+
+    public void recordProductView(Long id) {
+        productSuggestService.recordView(id);
+    }
+
+    public ProductBrowseResponse browseProducts(Long categoryId, Double minPrice, Double maxPrice,
+                                                String keyword, String sort, Integer page, Integer size) {
+        String folded = keyword != null ? TextNormalizer.fold(keyword) : null;
+        ProductBrowseFilter filter = new ProductBrowseFilter(categoryId, minPrice, maxPrice, folded,
+                ProductBrowseSort.from(sort));
+        return productReadService.browse(filter, page, size);
+    }
+
+    public void streamProducts(Consumer<ProductResponse> consumer) {
+        productReadService.stream(consumer);
+    }
+
+    public String getProductETag(Long id) {
+        return productReadService.productETag(id);
+    }
+
+    public String getCatalogETag() {
+        return productReadService.catalogETag();
+    }
+
+    public String getCategoryETag(Long categoryId) {
+        return productReadService.categoryETag(categoryId);
     }
 
     public Product updateProduct(Long id, ProductUpdateRequest request) {
-        // Debug logging
-        System.out.println("=== UPDATE PRODUCT REQUEST (ID: " + id + ") ===");
-        System.out.println("Product Code: " + request.getProductCode());
-        System.out.println("Name: " + request.getName());
-        System.out.println("Price: " + request.getPrice());
-        System.out.println("ImageUrl: " + request.getImageUrl());
-        System.out.println("Image (binary): " + (request.getImage() != null ? request.getImage().length + " bytes" : "null"));
-        System.out.println("ImageUrls: " + request.getImageUrls());
-        System.out.println("Images (binary): " + (request.getImages() != null ? request.getImages().size() + " items" : "null"));
-        System.out.println("===============================");
-        
+        return updateProduct(id, request, null);
+    }
+
+    /**
+     * @param ifMatch value of the If-Match header; when present it must match the ETag of the product
+     *                as loaded here, and the save only succeeds while the row still has that version,
+     *                so an admin cannot overwrite an edit they have not seen
+     */
+    @Transactional
+    @SuppressWarnings("deprecation")
+    public Product updateProduct(Long id, ProductUpdateRequest request, String ifMatch) {
         Product product = getById(id);
+        checkIfMatch(product, ifMatch);
+        Long oldCategoryId = product.getCategoryId();
         Category category = categoryRepository.findById(Objects.requireNonNull(request.getCategoryId(), "Category ID must not be null"))
                 .orElseThrow(() -> new ResourceNotFoundException("Category", request.getCategoryId()));
 
@@ -183,74 +391,116 @@ public class ProductService {
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         
-        // Update main image from URL or binary data
+        // Update main image from URL or binary data; the old file is only released once the new one is committed
+        String newImageUrl = null;
         if (request.getImageUrl() != null && !request.getImageUrl().trim().isEmpty()) {
             try {
-                // Delete old image if exists
-                if (product.getMainImageUrl() != null) {
-                    deleteImageFile(product.getMainImageUrl());
-                }
-                
                 String relativePath = fileStorageService.saveFileFromUrl(request.getImageUrl(), "products");
-                product.setMainImageUrl(fileStorageService.getPublicUrl(relativePath));
+                newImageUrl = fileStorageService.getPublicUrl(relativePath);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to download and save main image from URL", e);
             }
         } else if (request.getImage() != null && request.getImage().length > 0) {
             try {
-                // Delete old image if exists
-                if (product.getMainImageUrl() != null) {
-                    deleteImageFile(product.getMainImageUrl());
-                }
-                
                 java.io.ByteArrayInputStream inputStream = new java.io.ByteArrayInputStream(request.getImage());
                 String relativePath = fileStorageService.saveFileLocally(inputStream, "image.jpg", "products");
-                product.setMainImageUrl(fileStorageService.getPublicUrl(relativePath));
+                newImageUrl = fileStorageService.getPublicUrl(relativePath);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to save main image", e);
             }
         }
+        if (newImageUrl != null) {
+            releaseAfterCompletion(product.getMainImageUrl(), newImageUrl);
+            product.setMainImageUrl(newImageUrl);
+        }
         
         product.setCategory(category);
         
-        return productRepository.save(product);
+        Product saved;
+        try {
+            // Flushed here so an edit committed since the product was loaded fails the version check now
+            saved = productRepository.saveAndFlush(product);
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatch == null || ifMatch.trim().isEmpty()) {
+                throw e;
+            }
+            throw new PreconditionFailedException("Product " + id + " has been modified, reload it before saving");
+        }
+        catalogCache.productMoved(id, oldCategoryId, category.getId());
+        productSuggestService.productSaved(saved);
+        return saved;
     }
     
+    private void checkIfMatch(Product product, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().isEmpty() || ifMatch.trim().equals("*")) {
+            return;
+        }
+        String current = productReadService.productETag(product);
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-Match uses strong comparison, weak validators never match
+            if (tag.startsWith("W/")) {
+                continue;
+            }
+            tag = tag.replace("\"", "");
+            // The gzip listing body has its own tag for the same product state
+            if (tag.equals(current) || tag.equals(current + EncodedPayload.GZIP_ETAG_SUFFIX)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("Product " + product.getId() + " has been modified, reload it before saving");
+    }
+
     /**
-     * Helper method to delete image file from storage
+     * Releases {@code replacedUrl} once the current transaction commits, or {@code storedUrl} when it
+     * rolls back, so a failed save neither leaves the product on a released file nor leaks the new one.
+     * Without a transaction the change is already saved and the replaced image goes right away.
      */
-    private void deleteImageFile(String imageUrl) {
-        if (imageUrl == null || imageUrl.trim().isEmpty()) {
+    private void releaseAfterCompletion(String replacedUrl, String storedUrl) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (replacedUrl != null) {
+                deleteImageFile(replacedUrl);
+            }
             return;
         }
-        
-        try {
-            // Extract relative path from public URL
-            // Example: http://localhost:8080/images/products/abc.jpg -> products/abc.jpg
-            String baseUrl = fileStorageService.getPublicUrl("");
-            
-            if (imageUrl.startsWith(baseUrl)) {
-                // Remove base URL to get relative path
-                String relativePath = imageUrl.substring(baseUrl.length());
-                // Remove leading slash if exists
-                if (relativePath.startsWith("/")) {
-                    relativePath = relativePath.substring(1);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                String released = status == STATUS_COMMITTED ? replacedUrl : storedUrl;
+                if (released != null) {
+                    deleteImageFile(released);
                 }
-                fileStorageService.deleteFile(relativePath);
-                System.out.println("Deleted image file: " + relativePath);
-            } else {
-                System.err.println("Image URL does not match base URL: " + imageUrl);
             }
+        });
+    }
+
+    /**
+     * Helper method to release an image from storage; the blob file goes away with its last reference
+     */
+    private void deleteImageFile(String imageUrl) {
+        try {
+            fileStorageService.deleteFileByUrl(imageUrl);
         } catch (IOException e) {
             // Log error but don't fail the operation
-            System.err.println("Failed to delete old image file: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Failed to delete old image file {}", imageUrl, e);
         }
     }
 
     public void deleteProduct(Long id) {
         Product product = getById(id);
+        Long categoryId = product.getCategoryId();
+        List<String> imageUrls = new ArrayList<>();
+        if (product.getMainImageUrl() != null) {
+            imageUrls.add(product.getMainImageUrl());
+        }
+        product.getImages().forEach(image -> imageUrls.add(image.getImageUrl()));
+
         productRepository.delete(Objects.requireNonNull(product, "Product must not be null"));
+        catalogCache.productRemoved(id, categoryId);
+        productSuggestService.productRemoved(id);
+
+        // Files that fail to go here are picked up by the orphan image collector
+        imageUrls.forEach(this::deleteImageFile);
     }
     
     private void validateUniqueProductCode(String productCode, Long currentId) {
@@ -277,82 +527,75 @@ public class ProductService {
      * Upload an additional image for a product
      */
     public String uploadProductImage(Long productId, MultipartFile file) {
-        Product product = getById(productId);
+        getById(productId);
 
         try {
             String relativePath = fileStorageService.saveFile(file, "products");
-            String publicUrl = fileStorageService.getPublicUrl(relativePath);
-            
-            ProductImage productImage = new ProductImage();
-            productImage.setFileName(file.getOriginalFilename());
-            productImage.setImageUrl(publicUrl);
-            product.addImage(productImage);
-
-            productRepository.save(product);
-
-            return publicUrl;
+            return attachProductImage(productId, relativePath, file.getOriginalFilename());
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload product image", e);
         }
     }
 
     /**
-     * Upload an additional image for a product from URL
+     * Adds a file that is already in storage as an additional image of the product
+     *
+     * @param relativePath storage path returned by {@link FileStorageService}
+     * @return public URL of the image
      */
-    public String uploadProductImageFromUrl(Long productId, String imageUrl) {
-        System.out.println("=== UPLOAD ADDITIONAL IMAGE FROM URL ===");
-        System.out.println("Product ID: " + productId);
-        System.out.println("Image URL: " + imageUrl);
-        
+    public String attachProductImage(Long productId, String relativePath, String fileName) {
         Product product = getById(productId);
+        String publicUrl = fileStorageService.getPublicUrl(relativePath);
 
-        try {
-            System.out.println("Attempting to download additional image from URL: " + imageUrl);
-            String relativePath = fileStorageService.saveFileFromUrl(imageUrl, "products");
-            String publicUrl = fileStorageService.getPublicUrl(relativePath);
-            System.out.println("Additional image saved successfully. Public URL: " + publicUrl);
-            
-            ProductImage productImage = new ProductImage();
-            productImage.setFileName("Image from URL");
-            productImage.setImageUrl(publicUrl);
-            product.addImage(productImage);
+        ProductImage productImage = new ProductImage();
+        productImage.setFileName(fileName);
+        productImage.setImageUrl(publicUrl);
+        imagePlaceholderService.fill(productImage);
+        product.addImage(productImage);
 
-            productRepository.save(product);
-            System.out.println("✅ Additional image from URL processed successfully");
+        productRepository.save(product);
+        catalogCache.productChanged(productId, product.getCategoryId());
 
-            return publicUrl;
-        } catch (IOException e) {
-            System.err.println("❌ Failed to upload additional image from URL: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to upload product image from URL: " + imageUrl, e);
-        }
+        return publicUrl;
     }
 
     /**
      * Upload main product image
      */
     public String uploadMainProductImage(Long productId, MultipartFile file) {
-        Product product = getById(productId);
+        getById(productId);
 
         try {
-            // Delete old image if exists
-            if (product.getMainImageUrl() != null) {
-                deleteImageFile(product.getMainImageUrl());
-            }
-            
             String relativePath = fileStorageService.saveFile(file, "products");
-            String publicUrl = fileStorageService.getPublicUrl(relativePath);
-            
-            // Update product's main image
-            product.setMainImageUrl(publicUrl);
-            productRepository.save(product);
-
-            return publicUrl;
+            return attachMainProductImage(productId, relativePath);
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload main product image", e);
         }
     }
 
+    /**
+     * Makes a file that is already in storage the product's main image, releasing the old one once the
+     * change is committed. The new file stays the caller's to release when the transaction rolls back.
+     *
+     * @param relativePath storage path returned by {@link FileStorageService}
+     * @return public URL of the image
+     */
+    public String attachMainProductImage(Long productId, String relativePath) {
+        Product product = getById(productId);
+        String oldImageUrl = product.getMainImageUrl();
+
+        String publicUrl = fileStorageService.getPublicUrl(relativePath);
+
+        // Update product's main image
+        product.setMainImageUrl(publicUrl);
+        productRepository.save(product);
+        releaseAfterCompletion(oldImageUrl, null);
+        catalogCache.productChanged(productId, product.getCategoryId());
+        productSuggestService.productSaved(product);
+
+        return publicUrl;
+    }
+
     // ============================================
     // DELETE IMAGE METHODS
     // ============================================
@@ -371,6 +614,8 @@ public class ProductService {
         // Clear main image URL from database
         product.setMainImageUrl(null);
         productRepository.save(product);
+        catalogCache.productChanged(productId, product.getCategoryId());
+        productSuggestService.productSaved(product);
     }
 
     /**
@@ -397,6 +642,7 @@ public class ProductService {
         
         // Delete from database
         productImageRepository.delete(Objects.requireNonNull(productImage));
+        catalogCache.productChanged(productId, product.getCategoryId());
     }
 
     /**
@@ -420,6 +666,7 @@ public class ProductService {
         // Clear from product
         product.getImages().clear();
         productRepository.save(product);
+        catalogCache.productChanged(productId, product.getCategoryId());
     }
 
     /**
@@ -0,0 +1,248 @@
+package vn.quahoa.flowershop.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.dto.product.ProductRow;
+import vn.quahoa.flowershop.dto.product.ProductSuggestion;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.ProductRepository;
+import vn.quahoa.flowershop.util.TextNormalizer;
+
+/**
+ * In-memory typeahead index over accent-folded product names and product codes.
+ * <p>
+ * Every word-start suffix of the folded name ("hoa hong do", "hong do", "do") and the folded code
+ * is stored in a sorted map. For every prefix of those terms the index keeps its {@link #MAX_LIMIT}
+ * best matches, ranked by detail-page views, then newest first, so a query is one map lookup. Views
+ * only grow, so a view just moves the product up in its own prefixes' lists; a list is rebuilt from
+ * the sorted map only when one of its products is renamed or removed. Writers update the index after
+ * their transaction commits.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private static final int MAX_KEY_LENGTH = 64;
+    // Sorts below every other character, so "hong" + SEPARATOR stays inside the "hong" range
+    private static final char SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+
+    // "folded term" + SEPARATOR + id -> product id
+    private final ConcurrentSkipListMap<String, Long> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+    // folded prefix -> ids of its best matches, best first; lists are replaced, never changed in place
+    private final Map<String, List<Long>> topMatches = new ConcurrentHashMap<>();
+    private final Comparator<Long> ranking = Comparator.comparingLong(this::viewCount).reversed()
+            .thenComparing(Comparator.reverseOrder());
+
+    private record Entry(ProductSuggestion suggestion, Set<String> keys, Set<String> prefixes) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductRow> rows = productRepository.findAllRows();
+        for (ProductRow row : rows) {
+            index(new ProductSuggestion(row.id(), row.productCode(), row.name(), row.price(), row.mainImageUrl()));
+        }
+        log.info("Product suggest index built with {} products, {} terms", entries.size(), terms.size());
+    }
+
+    /**
+     * @param limit number of suggestions, defaults to {@link #DEFAULT_LIMIT}
+     */
+    public List<ProductSuggestion> suggest(String query, Integer limit) {
+        int k = limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : DEFAULT_LIMIT;
+        String prefix = TextNormalizer.fold(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        List<ProductSuggestion> matches = new ArrayList<>(k);
+        for (Long id : topMatches.getOrDefault(prefix, List.of())) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                matches.add(entry.suggestion());
+                if (matches.size() == k) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Popularity signal: called for each product detail request.
+     */
+    public void recordView(Long productId) {
+        if (entries.containsKey(productId)) {
+            views.computeIfAbsent(productId, id -> new LongAdder()).increment();
+            promote(productId);
+        }
+    }
+
+    // ============================================
+    // INCREMENTAL UPDATES (applied after commit)
+    // ============================================
+
+    public void productSaved(Product product) {
+        ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getProductCode(),
+                product.getName(), product.getPrice(), product.getMainImageUrl());
+        afterCommit(() -> index(suggestion));
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(() -> remove(productId));
+    }
+
+    private synchronized void index(ProductSuggestion suggestion) {
+        Set<String> keys = keysOf(suggestion);
+        Set<String> prefixes = prefixesOf(keys);
+        Entry previous = entries.put(suggestion.id(), new Entry(suggestion, keys, prefixes));
+        for (String key : keys) {
+            terms.put(key, suggestion.id());
+        }
+        if (previous != null) {
+            for (String key : previous.keys()) {
+                if (!keys.contains(key)) {
+                    terms.remove(key);
+                }
+            }
+            for (String prefix : previous.prefixes()) {
+                if (!prefixes.contains(prefix)) {
+                    drop(prefix, suggestion.id());
+                }
+            }
+        }
+        prefixes.forEach(prefix -> offer(prefix, suggestion.id()));
+    }
+
+    private synchronized void remove(Long productId) {
+        Entry previous = entries.remove(productId);
+        views.remove(productId);
+        if (previous != null) {
+            previous.keys().forEach(terms::remove);
+            previous.prefixes().forEach(prefix -> drop(prefix, productId));
+        }
+    }
+
+    private synchronized void promote(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            entry.prefixes().forEach(prefix -> offer(prefix, productId));
+        }
+    }
+
+    /**
+     * Moves the product to its current rank in the prefix's list, when that rank is within the top.
+     */
+    private void offer(String prefix, Long productId) {
+        List<Long> current = topMatches.getOrDefault(prefix, List.of());
+        List<Long> ranked = new ArrayList<>(current.size() + 1);
+        for (Long id : current) {
+            if (!id.equals(productId)) {
+                ranked.add(id);
+            }
+        }
+        int at = 0;
+        while (at < ranked.size() && ranking.compare(ranked.get(at), productId) < 0) {
+            at++;
+        }
+        if (at < MAX_LIMIT) {
+            ranked.add(at, productId);
+            topMatches.put(prefix, List.copyOf(ranked.subList(0, Math.min(ranked.size(), MAX_LIMIT))));
+        } else if (ranked.size() < current.size()) {
+            rank(prefix);
+        }
+    }
+
+    /**
+     * Takes the product out of the prefix's list; the next best match moves up from the sorted map.
+     */
+    private void drop(String prefix, Long productId) {
+        List<Long> current = topMatches.get(prefix);
+        if (current != null && current.contains(productId)) {
+            rank(prefix);
+        }
+    }
+
+    private void rank(String prefix) {
+        Set<Long> matches = new LinkedHashSet<>(terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+        List<Long> ranked = matches.stream().sorted(ranking).limit(MAX_LIMIT).toList();
+        if (ranked.isEmpty()) {
+            topMatches.remove(prefix);
+        } else {
+            topMatches.put(prefix, ranked);
+        }
+    }
+
+    private static Set<String> keysOf(ProductSuggestion suggestion) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = TextNormalizer.fold(suggestion.name());
+        for (int start = 0; start < name.length(); start++) {
+            if (start == 0 || name.charAt(start - 1) == ' ') {
+                keys.add(key(name.substring(start), suggestion.id()));
+            }
+        }
+        String code = TextNormalizer.fold(suggestion.productCode());
+        if (!code.isEmpty()) {
+            keys.add(key(code, suggestion.id()));
+        }
+        return keys;
+    }
+
+    private static Set<String> prefixesOf(Set<String> keys) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String key : keys) {
+            String term = key.substring(0, key.indexOf(SEPARATOR));
+            for (int end = 1; end <= term.length(); end++) {
+                prefixes.add(term.substring(0, end));
+            }
+        }
+        return prefixes;
+    }
+
+    private static String key(String term, Long id) {
+        String bounded = term.length() > MAX_KEY_LENGTH ? term.substring(0, MAX_KEY_LENGTH) : term;
+        return bounded + SEPARATOR + id;
+    }
+
+    private long viewCount(Long productId) {
+        LongAdder count = views.get(productId);
+        return count != null ? count.sum() : 0;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+import vn.quahoa.flowershop.model.RemoteImage;
+import vn.quahoa.flowershop.repository.RemoteImageRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+/**
+ * Remote images by source URL, so pasting the same supplier URL into many products and blogs
+ * downloads it once.
+ * <p>
+ * The {@code remote_images} index maps a URL to the blob holding its content plus the server's
+ * validators. Within {@code app.image-download.cache-fresh-for} the blob is reused as is; after that a
+ * conditional GET revalidates it, and only a changed image is downloaded again. Concurrent requests
+ * for one URL share a single in-flight download. The index holds no blob reference of its own: each
+ * caller gets one, and an entry whose blob was released in the meantime is simply fetched again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RemoteImageCache {
+
+    private static final int ATTEMPTS = 2;
+
+    private final ImageDownloadProperties properties;
+    private final ImageDownloadService imageDownloadService;
+    private final BlobStore blobStore;
+    private final RemoteImageRepository remoteImageRepository;
+
+    private final ConcurrentHashMap<String, CompletableFuture<RemoteImage>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param hits        reused without contacting the server
+     * @param revalidated reused after the server answered 304
+     * @param downloads   full downloads (new URL, changed image, or no validators)
+     * @param coalesced   requests that waited for another request's download of the same URL
+     */
+    public record Stats(long hits, long revalidated, long downloads, long coalesced) {
+    }
+
+    /**
+     * @return the stored image with one reference added for the caller, like {@link BlobStore#store}
+     */
+    public BlobStore.StoredBlobRef fetch(String url) throws IOException {
+        String sourceUrl = url.trim();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            CompletableFuture<RemoteImage> mine = new CompletableFuture<>();
+            CompletableFuture<RemoteImage> running = inFlight.putIfAbsent(sourceUrl, mine);
+            if (running == null) {
+                try {
+                    Resolution resolution = resolve(sourceUrl);
+                    mine.complete(resolution.image());
+                    return resolution.blob();
+                } catch (IOException | RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(sourceUrl, mine);
+                }
+            }
+
+            coalesced.increment();
+            RemoteImage image = await(running);
+            if (blobStore.retain(image.getStorageKey())) {
+                return toBlob(image);
+            }
+            // Released since it was stored: look it up again
+        }
+        log.debug("Bypassing the remote image index for {}", sourceUrl);
+        return imageDownloadService.download(sourceUrl, blobStore::store);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), revalidated.sum(), downloads.sum(), coalesced.sum());
+    }
+
+    /**
+     * Runs for one caller at a time per URL; the returned blob carries that caller's reference.
+     */
+    private Resolution resolve(String url) throws IOException {
+        String urlHash = sha256(url);
+        Optional<RemoteImage> cached = remoteImageRepository.findById(urlHash);
+        if (cached.isPresent()) {
+            RemoteImage image = cached.get();
+            String key = image.getStorageKey();
+            boolean fresh = image.getValidatedAt().isAfter(LocalDateTime.now().minus(properties.getCacheFreshFor()));
+            boolean revalidatable = image.getEtag() != null || image.getLastModified() != null;
+
+            // Taking the caller's reference first also keeps the blob alive while the server is asked
+            if ((fresh || revalidatable) && blobStore.retain(key)) {
+                if (fresh) {
+                    hits.increment();
+                    return new Resolution(image, toBlob(image));
+                }
+                ImageDownloadService.Fetched<BlobStore.StoredBlobRef> fetched;
+                try {
+                    fetched = imageDownloadService.downloadIfModified(url, image.getEtag(), image.getLastModified(), blobStore::store);
+                } catch (IOException | RuntimeException e) {
+                    blobStore.release(key);
+                    throw e;
+                }
+                if (fetched == null) {
+                    revalidated.increment();
+                    image.setValidatedAt(LocalDateTime.now());
+                    remember(image);
+                    return new Resolution(image, toBlob(image));
+                }
+                // Changed upstream: the new download holds the caller's reference instead
+                blobStore.release(key);
+                return downloaded(image, fetched);
+            }
+        }
+
+        RemoteImage image = cached.orElseGet(RemoteImage::new);
+        image.setUrlHash(urlHash);
+        image.setSourceUrl(url);
+        return downloaded(image, imageDownloadService.downloadIfModified(url, null, null, blobStore::store));
+    }
+
+    private Resolution downloaded(RemoteImage image, ImageDownloadService.Fetched<BlobStore.StoredBlobRef> fetched) {
+        downloads.increment();
+        BlobStore.StoredBlobRef blob = fetched.result();
+        LocalDateTime now = LocalDateTime.now();
+        image.setStorageKey(blob.key());
+        image.setContentHash(blob.hash());
+        image.setSize(blob.size());
+        image.setEtag(fetched.etag());
+        image.setLastModified(fetched.lastModified());
+        image.setFetchedAt(now);
+        image.setValidatedAt(now);
+        remember(image);
+        return new Resolution(image, blob);
+    }
+
+    /**
+     * The index only saves work, so failing to update it must not fail the caller.
+     */
+    private void remember(RemoteImage image) {
+        try {
+            remoteImageRepository.save(image);
+        } catch (RuntimeException e) {
+            log.warn("Could not update remote image index for {}", image.getSourceUrl(), e);
+        }
+    }
+
+    private static RemoteImage await(CompletableFuture<RemoteImage> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new IOException(io.getMessage(), io);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static BlobStore.StoredBlobRef toBlob(RemoteImage image) {
+        return new BlobStore.StoredBlobRef(image.getStorageKey(), image.getContentHash(), image.getSize(), false);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Resolution(RemoteImage image, BlobStore.StoredBlobRef blob) {
+    }
+}
@@ -0,0 +1,147 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+
+/**
+ * Downloads several remote images concurrently on virtual threads.
+ * At most {@code app.image-download.max-concurrency} run at once per call, and everything still
+ * running when {@code app.image-download.deadline} expires is cancelled and reported as failed.
+ * A cancelled download that still manages to store its image is handed to the caller's
+ * {@code discard} callback, since nothing else will ever reference it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RemoteImageFetcher {
+
+    // Marks a slot whose result is no longer wanted; a download finishing later releases what it stored
+    private static final Object ABANDONED = new Object();
+
+    private final ImageDownloadProperties properties;
+
+    @FunctionalInterface
+    public interface Download {
+        /**
+         * @return where the image was stored (path or public URL)
+         */
+        String fetch(String url) throws IOException;
+    }
+
+    /**
+     * Outcome of one download; exactly one of {@code stored} and {@code error} is set.
+     */
+    public record Result(String sourceUrl, String stored, String error) {
+
+        public boolean succeeded() {
+            return stored != null;
+        }
+    }
+
+    /**
+     * @param discard releases what a download stored when its result is not returned
+     *                (cancelled at the deadline, or the whole call interrupted)
+     * @return one result per URL, in the order of {@code urls}
+     */
+    public List<Result> fetchAll(List<String> urls, Download download, Consumer<String> discard) {
+        if (urls.isEmpty()) {
+            return List.of();
+        }
+        Semaphore permits = new Semaphore(Math.max(1, properties.getMaxConcurrency()));
+        // What each download stored, or ABANDONED once the caller gave up on it; whichever comes second releases
+        AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(urls.size());
+        List<Callable<String>> tasks = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            int index = i;
+            String url = urls.get(i);
+            tasks.add(() -> {
+                permits.acquire();
+                try {
+                    String result = download.fetch(url);
+                    if (!slots.compareAndSet(index, null, result)) {
+                        discard(result, discard);
+                    }
+                    return result;
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        List<Future<String>> futures;
+        // close() only waits for downloads that were not cancelled; cancelled ones unwind on their own
+        // (virtual-thread socket reads are interruptible) and may still store their image afterwards
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = executor.invokeAll(tasks, properties.getDeadline().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            for (int i = 0; i < urls.size(); i++) {
+                abandon(slots, i, discard);
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while downloading images", e);
+        }
+
+        List<Result> results = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            Result result = toResult(urls.get(i), futures.get(i));
+            if (!result.succeeded()) {
+                abandon(slots, i, discard);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void abandon(AtomicReferenceArray<Object> slots, int index, Consumer<String> discard) {
+        Object stored = slots.getAndSet(index, ABANDONED);
+        if (stored != null && stored != ABANDONED) {
+            discard((String) stored, discard);
+        }
+    }
+
+    private void discard(String stored, Consumer<String> discard) {
+        if (stored == null) {
+            return;
+        }
+        log.info("Releasing image stored after its download was given up: {}", stored);
+        try {
+            discard.accept(stored);
+        } catch (RuntimeException e) {
+            // Left to the orphan image collector
+            log.warn("Could not release {}: {}", stored, e.getMessage());
+        }
+    }
+
+    private Result toResult(String url, Future<String> future) {
+        try {
+            return new Result(url, future.get(), null);
+        } catch (CancellationException e) {
+            log.warn("Image download cancelled after {}: {}", properties.getDeadline(), url);
+            return new Result(url, null, "Timed out after " + properties.getDeadline().toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("Image download failed: {} ({})", url, cause.getMessage());
+            return new Result(url, null, cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(url, null, "Interrupted");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package vn.quahoa.flowershop.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prepares database-side search structures at startup and reports what is available.
+ * <p>
+ * PostgreSQL gets a generated, GIN-indexed {@code search_vector} over the accent-folded
+ * product columns and, when the {@code pg_trgm} extension can be created, trigram GIN indexes
+ * for typo-tolerant matching on products and blogs. Any other database (H2) gets neither and
+ * callers fall back to LIKE queries over the folded columns.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchSupport {
+
+    private static final String SEARCH_VECTOR_EXPRESSION_QUERY =
+        "SELECT generation_expression FROM information_schema.columns " +
+        "WHERE table_name = 'products' AND column_name = 'search_vector'";
+
+    private static final String[] FULL_TEXT_DDL = {
+        "ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('simple', coalesce(search_name, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(search_description, '')), 'B')) STORED",
+        "CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector)"
+    };
+
+    private static final String[] TRIGRAM_DDL = {
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX IF NOT EXISTS idx_products_search_name_trgm ON products USING GIN (search_name gin_trgm_ops)",
+        "CREATE INDEX IF NOT EXISTS idx_blogs_search_title_trgm ON blogs USING GIN (search_title gin_trgm_ops)",
+        "CREATE INDEX IF NOT EXISTS idx_blogs_search_text_trgm ON blogs USING GIN (search_text gin_trgm_ops)"
+    };
+
+    private final DataSource dataSource;
+
+    private volatile boolean fullTextEnabled;
+    private volatile boolean trigramEnabled;
+
+    @PostConstruct
+    public void init() {
+        try (Connection connection = dataSource.getConnection()) {
+            String database = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(database)) {
+                log.info("Database-side search disabled on {}, using LIKE search", database);
+                return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                dropOutdatedSearchVector(statement);
+                fullTextEnabled = execute(statement, FULL_TEXT_DDL, "full-text search");
+                trigramEnabled = execute(statement, TRIGRAM_DDL, "trigram search");
+            }
+        } catch (SQLException e) {
+            log.warn("Could not prepare search structures, using LIKE search: {}", e.getMessage());
+        }
+    }
+
+    public boolean isFullTextEnabled() {
+        return fullTextEnabled;
+    }
+
+    public boolean isTrigramEnabled() {
+        return trigramEnabled;
+    }
+
+    /**
+     * The first search_vector was built from the raw (accented) columns; rebuild it from the folded ones.
+     */
+    private void dropOutdatedSearchVector(Statement statement) throws SQLException {
+        String expression = null;
+        try (ResultSet resultSet = statement.executeQuery(SEARCH_VECTOR_EXPRESSION_QUERY)) {
+            if (resultSet.next()) {
+                expression = resultSet.getString(1);
+            }
+        }
+        if (expression != null && !expression.contains("search_name")) {
+            statement.execute("ALTER TABLE products DROP COLUMN search_vector");
+            log.info("Dropped outdated products.search_vector, rebuilding from folded columns");
+        }
+    }
+
+    private boolean execute(Statement statement, String[] ddl, String feature) {
+        try {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+            log.info("PostgreSQL {} enabled", feature);
+            return true;
+        } catch (SQLException e) {
+            log.warn("PostgreSQL {} unavailable: {}", feature, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.cache.CatalogCache;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.exception.ConflictException;
+import vn.quahoa.flowershop.model.Blog;
+import vn.quahoa.flowershop.model.BlogImage;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.model.ProductImage;
+import vn.quahoa.flowershop.model.StorageRedirect;
+import vn.quahoa.flowershop.repository.BlogImageRepository;
+import vn.quahoa.flowershop.repository.BlogRepository;
+import vn.quahoa.flowershop.repository.ProductImageRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+import vn.quahoa.flowershop.repository.StorageRedirectRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.ImageVariants;
+import vn.quahoa.flowershop.storage.LocalBlobStore;
+import vn.quahoa.flowershop.storage.StorageWalker;
+
+/**
+ * Moves images out of the flat legacy directories ({@code products/}, {@code blogs/}) into the
+ * hash-sharded blob store, online and a batch at a time.
+ * <p>
+ * Per file: the content is copied into the blob store, then one transaction points every record
+ * using the old URL at the new key, sets the blob's reference count to match and records a
+ * {@link StorageRedirect}; only after the commit is the old file removed. The old URL therefore serves
+ * the file until the redirect exists, and redirects from then on. Files no record uses are left for
+ * the orphan image collector.
+ */
+@Slf4j
+@Service
+public class StorageLayoutMigrator {
+
+    public static final List<String> LEGACY_DIRS = List.of("products", "blogs");
+
+    private final StorageProperties storageProperties;
+    private final BlobStore blobStore;
+    private final ImageReferenceLookup imageReferenceLookup;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final BlogRepository blogRepository;
+    private final BlogImageRepository blogImageRepository;
+    private final StorageRedirectRepository storageRedirectRepository;
+    private final CatalogCache catalogCache;
+    private final ProductSuggestService productSuggestService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "storage-layout-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong unreferenced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesMoved = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public StorageLayoutMigrator(StorageProperties storageProperties, BlobStore blobStore,
+                                 ImageReferenceLookup imageReferenceLookup, ProductRepository productRepository,
+                                 ProductImageRepository productImageRepository, BlogRepository blogRepository,
+                                 BlogImageRepository blogImageRepository,
+                                 StorageRedirectRepository storageRedirectRepository, CatalogCache catalogCache,
+                                 ProductSuggestService productSuggestService,
+                                 PlatformTransactionManager transactionManager) {
+        this.storageProperties = storageProperties;
+        this.blobStore = blobStore;
+        this.imageReferenceLookup = imageReferenceLookup;
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.blogRepository = blogRepository;
+        this.blogImageRepository = blogImageRepository;
+        this.storageRedirectRepository = storageRedirectRepository;
+        this.catalogCache = catalogCache;
+        this.productSuggestService = productSuggestService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts a migration run in the background.
+     *
+     * @param batchSize files handled between two pauses
+     * @param pause     rest between batches, so serving traffic keeps the disk
+     */
+    public Progress start(int batchSize, Duration pause) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A storage layout migration is already running");
+        }
+        scanned.set(0);
+        migrated.set(0);
+        unreferenced.set(0);
+        failed.set(0);
+        bytesMoved.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        executor.execute(() -> {
+            try {
+                run(batchSize, pause);
+                log.info("Storage layout migration finished: {}", progress());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                log.error("Storage layout migration stopped", e);
+            } finally {
+                finishedAt = LocalDateTime.now();
+                running.set(false);
+            }
+        });
+        return progress();
+    }
+
+    public Progress progress() {
+        return new Progress(running.get(), startedAt, finishedAt, scanned.get(), migrated.get(), unreferenced.get(),
+                failed.get(), bytesMoved.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(int batchSize, Duration pause) throws IOException, InterruptedException {
+        for (String directory : LEGACY_DIRS) {
+            StorageWalker walker = new StorageWalker(root().resolve(directory));
+            String cursor = "";
+            List<String> batch;
+            do {
+                batch = walker.nextBatch(cursor, batchSize);
+                for (String path : batch) {
+                    migrate(directory + "/" + path);
+                }
+                if (!batch.isEmpty()) {
+                    cursor = batch.get(batch.size() - 1);
+                }
+                Thread.sleep(pause.toMillis());
+            } while (batch.size() == batchSize);
+        }
+    }
+
+    private void migrate(String path) {
+        scanned.incrementAndGet();
+        Path file = root().resolve(path);
+        try {
+            Set<String> urls = imageReferenceLookup.referencingUrls(path);
+            if (urls.isEmpty()) {
+                unreferenced.incrementAndGet();
+                return;
+            }
+
+            BlobStore.StoredBlobRef blob;
+            try (InputStream content = Files.newInputStream(file)) {
+                blob = blobStore.store(content, LocalBlobStore.extensionOf(path));
+            }
+            Integer references;
+            try {
+                references = transactionTemplate.execute(status -> rewrite(path, blob.key(), urls));
+            } catch (RuntimeException e) {
+                blobStore.release(blob.key());
+                throw e;
+            }
+            if (references == null || references == 0) {
+                // The records changed in the meantime
+                blobStore.release(blob.key());
+                unreferenced.incrementAndGet();
+                return;
+            }
+
+            Files.deleteIfExists(file);
+            ImageVariants.deleteVariants(file);
+            migrated.incrementAndGet();
+            bytesMoved.addAndGet(blob.size());
+            log.debug("Migrated {} to {} ({} references)", path, blob.key(), references);
+        } catch (NoSuchFileException e) {
+            // Deleted since it was listed
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Could not migrate {}, it stays in place", path, e);
+        }
+    }
+
+    /**
+     * Points every record using {@code urls} at {@code key}; runs in one transaction.
+     *
+     * @return the number of records rewritten, which is also the blob's share of references
+     */
+    private int rewrite(String path, String key, Set<String> urls) {
+        int references = 0;
+        for (String url : urls) {
+            // Keep whichever base URL the record was saved with
+            String newUrl = url.substring(0, url.length() - path.length()) + key;
+
+            for (Product product : productRepository.findByMainImageUrl(url)) {
+                product.setMainImageUrl(newUrl);
+                productRepository.save(product);
+                catalogCache.productChanged(product.getId(), product.getCategoryId());
+                productSuggestService.productSaved(product);
+                references++;
+            }
+            for (ProductImage image : productImageRepository.findByImageUrl(url)) {
+                image.setImageUrl(newUrl);
+                productImageRepository.save(image);
+                catalogCache.productChanged(image.getProduct().getId(), image.getProduct().getCategoryId());
+                references++;
+            }
+            for (Blog blog : blogRepository.findByImageUrl(url)) {
+                blog.setImageUrl(newUrl);
+                blogRepository.save(blog);
+                references++;
+            }
+            for (BlogImage image : blogImageRepository.findByImageUrl(url)) {
+                image.setImageUrl(newUrl);
+                if (url.equals(image.getFilePath())) {
+                    image.setFilePath(newUrl);
+                }
+                blogImageRepository.save(image);
+                references++;
+            }
+        }
+        if (references == 0) {
+            return 0;
+        }
+
+        // store() added the first reference
+        for (int i = 1; i < references; i++) {
+            blobStore.retain(key);
+        }
+        StorageRedirect redirect = new StorageRedirect();
+        redirect.setOldPath(path);
+        redirect.setNewKey(key);
+        storageRedirectRepository.save(redirect);
+        return references;
+    }
+
+    private Path root() {
+        return Paths.get(storageProperties.getLocalPath());
+    }
+
+    public record Progress(boolean running, LocalDateTime startedAt, LocalDateTime finishedAt, long scanned,
+                           long migrated, long unreferenced, long failed, long bytesMoved) {
+    }
+}
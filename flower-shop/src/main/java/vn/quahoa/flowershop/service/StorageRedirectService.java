@@ -0,0 +1,44 @@
+package vn.quahoa.flowershop.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import vn.quahoa.flowershop.model.StorageRedirect;
+import vn.quahoa.flowershop.repository.StorageRedirectRepository;
+
+/**
+ * Where a file moved by {@link StorageLayoutMigrator} lives now. Redirects never change once written,
+ * so found ones are kept in memory (up to a bound).
+ */
+@Service
+@RequiredArgsConstructor
+public class StorageRedirectService {
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final StorageRedirectRepository storageRedirectRepository;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param path old path relative to the storage root
+     * @return the key now holding the content
+     */
+    public Optional<String> find(String path) {
+        if (StorageLayoutMigrator.LEGACY_DIRS.stream().noneMatch(directory -> path.startsWith(directory + "/"))) {
+            return Optional.empty();
+        }
+        String cached = cache.get(path);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<String> key = storageRedirectRepository.findById(path).map(StorageRedirect::getNewKey);
+        if (key.isPresent() && cache.size() < MAX_CACHED) {
+            cache.put(path, key.get());
+        }
+        return key;
+    }
+}
@@ -0,0 +1,303 @@
+package vn.quahoa.flowershop.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.UploadProperties;
+import vn.quahoa.flowershop.dto.upload.UploadSessionRequest;
+import vn.quahoa.flowershop.exception.ConflictException;
+import vn.quahoa.flowershop.exception.ResourceNotFoundException;
+import vn.quahoa.flowershop.model.UploadSession;
+import vn.quahoa.flowershop.repository.UploadSessionRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+import vn.quahoa.flowershop.storage.LocalBlobStore;
+
+/**
+ * Resumable uploads: create a session, append chunks at the current offset, complete.
+ * <p>
+ * Each chunk carries a SHA-256 and is written into the session's staging file with positional
+ * writes, then forced to disk before the offset advances, so an acknowledged offset survives a
+ * crash and a failed or corrupted chunk is simply sent again. The staging file lives on the storage
+ * volume and is moved (not copied) into the blob store on completion.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionService {
+
+    public static final String CHECKSUM_ALGORITHM = "sha256";
+
+    private static final String SESSION_DIR = "sessions";
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadProperties uploadProperties;
+    private final BlobStore blobStore;
+    private final ImageNormalizer imageNormalizer;
+    private final ProductService productService;
+    private final BlogService blogService;
+    private final ImageStorageService imageStorageService;
+
+    // Sessions with a chunk or completion in progress
+    private final Set<String> busy = ConcurrentHashMap.newKeySet();
+
+    public UploadSession createSession(UploadSessionRequest request) {
+        long maxSize = uploadProperties.getMaxSize().toBytes();
+        if (request.getSize() > maxSize) {
+            throw new IllegalArgumentException("File exceeds the upload limit of " + maxSize + " bytes");
+        }
+        // The target must exist now; it is checked again on completion
+        switch (request.getTargetType()) {
+            case PRODUCT -> productService.getById(request.getTargetId());
+            case BLOG -> blogService.getBlogById(request.getTargetId());
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setTargetType(request.getTargetType());
+        session.setTargetId(request.getTargetId());
+        session.setMainImage(request.isMainImage());
+        session.setFileName(request.getFileName());
+        session.setTotalSize(request.getSize());
+        session.setSha256(request.getSha256() != null ? request.getSha256().toLowerCase() : null);
+        session.setExpiresAt(LocalDateTime.now().plus(uploadProperties.getSessionTtl()));
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession getSession(String id) {
+        return uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", id));
+    }
+
+    /**
+     * Writes one chunk at {@code offset}, which must be the session's current offset.
+     *
+     * @param checksum {@code sha256 <base64 digest of the chunk>}
+     */
+    public UploadSession appendChunk(String id, long offset, String checksum, InputStream body) throws IOException {
+        byte[] expected = parseChecksum(checksum);
+        lock(id);
+        try {
+            UploadSession session = activeSession(id);
+            if (offset != session.getReceivedBytes()) {
+                throw new ConflictException("Upload " + id + " is at offset " + session.getReceivedBytes() + ", not " + offset);
+            }
+            long limit = Math.min(uploadProperties.getMaxChunkSize().toBytes(), session.getTotalSize() - offset);
+
+            MessageDigest digest = sha256();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(stagingFile(id),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Bytes past the offset belong to an attempt that was never acknowledged
+                if (channel.size() > offset) {
+                    channel.truncate(offset);
+                }
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (written + read > limit) {
+                        throw new IllegalArgumentException("Chunk exceeds " + limit + " bytes (max chunk size or remaining file size)");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += channel.write(chunk, offset + written);
+                    }
+                }
+                if (written == 0) {
+                    throw new IllegalArgumentException("Chunk is empty");
+                }
+                if (!MessageDigest.isEqual(digest.digest(), expected)) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("Chunk checksum mismatch at offset " + offset + ", send it again");
+                }
+                channel.force(false);
+            }
+
+            session.setReceivedBytes(offset + written);
+            session.setExpiresAt(LocalDateTime.now().plus(uploadProperties.getSessionTtl()));
+            return uploadSessionRepository.save(session);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Moves the complete file into storage and attaches it to the product or blog. Calling it again
+     * after success returns the completed session.
+     */
+    public UploadSession complete(String id) throws IOException {
+        lock(id);
+        try {
+            UploadSession session = getSession(id);
+            if (session.getStatus() == UploadSession.Status.COMPLETED) {
+                return session;
+            }
+            session = activeSession(id);
+            if (session.getReceivedBytes() != session.getTotalSize()) {
+                throw new ConflictException("Upload " + id + " is incomplete: " + session.getReceivedBytes()
+                        + " of " + session.getTotalSize() + " bytes received");
+            }
+
+            // Checked on the uploaded bytes: normalization rewrites the file, so the blob hash differs
+            if (session.getSha256() != null && !session.getSha256().equals(fileHash(stagingFile(id)))) {
+                Files.deleteIfExists(stagingFile(id));
+                uploadSessionRepository.delete(session);
+                throw new IllegalArgumentException("File checksum mismatch, the upload has to start over");
+            }
+            BlobStore.StoredBlobRef blob = imageNormalizer.storeFile(stagingFile(id), LocalBlobStore.extensionOf(session.getFileName()));
+
+            String imageUrl;
+            try {
+                imageUrl = attach(session, blob.key());
+            } catch (RuntimeException e) {
+                blobStore.release(blob.key());
+                throw e;
+            }
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setImageUrl(imageUrl);
+            session.setExpiresAt(LocalDateTime.now().plus(uploadProperties.getSessionTtl()));
+            log.info("Upload {} completed: {} bytes attached to {} {}", id, blob.size(), session.getTargetType(), session.getTargetId());
+            return uploadSessionRepository.save(session);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    public void abort(String id) throws IOException {
+        lock(id);
+        try {
+            UploadSession session = getSession(id);
+            Files.deleteIfExists(stagingFile(id));
+            uploadSessionRepository.delete(session);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Drops expired sessions with their staging files, and staging files whose session is gone.
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval:15m}")
+    public void removeExpiredSessions() {
+        int removed = 0;
+        for (UploadSession session : uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now())) {
+            if (!busy.add(session.getId())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(stagingFile(session.getId()));
+                uploadSessionRepository.delete(session);
+                removed++;
+            } catch (IOException | OptimisticLockingFailureException e) {
+                log.warn("Could not remove expired upload {}", session.getId(), e);
+            } finally {
+                busy.remove(session.getId());
+            }
+        }
+
+        Instant orphanBefore = Instant.now().minus(uploadProperties.getSessionTtl());
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(sessionDirectory(), "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                String id = part.getFileName().toString().replace(PART_SUFFIX, "");
+                if (!busy.contains(id) && Files.getLastModifiedTime(part).toInstant().isBefore(orphanBefore)
+                        && !uploadSessionRepository.existsById(id)) {
+                    Files.deleteIfExists(part);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep upload staging files", e);
+        }
+        if (removed > 0) {
+            log.info("Removed {} expired upload sessions / staging files", removed);
+        }
+    }
+
+    private String attach(UploadSession session, String key) {
+        return switch (session.getTargetType()) {
+            case PRODUCT -> session.isMainImage()
+                    ? productService.attachMainProductImage(session.getTargetId(), key)
+                    : productService.attachProductImage(session.getTargetId(), key, session.getFileName());
+            case BLOG -> session.isMainImage()
+                    ? blogService.attachMainBlogImage(session.getTargetId(), imageStorageService.publicUrl(key))
+                    : blogService.attachBlogImage(session.getTargetId(), imageStorageService.publicUrl(key), session.getFileName());
+        };
+    }
+
+    private UploadSession activeSession(String id) {
+        UploadSession session = getSession(id);
+        if (session.getStatus() != UploadSession.Status.ACTIVE || session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ConflictException("Upload " + id + " is no longer active");
+        }
+        return session;
+    }
+
+    private void lock(String id) {
+        if (!busy.add(id)) {
+            throw new ConflictException("Upload " + id + " is busy with another request");
+        }
+    }
+
+    private static byte[] parseChecksum(String header) {
+        String[] parts = header == null ? new String[0] : header.trim().split("\\s+");
+        if (parts.length != 2 || !parts[0].equalsIgnoreCase(CHECKSUM_ALGORITHM)) {
+            throw new IllegalArgumentException("Upload-Checksum header must be 'sha256 <base64 digest>'");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Upload-Checksum digest is not valid base64");
+        }
+    }
+
+    private Path stagingFile(String id) throws IOException {
+        return sessionDirectory().resolve(id + PART_SUFFIX);
+    }
+
+    private Path sessionDirectory() throws IOException {
+        return Files.createDirectories(blobStore.stagingDirectory().resolve(SESSION_DIR));
+    }
+
+    private static String fileHash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
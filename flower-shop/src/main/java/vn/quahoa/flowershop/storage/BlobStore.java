@@ -0,0 +1,80 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Content-addressed image storage. Identical content is stored once; every {@link #store} adds a
+ * reference and every {@link #release} drops one, and the file is deleted with the last reference.
+ * <p>
+ * Keys are paths relative to the storage root ({@code blobs/ab/cd/<sha256>.ext}), so they resolve
+ * through the regular {@code /images/**} URL space.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams the content in, hashing it on the way, and adds one reference.
+     *
+     * @param extension file extension including the dot, e.g. ".jpg"
+     */
+    StoredBlobRef store(InputStream content, String extension) throws IOException;
+
+    /**
+     * Adds a complete file that already sits on the storage volume (see {@link #stagingDirectory()}):
+     * it is hashed in place and moved, not copied, into the store. On success the file is gone;
+     * on failure it is left in place.
+     */
+    StoredBlobRef storeFile(Path file, String extension) throws IOException;
+
+    /**
+     * Directory for partial files, on the same volume as the store and never served publicly.
+     */
+    Path stagingDirectory() throws IOException;
+
+    /**
+     * Adds one reference to content that is already stored, e.g. when a stored URL is reused.
+     *
+     * @return false when the key is not (or no longer) in the store
+     */
+    boolean retain(String key);
+
+    /**
+     * Drops one reference.
+     *
+     * @return true when that was the last reference and the file was deleted
+     */
+    boolean release(String key) throws IOException;
+
+    /**
+     * Forgets a blob file that no record points at any more, whatever its reference count says (counts
+     * leak when a record is deleted without releasing its images). Skipped when the blob was stored
+     * or retained after {@code referencedBefore}, since the record using it may not be saved yet.
+     *
+     * @param disposal deletes or moves the file, called while no one can store the same content
+     * @return false when the blob was referenced too recently
+     */
+    boolean evict(String key, LocalDateTime referencedBefore, FileDisposal disposal) throws IOException;
+
+    /**
+     * Extracts the blob key from a public URL or relative path, if it points into the store.
+     */
+    Optional<String> keyOf(String urlOrPath);
+
+    Path resolve(String key);
+
+    String publicUrl(String key);
+
+    @FunctionalInterface
+    interface FileDisposal {
+        void dispose(Path file) throws IOException;
+    }
+
+    /**
+     * @param created false when the content was already stored and only a reference was added
+     */
+    record StoredBlobRef(String key, String hash, long size, boolean created) {
+    }
+}
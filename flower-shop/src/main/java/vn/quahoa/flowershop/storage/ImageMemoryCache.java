@@ -0,0 +1,175 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.ImageMemoryCacheProperties;
+
+/**
+ * Byte-budgeted LRU of small image files (thumbnails, variants) held off-heap in direct
+ * {@link ByteBuffer}s, so the hottest images are served by {@link ImageServlet} without touching the
+ * disk and without adding to the garbage collector's work.
+ * <p>
+ * Entries are keyed by path and checked against the size and modification time the servlet just read,
+ * so a file replaced or removed behind the cache's back is never served stale; the storage delete paths
+ * also {@link #invalidate} so the memory is given back at once. Evicted buffers are freed by their
+ * cleaner once no response still writes from them (an explicit free could pull memory from under one).
+ */
+@Slf4j
+@Component
+public class ImageMemoryCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxFileSize;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long residentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public record Stats(boolean enabled, long hits, long misses, double hitRate, long evictions,
+                        long invalidations, int entries, long residentBytes, long maxBytes) {
+    }
+
+    public ImageMemoryCache(ImageMemoryCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxBytes = properties.getMaxBytes().toBytes();
+        this.maxFileSize = Math.min(properties.getMaxFileSize().toBytes(), Math.min(maxBytes, Integer.MAX_VALUE));
+    }
+
+    /**
+     * A cache that never holds anything, for servlets set up without one.
+     */
+    public static ImageMemoryCache disabled() {
+        ImageMemoryCacheProperties properties = new ImageMemoryCacheProperties();
+        properties.setEnabled(false);
+        return new ImageMemoryCache(properties);
+    }
+
+    /**
+     * Returns the file's bytes from memory, loading them on a miss when the file is small enough.
+     *
+     * @param length       current size of the file
+     * @param lastModified current modification time; with {@code length} it tells a cached copy is current
+     * @return a read-only view of the whole file (position 0, own position and limit), or empty to read
+     *         it from disk
+     */
+    public Optional<ByteBuffer> get(Path file, long length, long lastModified) {
+        if (!enabled || length > maxFileSize) {
+            return Optional.empty();
+        }
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.length() == length && entry.lastModified() == lastModified) {
+                    hits.increment();
+                    return Optional.of(entry.buffer().duplicate());
+                }
+                remove(key);
+            }
+        }
+        misses.increment();
+
+        // Read outside the lock; two concurrent misses of the same small file may both read it
+        ByteBuffer buffer = load(key, length);
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            Entry current = entries.get(key);
+            if (current == null || current.length() != length || current.lastModified() != lastModified) {
+                if (current != null) {
+                    remove(key);
+                }
+                entries.put(key, new Entry(buffer, length, lastModified));
+                residentBytes += length;
+                evictToBudget();
+            }
+        }
+        return Optional.of(buffer.duplicate());
+    }
+
+    /**
+     * Drops {@code file} and its cached variants.
+     */
+    public void invalidate(Path file) {
+        if (!enabled) {
+            return;
+        }
+        Path original = file.toAbsolutePath().normalize();
+        synchronized (this) {
+            Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, Entry> entry = iterator.next();
+                if (entry.getKey().equals(original) || ImageVariants.isVariantOf(entry.getKey(), original)) {
+                    residentBytes -= entry.getValue().length();
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return new Stats(enabled, hitCount, misses.sum(), requests == 0 ? 0.0 : (double) hitCount / requests,
+                evictions.sum(), invalidations.sum(), entries.size(), residentBytes, maxBytes);
+    }
+
+    private static ByteBuffer load(Path file, long length) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    // Shorter than it was a moment ago: not worth caching
+                    return null;
+                }
+            }
+            if (channel.size() != length) {
+                return null;
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Could not cache {}: {}", file, e.getMessage());
+            return null;
+        }
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+        while (residentBytes > maxBytes && eldest.hasNext()) {
+            residentBytes -= eldest.next().getValue().length();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(Path key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            residentBytes -= removed.length();
+        }
+    }
+
+    private record Entry(ByteBuffer buffer, long length, long lastModified) {
+    }
+}
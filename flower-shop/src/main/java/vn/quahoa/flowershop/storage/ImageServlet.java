@@ -0,0 +1,370 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.service.ImageVariantService;
+
+/**
+ * Serves {@code /images/*} straight from the storage directory, outside Spring MVC and the security
+ * filter chain.
+ * <p>
+ * Stored files never change under their name (hash or UUID named, written by atomic move), so
+ * responses are cacheable for a year with a strong validator. Single byte ranges are supported, with
+ * {@code If-Range}. Small files come from the off-heap {@link ImageMemoryCache}; large bodies go through
+ * Tomcat's sendfile when the connector offers it, otherwise through {@link FileChannel#transferTo}.
+ */
+@Slf4j
+public class ImageServlet extends HttpServlet {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // A ?w= request answered with the original may get its variant later under the same URL
+    static final String FALLBACK = "public, max-age=60";
+    static final String REDIRECT = "public, max-age=86400";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    private static final Pattern BLOB_NAME = Pattern.compile("^([0-9a-f]{64})(?:_w(\\d+))?\\.");
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    // ServletOutputStream#write(ByteBuffer) is only standard from Servlet 6.1, but Tomcat's stream has it
+    // already; looked up once per stream class, null when missing
+    private static final ClassValue<MethodHandle> BUFFER_WRITE = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.publicLookup()
+                        .findVirtual(type, "write", MethodType.methodType(void.class, ByteBuffer.class))
+                        .asType(MethodType.methodType(void.class, OutputStream.class, ByteBuffer.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+        }
+    };
+
+    private final transient Path root;
+    private final transient ImageVariantService imageVariantService;
+    private final transient Function<String, Optional<String>> redirects;
+    private final transient ImageMemoryCache memoryCache;
+
+    public ImageServlet(Path root, ImageVariantService imageVariantService) {
+        this(root, imageVariantService, path -> Optional.empty(), ImageMemoryCache.disabled());
+    }
+
+    /**
+     * @param redirects new storage path of a file that was moved, by old path
+     */
+    public ImageServlet(Path root, ImageVariantService imageVariantService,
+                        Function<String, Optional<String>> redirects) {
+        this(root, imageVariantService, redirects, ImageMemoryCache.disabled());
+    }
+
+    /**
+     * @param memoryCache small files kept in memory
+     */
+    public ImageServlet(Path root, ImageVariantService imageVariantService,
+                        Function<String, Optional<String>> redirects, ImageMemoryCache memoryCache) {
+        this.root = root.toAbsolutePath().normalize();
+        this.imageVariantService = imageVariantService;
+        this.redirects = redirects;
+        this.memoryCache = memoryCache;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, false);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean withBody) throws IOException {
+        Optional<Path> original = locate(request.getPathInfo());
+        if (original.isEmpty()) {
+            Optional<String> moved = request.getPathInfo() != null && request.getPathInfo().length() > 1
+                    ? redirects.apply(request.getPathInfo().substring(1)) : Optional.empty();
+            if (moved.isPresent()) {
+                // Old URLs from before the storage layout migration
+                String query = request.getQueryString() != null ? "?" + request.getQueryString() : "";
+                response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+                response.setHeader("Location", request.getContextPath() + request.getServletPath() + "/" + moved.get() + query);
+                response.setHeader("Cache-Control", REDIRECT);
+                return;
+            }
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path file = original.get();
+        String cacheControl = IMMUTABLE;
+        Integer width = parseWidth(request.getParameter("w"));
+        if (width != null) {
+            Optional<Path> variant = imageVariantService.variant(file, width);
+            if (variant.isPresent()) {
+                file = variant.get();
+            } else {
+                cacheControl = FALLBACK;
+            }
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Deleted between lookup and read
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = etag(file, length, lastModified);
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", cacheControl);
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = getServletContext().getMimeType(file.getFileName().toString());
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        if (range != null && length > 0 && rangeApplies(request.getHeader("If-Range"), etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (!withBody || count <= 0) {
+            return;
+        }
+        Optional<ByteBuffer> cached = memoryCache.get(file, length, attributes.lastModifiedTime().toMillis());
+        if (cached.isPresent()) {
+            ByteBuffer body = cached.get();
+            body.position((int) start).limit((int) (start + count));
+            write(body, response.getOutputStream());
+            return;
+        }
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file to the socket itself once the servlet returns
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        transfer(file, start, count, response.getOutputStream());
+    }
+
+    /**
+     * Maps the request path onto a file under the storage root; hidden files and directories (temp
+     * downloads, quarantined orphans) and anything outside the root are not served.
+     */
+    private Optional<Path> locate(String pathInfo) {
+        if (pathInfo == null || pathInfo.isEmpty() || pathInfo.contains("\0") || pathInfo.contains("\\")) {
+            return Optional.empty();
+        }
+        Path file;
+        try {
+            file = root.resolve(pathInfo.substring(1)).normalize();
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+        if (!file.startsWith(root) || file.equals(root)
+                || file.startsWith(root.resolve(LocalBlobStore.BLOB_DIR).resolve("tmp"))
+                || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        for (Path name : root.relativize(file)) {
+            if (name.toString().startsWith(".")) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Content hash for blobs (and their variants), size and modification time otherwise; both change
+     * whenever the bytes do because files are never rewritten in place.
+     */
+    static String etag(Path file, long length, long lastModified) {
+        Matcher blob = BLOB_NAME.matcher(file.getFileName().toString());
+        if (blob.find()) {
+            return "\"" + blob.group(1) + (blob.group(2) != null ? "-w" + blob.group(2) : "") + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match uses weak comparison and takes precedence over If-Modified-Since
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || stripWeak(candidate).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * If-Range needs a strong match with the current ETag, or exactly the current Last-Modified.
+     */
+    private static boolean rangeApplies(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() == lastModified;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return {start, end} for one satisfiable range, an empty array to ignore the header (multiple
+     *         ranges or bad syntax: the full body is sent), null when unsatisfiable
+     */
+    static long[] parseRange(String header, long length) {
+        Matcher matcher = SINGLE_RANGE.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (matcher.group(1).isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(matcher.group(2));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                end = matcher.group(2).isEmpty() ? length - 1 : Math.min(Long.parseLong(matcher.group(2)), length - 1);
+                if (start >= length || start > end) {
+                    return start >= length ? null : new long[0];
+                }
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static void transfer(Path file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Usually the client went away mid-transfer
+            log.debug("Image transfer of {} aborted: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes straight from the (direct) buffer when the container can, instead of through a heap copy.
+     */
+    private static void write(ByteBuffer body, OutputStream out) throws IOException {
+        MethodHandle bufferWrite = BUFFER_WRITE.get(out.getClass());
+        try {
+            if (bufferWrite != null) {
+                bufferWrite.invokeExact(out, body);
+            } else {
+                WritableByteChannel target = Channels.newChannel(out);
+                while (body.hasRemaining()) {
+                    target.write(body);
+                }
+            }
+        } catch (IOException e) {
+            // Usually the client went away mid-transfer
+            log.debug("Cached image transfer aborted: {}", e.getMessage());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Integer parseWidth(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
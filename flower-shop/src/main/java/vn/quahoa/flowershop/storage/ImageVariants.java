@@ -0,0 +1,86 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Naming of cached image derivatives: {@code dir/_variants/<name>_w<width>.<ext>} beside the original,
+ * JPEG for photos and PNG for everything that may carry transparency. The file as uploaded, when kept
+ * by the upload normalizer, sits there too as the hidden {@code .<name>_original.<ext>}, so it is never
+ * served and goes away with the variants.
+ */
+@Slf4j
+public final class ImageVariants {
+
+    public static final String VARIANT_DIR = "_variants";
+
+    private ImageVariants() {
+    }
+
+    public static Path variantPath(Path original, int width) {
+        return original.resolveSibling(VARIANT_DIR).resolve(baseName(original) + "_w" + width + "." + formatOf(original));
+    }
+
+    /**
+     * @param extension format of the file as uploaded, without the dot
+     */
+    public static Path originalPath(Path stored, String extension) {
+        return stored.resolveSibling(VARIANT_DIR).resolve("." + baseName(stored) + "_original." + extension);
+    }
+
+    /**
+     * @return "jpg" or "png", the format a derivative of {@code original} is encoded in
+     */
+    public static String formatOf(Path original) {
+        String extension = extension(original);
+        return extension.equals("jpg") || extension.equals("jpeg") || extension.equals("bmp") ? "jpg" : "png";
+    }
+
+    /**
+     * True for the resized derivatives of {@code original} (not for its kept original).
+     */
+    public static boolean isVariantOf(Path path, Path original) {
+        return path.getParent() != null && path.getParent().equals(original.resolveSibling(VARIANT_DIR))
+                && path.getFileName().toString().startsWith(baseName(original) + "_w");
+    }
+
+    public static boolean isVariant(Path path) {
+        Path parent = path.getParent();
+        return parent != null && parent.getFileName() != null && parent.getFileName().toString().equals(VARIANT_DIR);
+    }
+
+    /**
+     * Deletes every cached derivative of {@code original} and its kept upload; failures are logged, never thrown.
+     */
+    public static void deleteVariants(Path original) {
+        Path directory = original.resolveSibling(VARIANT_DIR);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(directory,
+                "{" + baseName(original) + "_w*,." + baseName(original) + "_original.*}")) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete variants of {}", original, e);
+        }
+    }
+
+    public static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+}
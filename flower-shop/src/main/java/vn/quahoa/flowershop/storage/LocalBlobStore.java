@@ -0,0 +1,282 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.model.StoredBlob;
+import vn.quahoa.flowershop.repository.StoredBlobRepository;
+
+/**
+ * {@link BlobStore} on the local storage directory, with reference counts in {@code stored_blobs}.
+ * <p>
+ * Content is written to a temp file while its SHA-256 is computed, then either discarded (already
+ * stored, reference added) or moved atomically to {@code blobs/ab/cd/<hash>.ext} before its row is
+ * inserted. Operations on the same hash are serialized with a striped lock held across their own
+ * database transactions, which is enough for the single application instance this storage directory
+ * belongs to.
+ */
+@Slf4j
+@Service
+public class LocalBlobStore implements BlobStore {
+
+    public static final String BLOB_DIR = "blobs";
+
+    private static final Pattern KEY_PATTERN =
+            Pattern.compile("blobs/[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})(\\.[a-z0-9]{1,5})?");
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("\\.[a-z0-9]{1,5}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final StorageProperties storageProperties;
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public LocalBlobStore(StorageProperties storageProperties, StoredBlobRepository storedBlobRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.storageProperties = storageProperties;
+        this.storedBlobRepository = storedBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Committed before the hash lock is released, even when the caller has a transaction open
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public StoredBlobRef store(InputStream content, String extension) throws IOException {
+        Path temp = Files.createTempFile(stagingDirectory(), "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+            return commit(temp, HexFormat.of().formatHex(digest.digest()), size, extension);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredBlobRef storeFile(Path file, String extension) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        StoredBlobRef blob = commit(file, HexFormat.of().formatHex(digest.digest()), Files.size(file), extension);
+        // Still there when the content was already stored
+        Files.deleteIfExists(file);
+        return blob;
+    }
+
+    @Override
+    public Path stagingDirectory() throws IOException {
+        return Files.createDirectories(root().resolve(BLOB_DIR).resolve("tmp"));
+    }
+
+    /**
+     * Adds a reference for {@code hash}, moving {@code source} into place when the content is new.
+     * The caller deletes {@code source} if it is still there.
+     */
+    private StoredBlobRef commit(Path source, String hash, long size, String extension) throws IOException {
+        String key = keyFor(hash, normalizeExtension(extension));
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Integer referenced = transactionTemplate.execute(status -> storedBlobRepository.incrementRefCount(hash));
+            if (referenced != null && referenced > 0) {
+                // Same content seen before: keep the existing file (and its extension)
+                String storedKey = storedBlobRepository.findById(hash).map(StoredBlob::getStorageKey).orElse(key);
+                log.debug("Deduplicated blob {}", storedKey);
+                return new StoredBlobRef(storedKey, hash, size, false);
+            }
+
+            // The file goes into place before its row exists, so a row never points at a missing file
+            Path target = resolve(key);
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    StoredBlob blob = new StoredBlob();
+                    blob.setHash(hash);
+                    blob.setStorageKey(key);
+                    blob.setSize(size);
+                    blob.setRefCount(1);
+                    blob.setLastReferencedAt(LocalDateTime.now());
+                    storedBlobRepository.save(blob);
+                });
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            log.info("Stored blob {} ({} bytes)", key, size);
+            return new StoredBlobRef(key, hash, size, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean retain(String key) {
+        String hash = hashOf(key);
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Integer updated = transactionTemplate.execute(status -> storedBlobRepository.incrementRefCount(hash));
+            return updated != null && updated > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean release(String key) throws IOException {
+        String hash = hashOf(key);
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            String deletedKey = transactionTemplate.execute(status -> {
+                storedBlobRepository.decrementRefCount(hash);
+                Optional<StoredBlob> blob = storedBlobRepository.findById(hash);
+                if (blob.isPresent() && blob.get().getRefCount() <= 0) {
+                    storedBlobRepository.delete(blob.get());
+                    return blob.get().getStorageKey();
+                }
+                return null;
+            });
+            if (deletedKey == null) {
+                return false;
+            }
+            Files.deleteIfExists(resolve(deletedKey));
+            ImageVariants.deleteVariants(resolve(deletedKey));
+            log.info("Deleted unreferenced blob {}", deletedKey);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean evict(String key, LocalDateTime referencedBefore, FileDisposal disposal) throws IOException {
+        String hash = hashOf(key);
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Boolean evicted = transactionTemplate.execute(status -> {
+                Optional<StoredBlob> blob = storedBlobRepository.findById(hash);
+                if (blob.isEmpty() || !blob.get().getStorageKey().equals(key)) {
+                    // A stray copy: the counted file (if any) has another extension
+                    return true;
+                }
+                LocalDateTime lastReferenced = blob.get().getLastReferencedAt() != null
+                        ? blob.get().getLastReferencedAt() : blob.get().getCreatedAt();
+                if (lastReferenced != null && lastReferenced.isAfter(referencedBefore)) {
+                    return false;
+                }
+                storedBlobRepository.delete(blob.get());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(evicted)) {
+                return false;
+            }
+            disposal.dispose(resolve(key));
+            ImageVariants.deleteVariants(resolve(key));
+            log.info("Evicted unreferenced blob {}", key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<String> keyOf(String urlOrPath) {
+        if (urlOrPath == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = KEY_PATTERN.matcher(urlOrPath);
+        return matcher.find() ? Optional.of(matcher.group()) : Optional.empty();
+    }
+
+    @Override
+    public Path resolve(String key) {
+        return root().resolve(key);
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        String baseUrl = storageProperties.getBaseUrl();
+        return baseUrl.endsWith("/") ? baseUrl + key : baseUrl + "/" + key;
+    }
+
+    /**
+     * Extension from a file name ("photo.PNG" -> ".png"), ".jpg" when missing or unusual.
+     */
+    public static String extensionOf(String fileName) {
+        if (fileName != null) {
+            int dot = fileName.lastIndexOf('.');
+            if (dot >= 0) {
+                return normalizeExtension(fileName.substring(dot));
+            }
+        }
+        return ".jpg";
+    }
+
+    private static String normalizeExtension(String extension) {
+        String lower = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        return EXTENSION_PATTERN.matcher(lower).matches() ? lower : ".jpg";
+    }
+
+    private static String hashOf(String key) {
+        Matcher matcher = KEY_PATTERN.matcher(key);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Not a blob key: " + key);
+        }
+        return matcher.group(1);
+    }
+
+    private static String keyFor(String hash, String extension) {
+        return BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+    }
+
+    private Path root() {
+        return Paths.get(storageProperties.getLocalPath());
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package vn.quahoa.flowershop.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lists the stored files a batch at a time in a stable order, resuming after the last path of the
+ * previous batch, so a walk over a large volume can be spread over many small steps and survives
+ * restarts when the cursor is persisted.
+ * <p>
+ * Paths are compared name by name, which is the order a depth-first walk over sorted directory
+ * listings produces; whole subtrees before the cursor are skipped without being listed. Hidden
+ * entries, {@code blobs/tmp} and variant directories are not part of the walk.
+ */
+public class StorageWalker {
+
+    private final Path root;
+
+    public StorageWalker(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * @param after cursor: a relative path with '/' separators, or an empty string to start over
+     * @return up to {@code limit} relative paths after the cursor; fewer means the walk is complete
+     */
+    public List<String> nextBatch(String after, int limit) throws IOException {
+        List<String> cursor = after == null || after.isEmpty() ? List.of() : Arrays.asList(after.split("/"));
+        List<String> batch = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            collect(root, List.of(), cursor, limit, batch);
+        }
+        return batch;
+    }
+
+    /**
+     * @return false once the batch is full
+     */
+    private boolean collect(Path dir, List<String> prefix, List<String> cursor, int limit, List<String> batch)
+            throws IOException {
+        List<Path> children;
+        try (Stream<Path> listing = Files.list(dir)) {
+            children = listing.sorted((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString())).toList();
+        }
+        for (Path child : children) {
+            List<String> path = new ArrayList<>(prefix);
+            path.add(child.getFileName().toString());
+            if (skipped(path)) {
+                continue;
+            }
+            if (Files.isDirectory(child)) {
+                // Descend only where paths after the cursor can be
+                if (compare(path, cursor) < 0 && !isPrefix(path, cursor)) {
+                    continue;
+                }
+                if (!collect(child, path, cursor, limit, batch)) {
+                    return false;
+                }
+            } else if (Files.isRegularFile(child) && compare(path, cursor) > 0) {
+                batch.add(String.join("/", path));
+                if (batch.size() >= limit) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean skipped(List<String> path) {
+        String name = path.get(path.size() - 1);
+        return name.startsWith(".") || name.equals(ImageVariants.VARIANT_DIR)
+                || (path.size() == 2 && path.get(0).equals(LocalBlobStore.BLOB_DIR) && name.equals("tmp"));
+    }
+
+    static int compare(List<String> a, List<String> b) {
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+            int result = a.get(i).compareTo(b.get(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private static boolean isPrefix(List<String> prefix, List<String> path) {
+        return prefix.size() < path.size() && path.subList(0, prefix.size()).equals(prefix);
+    }
+}
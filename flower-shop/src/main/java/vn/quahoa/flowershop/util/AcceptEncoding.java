@@ -0,0 +1,48 @@
+package vn.quahoa.flowershop.util;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding header with its quality values (RFC 9110 12.5.3), e.g.
+ * "gzip;q=0, br" does not accept gzip; "*" stands for any coding not listed.
+ */
+public final class AcceptEncoding {
+
+  private AcceptEncoding() {
+  }
+
+  public static boolean accepts(String header, String coding) {
+    if (header == null || header.isBlank()) {
+      return false;
+    }
+    Double explicit = null;
+    Double wildcard = null;
+    for (String element : header.split(",")) {
+      String[] parts = element.split(";");
+      String name = parts[0].trim().toLowerCase(Locale.ROOT);
+      double quality = quality(parts);
+      if (name.equals(coding) || name.equals("x-" + coding)) {
+        explicit = explicit == null ? quality : Math.max(explicit, quality);
+      } else if (name.equals("*")) {
+        wildcard = quality;
+      }
+    }
+    Double quality = explicit != null ? explicit : wildcard;
+    return quality != null && quality > 0;
+  }
+
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          // A malformed weight excludes the coding rather than guessing
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
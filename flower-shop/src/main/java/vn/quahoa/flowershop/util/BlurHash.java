@@ -0,0 +1,112 @@
+package vn.quahoa.flowershop.util;
+
+/**
+ * BlurHash encoder (https://blurha.sh): a few DCT components of an image packed into a short base83
+ * string that clients decode into a blurred placeholder, e.g. "LKO2?U%2Tw=w]~RBVZRi};RPxuwH".
+ */
+public final class BlurHash {
+
+  private static final String BASE83 =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+  private BlurHash() {
+  }
+
+  /**
+   * @param pixels      row-major 0xRRGGBB values (alpha ignored)
+   * @param componentsX horizontal components, 1 to 9
+   * @param componentsY vertical components, 1 to 9
+   */
+  public static String encode(int[] pixels, int width, int height, int componentsX, int componentsY) {
+    if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+      throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+    }
+    if (width < 1 || height < 1 || pixels.length < width * height) {
+      throw new IllegalArgumentException("Pixel array does not match " + width + "x" + height);
+    }
+
+    double[] linear = new double[width * height * 3];
+    for (int i = 0; i < width * height; i++) {
+      linear[i * 3] = toLinear((pixels[i] >> 16) & 0xFF);
+      linear[i * 3 + 1] = toLinear((pixels[i] >> 8) & 0xFF);
+      linear[i * 3 + 2] = toLinear(pixels[i] & 0xFF);
+    }
+
+    double[][] factors = new double[componentsX * componentsY][];
+    for (int j = 0; j < componentsY; j++) {
+      for (int i = 0; i < componentsX; i++) {
+        factors[j * componentsX + i] = basis(linear, width, height, i, j);
+      }
+    }
+
+    StringBuilder hash = new StringBuilder();
+    encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+    double maximum = 1;
+    if (factors.length > 1) {
+      double actualMaximum = 0;
+      for (int i = 1; i < factors.length; i++) {
+        for (double value : factors[i]) {
+          actualMaximum = Math.max(actualMaximum, Math.abs(value));
+        }
+      }
+      int quantised = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+      maximum = (quantised + 1) / 166.0;
+      encode83(hash, quantised, 1);
+    } else {
+      encode83(hash, 0, 1);
+    }
+
+    double[] dc = factors[0];
+    encode83(hash, (toSrgb(dc[0]) << 16) | (toSrgb(dc[1]) << 8) | toSrgb(dc[2]), 4);
+    for (int i = 1; i < factors.length; i++) {
+      double[] ac = factors[i];
+      encode83(hash, quantise(ac[0], maximum) * 19 * 19 + quantise(ac[1], maximum) * 19 + quantise(ac[2], maximum), 2);
+    }
+    return hash.toString();
+  }
+
+  private static double[] basis(double[] linear, int width, int height, int i, int j) {
+    double r = 0;
+    double g = 0;
+    double b = 0;
+    double normalisation = i == 0 && j == 0 ? 1 : 2;
+    for (int y = 0; y < height; y++) {
+      double cosY = Math.cos(Math.PI * j * y / height);
+      for (int x = 0; x < width; x++) {
+        double weight = normalisation * Math.cos(Math.PI * i * x / width) * cosY;
+        int offset = (y * width + x) * 3;
+        r += weight * linear[offset];
+        g += weight * linear[offset + 1];
+        b += weight * linear[offset + 2];
+      }
+    }
+    double scale = 1.0 / (width * height);
+    return new double[] {r * scale, g * scale, b * scale};
+  }
+
+  private static int quantise(double value, double maximum) {
+    double normalised = value / maximum;
+    double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+    return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+  }
+
+  private static double toLinear(int value) {
+    double v = value / 255.0;
+    return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+  }
+
+  private static int toSrgb(double value) {
+    double v = Math.max(0, Math.min(1, value));
+    return v <= 0.0031308
+        ? (int) (v * 12.92 * 255 + 0.5)
+        : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+  }
+
+  private static void encode83(StringBuilder hash, int value, int length) {
+    for (int i = 1; i <= length; i++) {
+      int digit = (value / (int) Math.pow(83, length - i)) % 83;
+      hash.append(BASE83.charAt(digit));
+    }
+  }
+}
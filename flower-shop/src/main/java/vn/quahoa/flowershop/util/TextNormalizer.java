@@ -0,0 +1,44 @@
+package vn.quahoa.flowershop.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text to an accent-free, lower-case form used for search columns and queries,
+ * e.g. "Hoa Hồng Đà Lạt" -> "hoa hong da lat".
+ */
+public final class TextNormalizer {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private TextNormalizer() {
+  }
+
+  public static String fold(String text) {
+    if (text == null) {
+      return "";
+    }
+    // NFD splits "ồ" into "o" + circumflex + grave; "đ" has no decomposition and is mapped by hand
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+        .replace('đ', 'd')
+        .replace('Đ', 'D');
+    return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * Folds the non-null parts joined by a space, e.g. a title and a content that may be missing.
+   */
+  public static String foldAll(String... parts) {
+    StringJoiner joined = new StringJoiner(" ");
+    for (String part : parts) {
+      if (part != null) {
+        joined.add(part);
+      }
+    }
+    return fold(joined.toString());
+  }
+}
@@ -0,0 +1,106 @@
+package vn.quahoa.flowershop.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.quahoa.flowershop.config.CatalogCacheProperties;
+import vn.quahoa.flowershop.dto.product.ProductImageResponse;
+import vn.quahoa.flowershop.dto.product.ProductResponse;
+
+/**
+ * Compares serializing the full listing on every request with serving the cached payload.
+ * Run with {@code mvn test -Dtest=CatalogPayloadBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CatalogPayloadBenchmarkTest {
+
+    private static final int PRODUCTS = 200;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void cachedPayloadBeatsPerRequestSerialization() throws Exception {
+        List<ProductResponse> listing = listing();
+        CatalogCache cache = new CatalogCache(new CatalogCacheProperties(), objectMapper);
+
+        long[] perRequest = measure(() -> {
+            try {
+                return objectMapper.writeValueAsBytes(listing);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long[] cached = measure(() -> cache.payload(CatalogCache.ALL_PRODUCTS, () -> listing).json());
+
+        EncodedPayload payload = cache.payload(CatalogCache.ALL_PRODUCTS, () -> listing);
+        System.out.printf("per-request serialization: %,d ns/op, %,d B/op%n", perRequest[0], perRequest[1]);
+        System.out.printf("cached payload:            %,d ns/op, %,d B/op%n", cached[0], cached[1]);
+        System.out.printf("payload size: %,d B json, %,d B gzip%n", payload.json().length, payload.gzip().length);
+
+        assertThat(cached[0]).isLessThan(perRequest[0]);
+        assertThat(cached[1]).isLessThan(perRequest[1]);
+    }
+
+    /**
+     * @return {ns per op, bytes allocated per op} on the calling thread
+     */
+    private long[] measure(Supplier<byte[]> op) {
+        for (int i = 0; i < WARMUP; i++) {
+            op.get();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += op.get().length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(sink).isPositive();
+        return new long[] { elapsed / ITERATIONS, allocated / ITERATIONS };
+    }
+
+    private List<ProductResponse> listing() {
+        List<ProductResponse> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            ProductResponse product = new ProductResponse();
+            product.setId(id);
+            product.setProductCode("SP" + id);
+            product.setName("Hoa hồng đỏ " + id);
+            product.setDescription("Bó hoa hồng Đà Lạt tươi, giao trong ngày. Mã " + id);
+            product.setPrice(250_000 + id * 1_000);
+            product.setImageUrl("/images/products/" + id + ".jpg");
+            product.setCategoryId(id % 5 + 1);
+            product.setCategoryName("Danh mục " + (id % 5 + 1));
+            List<ProductImageResponse> images = new ArrayList<>();
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ProductImageResponse image = new ProductImageResponse();
+                image.setId(id * 10 + i);
+                image.setImageUrl("/images/products/" + id + "_" + i + ".jpg");
+                image.setFileName(id + "_" + i + ".jpg");
+                image.setDisplayOrder(i);
+                images.add(image);
+                urls.add(image.getImageUrl());
+            }
+            product.setImages(images);
+            product.setImageUrls(urls);
+            products.add(product);
+        }
+        return products;
+    }
+}
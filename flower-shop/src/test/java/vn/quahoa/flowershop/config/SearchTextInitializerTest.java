@@ -0,0 +1,78 @@
+package vn.quahoa.flowershop.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.quahoa.flowershop.model.Blog;
+import vn.quahoa.flowershop.model.Category;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.BlogRepository;
+import vn.quahoa.flowershop.repository.CategoryRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+// Rows are loaded outside a transaction, as at startup
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SearchTextInitializerTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        blogRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void fillsTheSearchColumnsWithoutTouchingUpdatedAtOrVersion() throws Exception {
+        Category category = new Category();
+        category.setName("Hoa hồng");
+        category = categoryRepository.save(category);
+        Product product = new Product();
+        product.setProductCode("HH01");
+        product.setName("Hoa Hồng Đỏ");
+        product.setPrice(100_000);
+        product.setCategory(category);
+        product = productRepository.save(product);
+        Blog blog = new Blog();
+        blog.setTitle("Cách cắm hoa");
+        blog.setContent("Giữ hoa tươi lâu");
+        blog = blogRepository.save(blog);
+        // Rows from before the search columns existed
+        jdbcTemplate.update("UPDATE products SET search_name = NULL, search_description = NULL");
+        jdbcTemplate.update("UPDATE blogs SET search_title = NULL, search_text = NULL");
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, product.getId());
+        Timestamp updatedAt = jdbcTemplate.queryForObject("SELECT updated_at FROM blogs WHERE id = ?", Timestamp.class, blog.getId());
+
+        new SearchTextInitializer().backfillSearchText(productRepository, blogRepository, jdbcTemplate).run();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT search_name FROM products WHERE id = ?", String.class, product.getId()))
+                .isEqualTo("hoa hong do hh01");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, product.getId()))
+                .isEqualTo(version);
+        assertThat(jdbcTemplate.queryForObject("SELECT search_text FROM blogs WHERE id = ?", String.class, blog.getId()))
+                .isEqualTo("cach cam hoa giu hoa tuoi lau");
+        assertThat(jdbcTemplate.queryForObject("SELECT updated_at FROM blogs WHERE id = ?", Timestamp.class, blog.getId()))
+                .isEqualTo(updatedAt);
+    }
+}
@@ -0,0 +1,127 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+
+class ImageDownloadServiceTest {
+
+    private static final byte[] PNG = pattern(4_000);
+    private static final String CACHED_ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private ImageDownloadService downloadService;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/flower.png", exchange -> respond(exchange, 200, "image/png", PNG, true));
+        server.createContext("/photo", exchange -> respond(exchange, 200, "image/jpeg; charset=binary", PNG, true));
+        // Chunked body with no Content-Length, so the cap has to be enforced while streaming
+        server.createContext("/huge.jpg", exchange -> respond(exchange, 200, "image/jpeg", pattern(64_000), false));
+        server.createContext("/page.html", exchange -> respond(exchange, 200, "text/html", "<html>".getBytes(), true));
+        server.createContext("/missing.png", exchange -> respond(exchange, 404, "text/plain", "nope".getBytes(), true));
+        server.createContext("/cached.png", exchange -> {
+            if (CACHED_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", CACHED_ETAG);
+            respond(exchange, 200, "image/png", PNG, true);
+        });
+        server.start();
+
+        ImageDownloadProperties properties = new ImageDownloadProperties();
+        properties.setMaxSize(DataSize.ofKilobytes(16));
+        downloadService = new ImageDownloadService(properties);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsTheBodyWithAnExtensionFromTheContentType() throws IOException {
+        String extension = downloadService.download(url("/photo"), (body, ext) -> {
+            assertThat(body.readAllBytes()).isEqualTo(PNG);
+            return ext;
+        });
+
+        assertThat(extension).isEqualTo(".jpg");
+        assertThat(downloadService.downloadBytes(url("/flower.png"))).isEqualTo(PNG);
+
+        ImageDownloadService.Stats stats = downloadService.stats();
+        assertThat(stats.successes()).isEqualTo(2);
+        assertThat(stats.bytes()).isEqualTo(2L * PNG.length);
+    }
+
+    @Test
+    void revalidatesWithTheValidatorsOfTheLastResponse() throws IOException {
+        ImageDownloadService.Fetched<byte[]> first = downloadService.downloadIfModified(url("/cached.png"), null, null,
+                (body, ext) -> body.readAllBytes());
+        assertThat(first.result()).isEqualTo(PNG);
+        assertThat(first.etag()).isEqualTo(CACHED_ETAG);
+
+        assertThat(downloadService.downloadIfModified(url("/cached.png"), first.etag(), null,
+                (body, ext) -> body.readAllBytes())).isNull();
+        assertThat(downloadService.stats().notModified()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsBodiesOverTheLimitWhileStreaming() {
+        assertThatThrownBy(() -> downloadService.download(url("/huge.jpg"), (body, ext) -> body.readAllBytes()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeds");
+        assertThatThrownBy(() -> downloadService.downloadBytes(url("/huge.jpg")))
+                .hasMessageContaining("exceeds");
+
+        assertThat(downloadService.stats().rejected()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsNonImagesAndHttpErrors() {
+        assertThatThrownBy(() -> downloadService.download(url("/page.html"), (body, ext) -> body.readAllBytes()))
+                .hasMessageContaining("Unsupported content type");
+        assertThatThrownBy(() -> downloadService.downloadBytes(url("/missing.png")))
+                .hasMessageContaining("HTTP code: 404");
+        assertThatThrownBy(() -> downloadService.downloadBytes("file:///etc/passwd"))
+                .hasMessageContaining("Only http and https");
+
+        assertThat(downloadService.stats().failures()).isEqualTo(3);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body,
+            boolean withLength) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, withLength ? body.length : 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] pattern(int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 7);
+        return bytes;
+    }
+}
@@ -0,0 +1,112 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.quahoa.flowershop.config.ImageJobProperties;
+import vn.quahoa.flowershop.exception.ResourceNotFoundException;
+import vn.quahoa.flowershop.model.ImageJob;
+import vn.quahoa.flowershop.repository.ImageJobRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+class ImageJobWorkerTest {
+
+    private static final String SOURCE = "https://supplier.example/rose.jpg";
+    private static final String KEY = "blobs/aa/bb/key.jpg";
+
+    private final ImageJobProperties properties = new ImageJobProperties();
+    private final ImageJobRepository repository = mock(ImageJobRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final ProductService productService = mock(ProductService.class);
+    private ImageJobWorker worker;
+    private ImageJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ImageJob();
+        job.setId(1L);
+        job.setTargetType(ImageJob.Target.PRODUCT);
+        job.setTargetId(7L);
+        job.setSourceUrl(SOURCE);
+        job.setStatus(ImageJob.Status.RUNNING);
+        job.setAttempts(1);
+        job.setRunAt(LocalDateTime.now());
+
+        when(repository.findById(1L)).thenReturn(Optional.of(job));
+        when(repository.save(any(ImageJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        worker = new ImageJobWorker(properties, repository, fileStorageService, mock(ImageStorageService.class),
+                blobStore, productService, mock(BlogService.class), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void attachesTheDownloadedImageAndMarksTheJobDone() throws IOException {
+        when(fileStorageService.saveFileFromUrl(SOURCE, "products")).thenReturn(KEY);
+        when(productService.attachProductImage(7L, KEY, "Image from URL")).thenReturn("http://localhost/images/" + KEY);
+
+        worker.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImageJob.Status.SUCCEEDED);
+        assertThat(job.getImageUrl()).isEqualTo("http://localhost/images/" + KEY);
+        assertThat(job.getFinishedAt()).isNotNull();
+        verify(blobStore, never()).release(anyString());
+    }
+
+    @Test
+    void failedDownloadIsRequeuedWithBackoffUntilAttemptsRunOut() throws IOException {
+        when(fileStorageService.saveFileFromUrl(SOURCE, "products")).thenThrow(new IOException("HTTP code: 503"));
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImageJob.Status.QUEUED);
+        assertThat(job.getLastError()).contains("503");
+        assertThat(job.getRunAt()).isAfterOrEqualTo(before.plus(properties.getInitialBackoff()));
+
+        job.setStatus(ImageJob.Status.RUNNING);
+        job.setAttempts(properties.getMaxAttempts());
+        worker.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImageJob.Status.FAILED);
+        assertThat(worker.stats().retried()).isEqualTo(1);
+        assertThat(worker.stats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedTargetFailsAtOnceAndReleasesTheImage() throws IOException {
+        when(fileStorageService.saveFileFromUrl(SOURCE, "products")).thenReturn(KEY);
+        when(productService.attachProductImage(7L, KEY, "Image from URL")).thenThrow(new ResourceNotFoundException("Product", 7L));
+
+        worker.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImageJob.Status.FAILED);
+        verify(blobStore).release(KEY);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        properties.setInitialBackoff(Duration.ofSeconds(10));
+        properties.setMaxBackoff(Duration.ofMinutes(1));
+
+        assertThat(worker.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(worker.backoff(2)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(worker.backoff(3)).isEqualTo(Duration.ofSeconds(40));
+        assertThat(worker.backoff(4)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(worker.backoff(60)).isEqualTo(Duration.ofMinutes(1));
+    }
+}
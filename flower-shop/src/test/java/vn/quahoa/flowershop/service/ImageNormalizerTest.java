@@ -0,0 +1,153 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import vn.quahoa.flowershop.config.ImageNormalizationProperties;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+class ImageNormalizerTest {
+
+    @TempDir
+    Path staging;
+
+    private final ImageNormalizationProperties properties = new ImageNormalizationProperties();
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final AtomicReference<BufferedImage> stored = new AtomicReference<>();
+    private ImageNormalizer normalizer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(blobStore.stagingDirectory()).thenReturn(staging);
+        when(blobStore.storeFile(any(Path.class), anyString())).thenAnswer(invocation -> {
+            Path file = invocation.getArgument(0);
+            stored.set(ImageIO.read(file.toFile()));
+            long size = Files.size(file);
+            Files.delete(file);
+            return new BlobStore.StoredBlobRef("blobs/aa/bb/key" + invocation.getArgument(1), "key", size, true);
+        });
+        normalizer = new ImageNormalizer(properties, blobStore);
+    }
+
+    @Test
+    void formatComesFromTheContentNotTheFileName() throws IOException {
+        Path upload = write(encode(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png"));
+
+        BlobStore.StoredBlobRef blob = normalizer.storeFile(upload, ".jpg");
+
+        assertThat(blob.key()).endsWith(".png");
+        verify(blobStore).storeFile(any(Path.class), eq(".png"));
+        assertThat(upload).doesNotExist();
+    }
+
+    @Test
+    void oversizedImagesAreScaledDownToMaxDimension() throws IOException {
+        properties.setMaxDimension(100);
+        Path upload = write(encode(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png"));
+
+        normalizer.storeFile(upload, ".png");
+
+        assertThat(stored.get().getWidth()).isEqualTo(100);
+        assertThat(stored.get().getHeight()).isEqualTo(50);
+        assertThat(normalizer.stats().normalized()).isEqualTo(1);
+    }
+
+    @Test
+    void rotatedJpegIsStoredUpright() throws IOException {
+        byte[] jpeg = withExifOrientation(encode(new BufferedImage(60, 20, BufferedImage.TYPE_INT_RGB), "jpeg"), 6);
+
+        normalizer.storeFile(write(jpeg), ".jpg");
+
+        assertThat(stored.get().getWidth()).isEqualTo(20);
+        assertThat(stored.get().getHeight()).isEqualTo(60);
+    }
+
+    @Test
+    void stripJpegDropsExifAndReportsTheOrientation() throws IOException {
+        byte[] jpeg = withExifOrientation(encode(new BufferedImage(60, 20, BufferedImage.TYPE_INT_RGB), "jpeg"), 6);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int orientation = ImageNormalizer.stripJpeg(new ByteArrayInputStream(jpeg), out);
+
+        assertThat(orientation).isEqualTo(6);
+        assertThat(new String(out.toByteArray(), StandardCharsets.ISO_8859_1)).doesNotContain("Exif");
+        assertThat(ImageIO.read(new ByteArrayInputStream(out.toByteArray())).getWidth()).isEqualTo(60);
+    }
+
+    @Test
+    void unknownContentIsRejectedAndLeftInPlace() throws IOException {
+        Path upload = write("<?php echo 'hi'; ?>".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> normalizer.storeFile(upload, ".jpg"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(upload).exists();
+        verify(blobStore, never()).storeFile(any(Path.class), anyString());
+    }
+
+    @Test
+    void disabledNormalizationStoresTheFileAsDeclared() throws IOException {
+        properties.setEnabled(false);
+        Path upload = write("<?php echo 'hi'; ?>".getBytes(StandardCharsets.UTF_8));
+
+        normalizer.storeFile(upload, ".jpg");
+
+        verify(blobStore).storeFile(upload, ".jpg");
+    }
+
+    private Path write(byte[] content) throws IOException {
+        Path file = Files.createTempFile(staging, "upload-", ".part");
+        Files.write(file, content);
+        return file;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Inserts a big-endian APP1 EXIF segment holding only the orientation tag right after SOI.
+     */
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] payload = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 0x2A, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int length = payload.length + 2;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.write(payload, 0, payload.length);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+}
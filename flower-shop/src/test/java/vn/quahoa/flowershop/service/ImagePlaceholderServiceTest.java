@@ -0,0 +1,112 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import vn.quahoa.flowershop.model.ProductImage;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+class ImagePlaceholderServiceTest {
+
+    private static final String KEY = "blobs/aa/bb/key.png";
+    private static final String URL = "http://localhost:8080/images/" + KEY;
+
+    @TempDir
+    Path root;
+
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final ImagePlaceholderService service = new ImagePlaceholderService(blobStore);
+
+    @Test
+    void fillsDimensionsDominantColorAndBlurHash() throws IOException {
+        BufferedImage image = new BufferedImage(300, 100, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 300; x++) {
+                image.setRGB(x, y, x < 200 ? 0x2E7D32 : 0xE91E63);
+            }
+        }
+        Path file = root.resolve("key.png");
+        ImageIO.write(image, "png", file.toFile());
+        when(blobStore.keyOf(URL)).thenReturn(Optional.of(KEY));
+        when(blobStore.resolve(KEY)).thenReturn(file);
+
+        ProductImage productImage = new ProductImage();
+        productImage.setImageUrl(URL);
+        service.fill(productImage);
+
+        assertThat(productImage.getWidth()).isEqualTo(300);
+        assertThat(productImage.getHeight()).isEqualTo(100);
+        assertThat(productImage.getDominantColor()).isEqualTo("#2e7d32");
+        assertThat(productImage.getBlurHash()).hasSize(28).startsWith("L");
+    }
+
+    @Test
+    void dimensionsFollowTheExifOrientation() throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(60, 20, BufferedImage.TYPE_INT_RGB), "jpeg", jpeg);
+        Path file = root.resolve("rotated.jpg");
+        Files.write(file, withOrientation(jpeg.toByteArray(), 6));
+
+        ImagePlaceholderService.Placeholder placeholder = ImagePlaceholderService.compute(file);
+
+        assertThat(placeholder.width()).isEqualTo(20);
+        assertThat(placeholder.height()).isEqualTo(60);
+        // Portrait images get more vertical components
+        assertThat(placeholder.blurHash()).startsWith("T");
+    }
+
+    @Test
+    void imagesOutsideTheBlobStoreOrUndecodableGetNone() throws IOException {
+        when(blobStore.keyOf("https://cdn.example/rose.jpg")).thenReturn(Optional.empty());
+        assertThat(service.compute("https://cdn.example/rose.jpg")).isEmpty();
+
+        Path file = root.resolve("broken.png");
+        Files.writeString(file, "not an image");
+        when(blobStore.keyOf(URL)).thenReturn(Optional.of(KEY));
+        when(blobStore.resolve(KEY)).thenReturn(file);
+        assertThat(service.compute(URL)).isEmpty();
+    }
+
+    @Test
+    void dominantColorIsTheMostFrequentBucket() {
+        int[] pixels = {0xFF0000, 0x00FF00, 0x00FE00, 0x0000FF};
+
+        assertThat(ImagePlaceholderService.dominantColor(pixels)).isEqualTo("#00fe00");
+    }
+
+    /**
+     * Inserts a big-endian APP1 EXIF segment holding only the orientation tag right after SOI.
+     */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] payload = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 0x2A, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int length = payload.length + 2;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.write(payload, 0, payload.length);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+}
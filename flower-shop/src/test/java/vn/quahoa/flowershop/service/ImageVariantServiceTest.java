@@ -0,0 +1,108 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import vn.quahoa.flowershop.config.ImageVariantProperties;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.storage.ImageVariants;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path storage;
+
+    private ImageVariantService variantService;
+    private Path photo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setLocalPath(storage.toString());
+        variantService = new ImageVariantService(new ImageVariantProperties(), storageProperties);
+
+        photo = Files.createDirectories(storage.resolve("products")).resolve("rose.jpg");
+        ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "jpeg", photo.toFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void resizesToTheNextPresetAndCachesBesideTheOriginal() throws IOException {
+        Path variant = variantService.variant(photo, 300).orElseThrow();
+
+        assertThat(variant).isEqualTo(storage.resolve("products/_variants/rose_w320.jpg"));
+        BufferedImage image = ImageIO.read(variant.toFile());
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(240);
+        assertThat(Files.size(variant)).isLessThan(Files.size(photo));
+
+        assertThat(variantService.variant(photo, 320)).contains(variant);
+        assertThat(variantService.stats().generated()).isEqualTo(1);
+        assertThat(variantService.stats().hits()).isEqualTo(1);
+
+        ImageVariants.deleteVariants(photo);
+        assertThat(variant).doesNotExist();
+    }
+
+    @Test
+    void generatesEachVariantOnceUnderConcurrentRequests() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Path>>> responses = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                responses.add(clients.submit(() -> variantService.variant(photo, 640)));
+            }
+            for (Future<Optional<Path>> response : responses) {
+                assertThat(response.get()).isPresent();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertThat(variantService.stats().generated()).isEqualTo(1);
+    }
+
+    @Test
+    void servesOriginalsForUnsupportedOrForeignFiles() throws IOException {
+        Path outside = Files.createTempFile("outside", ".jpg");
+        try {
+            assertThat(variantService.variant(outside, 320)).isEmpty();
+        } finally {
+            Files.delete(outside);
+        }
+        Path webp = Files.write(storage.resolve("products/lily.webp"), new byte[] {1, 2, 3});
+        assertThat(variantService.variant(webp, 320)).isEmpty();
+        assertThat(variantService.variant(storage.resolve("products/missing.jpg"), 320)).isEmpty();
+    }
+
+    @Test
+    void validatesPresetUpdates() throws IOException {
+        assertThat(variantService.updatePresets(List.of(800, 200, 200))).containsExactly(200, 800);
+        assertThat(variantService.variant(photo, 5000).orElseThrow().getFileName().toString()).isEqualTo("rose_w800.jpg");
+
+        assertThatThrownBy(() -> variantService.updatePresets(List.of(8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
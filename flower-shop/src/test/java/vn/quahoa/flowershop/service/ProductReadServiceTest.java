@@ -0,0 +1,152 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import jakarta.persistence.EntityManagerFactory;
+import vn.quahoa.flowershop.dto.product.ProductField;
+import vn.quahoa.flowershop.dto.product.ProductResponse;
+import vn.quahoa.flowershop.model.Category;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.model.ProductImage;
+
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductReadService.class, ProductSearchService.class, SearchSupport.class})
+class ProductReadServiceTest {
+
+    private static final int IMAGES_PER_PRODUCT = 3;
+
+    @Autowired
+    private ProductReadService productReadService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Hoa hồng");
+        entityManager.persist(category);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 40})
+    void listingsWithinOneBatchUseTwoQueries(int productCount) {
+        persistProducts(productCount);
+        Statistics statistics = resetStatistics();
+
+        List<ProductResponse> all = productReadService.findAll();
+        assertThat(all).hasSize(productCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        List<ProductResponse> byCategory = productReadService.findByCategory(category.getId());
+        assertThat(byCategory).hasSize(productCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        List<ProductResponse> found = productReadService.search("code", 0, 100);
+        assertThat(found).hasSize(productCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        List<ProductResponse> byIds = productReadService.findByIds(all.stream().map(ProductResponse::getId).toList());
+        assertThat(byIds).hasSize(productCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void largeListingsTakeOneImageQueryPerBatch() {
+        // Just over one IN-list batch (500 ids)
+        int productCount = 501;
+        persistProducts(productCount);
+        Statistics statistics = resetStatistics();
+
+        List<ProductResponse> all = productReadService.findAll();
+        assertThat(all).hasSize(productCount);
+        assertThat(all).allSatisfy(product -> assertThat(product.getImages()).hasSize(IMAGES_PER_PRODUCT));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 2);
+
+        statistics.clear();
+        List<ProductResponse> byIds = productReadService.findByIds(all.stream().map(ProductResponse::getId).toList());
+        assertThat(byIds).hasSize(productCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2 + 2);
+    }
+
+    @Test
+    void responsesCarryCategoryAndImagesInOrder() {
+        persistProducts(2);
+        resetStatistics();
+
+        List<ProductResponse> all = productReadService.findAll();
+
+        ProductResponse first = all.get(0);
+        assertThat(first.getCategoryName()).isEqualTo("Hoa hồng");
+        assertThat(first.getImages()).hasSize(IMAGES_PER_PRODUCT);
+        assertThat(first.getImageUrls()).containsExactly("img-0-0.jpg", "img-0-1.jpg", "img-0-2.jpg");
+    }
+
+    @Test
+    void sparseFieldsetsSelectOnlyRequestedFields() {
+        persistProducts(3);
+        Statistics statistics = resetStatistics();
+
+        List<Map<String, Object>> grid = productReadService.findFields(ProductField.parse("name,price"), null, null);
+        assertThat(grid).hasSize(3);
+        assertThat(grid.get(0)).containsOnlyKeys("id", "name", "price");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        List<Map<String, Object>> withImages = productReadService.findFields(
+                ProductField.parse("categoryName,images"), category.getId(), null);
+        assertThat(withImages.get(0)).containsEntry("categoryName", "Hoa hồng");
+        assertThat((List<?>) withImages.get(0).get("images")).hasSize(IMAGES_PER_PRODUCT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private void persistProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setProductCode("CODE-" + i);
+            product.setName("Product " + i);
+            product.setPrice(100_000 + i);
+            product.setCategory(category);
+            for (int j = 0; j < IMAGES_PER_PRODUCT; j++) {
+                ProductImage image = new ProductImage();
+                image.setImageUrl("img-" + i + "-" + j + ".jpg");
+                image.setDisplayOrder(j);
+                product.addImage(image);
+            }
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,199 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import vn.quahoa.flowershop.cache.CatalogCache;
+import vn.quahoa.flowershop.cache.EncodedPayload;
+import vn.quahoa.flowershop.dto.product.ProductUpdateRequest;
+import vn.quahoa.flowershop.exception.PreconditionFailedException;
+import vn.quahoa.flowershop.model.Category;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.CategoryRepository;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ProductService.class, ProductReadService.class, ProductSearchService.class, SearchSupport.class})
+// Concurrent edits need their own committed transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductReadService productReadService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private CatalogCache catalogCache;
+
+    @MockitoBean
+    private ProductSuggestService productSuggestService;
+
+    @MockitoBean
+    private RemoteImageFetcher remoteImageFetcher;
+
+    @MockitoBean
+    private ImagePlaceholderService imagePlaceholderService;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Hoa hồng");
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setProductCode("ROSE-1");
+        product.setName("Red rose");
+        product.setPrice(100_000);
+        product.setCategory(category);
+        product.setMainImageUrl("http://localhost/uploads/products/old.jpg");
+        product = productRepository.save(product);
+        when(fileStorageService.getPublicUrl(anyString()))
+                .thenAnswer(invocation -> "http://localhost/uploads/" + invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void updatesWhenIfMatchIsCurrent() {
+        String etag = productReadService.productETag(product.getId());
+
+        productService.updateProduct(product.getId(), request("Red rose bouquet", null), "\"" + etag + "\"");
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("Red rose bouquet");
+        assertThat(productReadService.productETag(product.getId())).isNotEqualTo(etag);
+    }
+
+    @Test
+    void acceptsTheTagOfTheGzipBody() {
+        String etag = productReadService.productETag(product.getId());
+
+        productService.updateProduct(product.getId(), request("Red rose bouquet", null),
+                "\"" + etag + EncodedPayload.GZIP_ETAG_SUFFIX + "\"");
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("Red rose bouquet");
+    }
+
+    @Test
+    void rejectsAStaleIfMatch() {
+        String etag = productReadService.productETag(product.getId());
+        productService.updateProduct(product.getId(), request("Edited elsewhere", null), null);
+
+        assertThatThrownBy(() -> productService.updateProduct(product.getId(), request("Stale edit", null), "\"" + etag + "\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("Edited elsewhere");
+    }
+
+    @Test
+    void rejectsAnEditCommittedBetweenTheCheckAndTheSave() throws IOException {
+        String etag = productReadService.productETag(product.getId());
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // The main image download runs after If-Match was checked and before the product is saved
+        when(fileStorageService.saveFileFromUrl(anyString(), any())).thenAnswer(invocation -> {
+            concurrent.executeWithoutResult(status -> {
+                Product other = productRepository.findById(product.getId()).orElseThrow();
+                other.setName("Concurrent edit");
+                productRepository.save(other);
+            });
+            return "products/new.jpg";
+        });
+
+        assertThatThrownBy(() -> productService.updateProduct(product.getId(),
+                request("Lost update", "http://example.com/rose.jpg"), "\"" + etag + "\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getName()).isEqualTo("Concurrent edit");
+        // The product still shows the old image, only the download is given back
+        verify(fileStorageService, never()).deleteFileByUrl("http://localhost/uploads/products/old.jpg");
+        verify(fileStorageService).deleteFileByUrl("http://localhost/uploads/products/new.jpg");
+    }
+
+    @Test
+    void releasesTheReplacedImageOnceSaved() throws IOException {
+        when(fileStorageService.saveFileFromUrl(anyString(), any())).thenReturn("products/new.jpg");
+
+        productService.updateProduct(product.getId(), request("Red rose", "http://example.com/rose.jpg"), null);
+
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getMainImageUrl())
+                .isEqualTo("http://localhost/uploads/products/new.jpg");
+        verify(fileStorageService).deleteFileByUrl("http://localhost/uploads/products/old.jpg");
+        verify(fileStorageService, never()).deleteFileByUrl("http://localhost/uploads/products/new.jpg");
+    }
+
+    @Test
+    void keepsTheOldImageWhenTheDownloadFails() throws IOException {
+        when(fileStorageService.saveFileFromUrl(anyString(), any())).thenThrow(new IOException("404"));
+
+        assertThatThrownBy(() -> productService.updateProduct(product.getId(),
+                request("Red rose", "http://example.com/missing.jpg"), null))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getMainImageUrl())
+                .isEqualTo("http://localhost/uploads/products/old.jpg");
+        verify(fileStorageService, never()).deleteFileByUrl(anyString());
+    }
+
+    @Test
+    void attachingAMainImageReleasesTheOldOneOnlyOnCommit() throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            productService.attachMainProductImage(product.getId(), "products/failed.jpg");
+            status.setRollbackOnly();
+        });
+        verify(fileStorageService, never()).deleteFileByUrl(anyString());
+
+        transaction.executeWithoutResult(status -> productService.attachMainProductImage(product.getId(), "products/new.jpg"));
+        verify(fileStorageService).deleteFileByUrl("http://localhost/uploads/products/old.jpg");
+        verify(fileStorageService, never()).deleteFileByUrl("http://localhost/uploads/products/failed.jpg");
+    }
+
+    private ProductUpdateRequest request(String name, String imageUrl) {
+        ProductUpdateRequest request = new ProductUpdateRequest();
+        request.setProductCode("ROSE-1");
+        request.setName(name);
+        request.setPrice(120_000.0);
+        request.setCategoryId(category.getId());
+        request.setImageUrl(imageUrl);
+        return request;
+    }
+}
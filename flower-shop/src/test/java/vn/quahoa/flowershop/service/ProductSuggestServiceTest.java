@@ -0,0 +1,93 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import vn.quahoa.flowershop.dto.product.ProductSuggestion;
+import vn.quahoa.flowershop.model.Product;
+import vn.quahoa.flowershop.repository.ProductRepository;
+
+class ProductSuggestServiceTest {
+
+    private final ProductSuggestService suggestService = new ProductSuggestService(mock(ProductRepository.class));
+
+    @Test
+    void matchesAnyWordOfTheFoldedNameAndTheCode() {
+        suggestService.productSaved(product(1L, "HH01", "Hoa Hồng Đỏ"));
+        suggestService.productSaved(product(2L, "LN02", "Lan Hồ Điệp"));
+
+        assertThat(ids("hồng")).containsExactly(1L);
+        assertThat(ids("ho")).containsExactly(2L, 1L);
+        assertThat(ids("hong d")).containsExactly(1L);
+        assertThat(ids("ln")).containsExactly(2L);
+        assertThat(ids("xyz")).isEmpty();
+    }
+
+    @Test
+    void ranksByViewsThenNewest() {
+        suggestService.productSaved(product(1L, "A1", "Hoa cúc"));
+        suggestService.productSaved(product(2L, "A2", "Hoa ly"));
+        suggestService.productSaved(product(3L, "A3", "Hoa lan"));
+        suggestService.recordView(1L);
+
+        assertThat(ids("hoa")).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void returnsTheMostViewedMatchesOfTheWholeCatalog() {
+        for (long id = 1; id <= 6_000; id++) {
+            suggestService.productSaved(product(id, "P" + id, String.format("Hoa %05d", id)));
+        }
+        // Last in name order, first by views
+        suggestService.recordView(6_000L);
+        suggestService.recordView(6_000L);
+        suggestService.recordView(2L);
+
+        assertThat(suggestService.suggest("h", 3).stream().map(ProductSuggestion::id).toList())
+                .containsExactly(6_000L, 2L, 5_999L);
+    }
+
+    @Test
+    void removingAListedProductBringsInTheNextMatch() {
+        for (long id = 1; id <= ProductSuggestService.MAX_LIMIT + 1; id++) {
+            suggestService.productSaved(product(id, "P" + id, "Hoa " + id));
+        }
+        suggestService.recordView(1L);
+        suggestService.productRemoved(ProductSuggestService.MAX_LIMIT + 1L);
+
+        List<Long> ids = suggestService.suggest("hoa", ProductSuggestService.MAX_LIMIT).stream()
+                .map(ProductSuggestion::id).toList();
+        assertThat(ids).hasSize(ProductSuggestService.MAX_LIMIT).startsWith(1L).doesNotContain(ProductSuggestService.MAX_LIMIT + 1L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldTerms() {
+        Product product = product(1L, "A1", "Hoa cúc");
+        suggestService.productSaved(product);
+        product.setName("Hoa mai");
+        suggestService.productSaved(product);
+
+        assertThat(ids("cuc")).isEmpty();
+        assertThat(ids("mai")).containsExactly(1L);
+
+        suggestService.productRemoved(1L);
+        assertThat(ids("hoa")).isEmpty();
+    }
+
+    private List<Long> ids(String query) {
+        return suggestService.suggest(query, 10).stream().map(ProductSuggestion::id).toList();
+    }
+
+    private static Product product(Long id, String code, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductCode(code);
+        product.setName(name);
+        product.setPrice(100_000);
+        return product;
+    }
+}
@@ -0,0 +1,138 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+import vn.quahoa.flowershop.model.RemoteImage;
+import vn.quahoa.flowershop.repository.RemoteImageRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+class RemoteImageCacheTest {
+
+    private static final byte[] ROSE = "rose image bytes".getBytes();
+    private static final String KEY = "blobs/ab/cd/" + "ab".repeat(32) + ".jpg";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger conditionalRequests = new AtomicInteger();
+    private final Map<String, RemoteImage> index = new ConcurrentHashMap<>();
+    private final BlobStore blobStore = mock(BlobStore.class);
+
+    private HttpServer server;
+    private ImageDownloadProperties properties;
+    private RemoteImageCache remoteImageCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/rose.jpg", exchange -> {
+            requests.incrementAndGet();
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                conditionalRequests.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            try {
+                // Slow enough for concurrent callers to pile up
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, ROSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(ROSE);
+            }
+        });
+        server.start();
+
+        when(blobStore.store(any(InputStream.class), anyString())).thenAnswer(invocation -> {
+            invocation.getArgument(0, InputStream.class).readAllBytes();
+            return new BlobStore.StoredBlobRef(KEY, "ab".repeat(32), ROSE.length, true);
+        });
+        when(blobStore.retain(KEY)).thenReturn(true);
+
+        RemoteImageRepository repository = mock(RemoteImageRepository.class);
+        when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(index.get(invocation.getArgument(0, String.class))));
+        when(repository.save(any(RemoteImage.class))).thenAnswer(invocation -> {
+            RemoteImage image = invocation.getArgument(0);
+            index.put(image.getUrlHash(), image);
+            return image;
+        });
+
+        properties = new ImageDownloadProperties();
+        remoteImageCache = new RemoteImageCache(properties, new ImageDownloadService(properties), blobStore, repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentFetchesOfOneUrlShareOneDownload() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BlobStore.StoredBlobRef>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> remoteImageCache.fetch(url())));
+            }
+            for (Future<BlobStore.StoredBlobRef> result : results) {
+                assertThat(result.get().key()).isEqualTo(KEY);
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(remoteImageCache.stats().downloads()).isEqualTo(1);
+        // One reference per caller: the download's own plus one retain for each of the others
+        verify(blobStore, times(7)).retain(KEY);
+    }
+
+    @Test
+    void revalidatesStaleEntriesWithConditionalGet() throws IOException {
+        properties.setCacheFreshFor(Duration.ZERO);
+
+        remoteImageCache.fetch(url());
+        BlobStore.StoredBlobRef again = remoteImageCache.fetch(url());
+
+        assertThat(again.key()).isEqualTo(KEY);
+        assertThat(conditionalRequests.get()).isEqualTo(1);
+        assertThat(remoteImageCache.stats().revalidated()).isEqualTo(1);
+        verify(blobStore, times(1)).store(any(InputStream.class), anyString());
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/rose.jpg";
+    }
+}
@@ -0,0 +1,110 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import vn.quahoa.flowershop.config.ImageDownloadProperties;
+
+class RemoteImageFetcherTest {
+
+    @Test
+    void keepsRequestOrderAndReportsFailures() {
+        RemoteImageFetcher fetcher = fetcher(4, Duration.ofSeconds(5));
+
+        List<RemoteImageFetcher.Result> results = fetcher.fetchAll(List.of("a", "bad", "c"), url -> {
+            if (url.equals("bad")) {
+                throw new IOException("HTTP 404");
+            }
+            return "stored/" + url;
+        }, stored -> { });
+
+        assertThat(results).extracting(RemoteImageFetcher.Result::stored).containsExactly("stored/a", null, "stored/c");
+        assertThat(results.get(1).error()).isEqualTo("HTTP 404");
+    }
+
+    @Test
+    void neverRunsMoreThanTheConcurrencyCap() {
+        RemoteImageFetcher fetcher = fetcher(2, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<RemoteImageFetcher.Result> results = fetcher.fetchAll(List.of("1", "2", "3", "4", "5", "6"), url -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return url;
+        }, stored -> { });
+
+        assertThat(results).allMatch(RemoteImageFetcher.Result::succeeded);
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void cancelsDownloadsStillRunningAtTheDeadline() {
+        RemoteImageFetcher fetcher = fetcher(4, Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        List<RemoteImageFetcher.Result> results = fetcher.fetchAll(List.of("fast", "slow"), url -> {
+            if (url.equals("slow")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    throw new IOException("interrupted", e);
+                }
+            }
+            return url;
+        }, stored -> { });
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThat(results.get(1).succeeded()).isFalse();
+        assertThat(results.get(1).error()).startsWith("Timed out");
+    }
+
+    @Test
+    void releasesWhatADownloadStoresAfterItWasCancelled() throws InterruptedException {
+        RemoteImageFetcher fetcher = fetcher(4, Duration.ofMillis(100));
+        List<String> discarded = new CopyOnWriteArrayList<>();
+        CountDownLatch released = new CountDownLatch(1);
+
+        List<RemoteImageFetcher.Result> results = fetcher.fetchAll(List.of("fast", "late"), url -> {
+            if (url.equals("late")) {
+                // Ignores the interrupt, like a blob store commit that is already under way
+                long until = System.nanoTime() + Duration.ofMillis(300).toNanos();
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+            }
+            return "stored/" + url;
+        }, stored -> {
+            discarded.add(stored);
+            released.countDown();
+        });
+
+        assertThat(results).extracting(RemoteImageFetcher.Result::stored).containsExactly("stored/fast", null);
+        // The late download finishes after fetchAll returned and releases its own image
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(discarded).containsExactly("stored/late");
+    }
+
+    private static RemoteImageFetcher fetcher(int maxConcurrency, Duration deadline) {
+        ImageDownloadProperties properties = new ImageDownloadProperties();
+        properties.setMaxConcurrency(maxConcurrency);
+        properties.setDeadline(deadline);
+        return new RemoteImageFetcher(properties);
+    }
+}
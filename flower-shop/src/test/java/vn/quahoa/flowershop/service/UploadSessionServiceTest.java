@@ -0,0 +1,119 @@
+package vn.quahoa.flowershop.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import vn.quahoa.flowershop.config.ImageNormalizationProperties;
+import vn.quahoa.flowershop.config.UploadProperties;
+import vn.quahoa.flowershop.exception.ConflictException;
+import vn.quahoa.flowershop.model.UploadSession;
+import vn.quahoa.flowershop.repository.UploadSessionRepository;
+import vn.quahoa.flowershop.storage.BlobStore;
+
+class UploadSessionServiceTest {
+
+    private static final String ID = "0b6f7a52-5d3e-4c43-9d5c-2f0f4f6f1a11";
+    private static final byte[] FIRST = "first chunk ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SECOND = "second chunk".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path staging;
+
+    private final UploadSessionRepository repository = mock(UploadSessionRepository.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final ProductService productService = mock(ProductService.class);
+    private UploadSessionService uploadSessionService;
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        session = new UploadSession();
+        session.setId(ID);
+        session.setTargetType(UploadSession.Target.PRODUCT);
+        session.setTargetId(7L);
+        session.setFileName("rose.jpg");
+        session.setTotalSize(FIRST.length + SECOND.length);
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+
+        when(repository.findById(ID)).thenReturn(Optional.of(session));
+        when(repository.save(any(UploadSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(blobStore.stagingDirectory()).thenReturn(staging);
+
+        ImageNormalizationProperties normalization = new ImageNormalizationProperties();
+        normalization.setEnabled(false);
+        uploadSessionService = new UploadSessionService(repository, new UploadProperties(), blobStore,
+                new ImageNormalizer(normalization, blobStore), productService, mock(BlogService.class),
+                mock(ImageStorageService.class));
+    }
+
+    @Test
+    void appendsChunksAtTheCurrentOffsetAndAttachesOnCompletion() throws Exception {
+        uploadSessionService.appendChunk(ID, 0, checksum(FIRST), new ByteArrayInputStream(FIRST));
+        assertThatThrownBy(() -> uploadSessionService.appendChunk(ID, 0, checksum(SECOND), new ByteArrayInputStream(SECOND)))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> uploadSessionService.complete(ID))
+                .isInstanceOf(ConflictException.class);
+
+        uploadSessionService.appendChunk(ID, FIRST.length, checksum(SECOND), new ByteArrayInputStream(SECOND));
+        Path part = staging.resolve("sessions/" + ID + ".part");
+        assertThat(Files.readString(part)).isEqualTo("first chunk second chunk");
+
+        when(blobStore.storeFile(part, ".jpg")).thenReturn(new BlobStore.StoredBlobRef("blobs/aa/bb/key.jpg", "ab", 24, true));
+        when(productService.attachProductImage(7L, "blobs/aa/bb/key.jpg", "rose.jpg")).thenReturn("http://localhost/images/key.jpg");
+
+        UploadSession completed = uploadSessionService.complete(ID);
+        assertThat(completed.getStatus()).isEqualTo(UploadSession.Status.COMPLETED);
+        assertThat(completed.getImageUrl()).isEqualTo("http://localhost/images/key.jpg");
+        // Completing again is harmless
+        assertThat(uploadSessionService.complete(ID).getImageUrl()).isEqualTo("http://localhost/images/key.jpg");
+        verify(blobStore).storeFile(eq(part), anyString());
+    }
+
+    @Test
+    void discardsCorruptedChunkWithoutAdvancingTheOffset() throws Exception {
+        assertThatThrownBy(() -> uploadSessionService.appendChunk(ID, 0, checksum(SECOND), new ByteArrayInputStream(FIRST)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(session.getReceivedBytes()).isZero();
+        assertThat(Files.size(staging.resolve("sessions/" + ID + ".part"))).isZero();
+
+        uploadSessionService.appendChunk(ID, 0, checksum(FIRST), new ByteArrayInputStream(FIRST));
+        assertThat(session.getReceivedBytes()).isEqualTo(FIRST.length);
+    }
+
+    @Test
+    void rejectsChunksPastTheDeclaredSize() {
+        byte[] tooLong = new byte[FIRST.length + SECOND.length + 1];
+
+        assertThatThrownBy(() -> uploadSessionService.appendChunk(ID, 0, checksum(tooLong), new ByteArrayInputStream(tooLong)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> uploadSessionService.appendChunk(ID, 0, "md5 abc", new ByteArrayInputStream(FIRST)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(session.getReceivedBytes()).isZero();
+    }
+
+    private static String checksum(byte[] chunk) throws NoSuchAlgorithmException {
+        return "sha256 " + Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(chunk));
+    }
+}
@@ -0,0 +1,110 @@
+package vn.quahoa.flowershop.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import vn.quahoa.flowershop.config.ImageMemoryCacheProperties;
+
+class ImageMemoryCacheTest {
+
+    @TempDir
+    Path storage;
+
+    private final ImageMemoryCacheProperties properties = new ImageMemoryCacheProperties();
+
+    @Test
+    void servesReadOnlyDirectViewsAndCountsHits() throws IOException {
+        ImageMemoryCache cache = new ImageMemoryCache(properties);
+        Path file = write("thumb.png", "0123456789");
+
+        ByteBuffer first = get(cache, file).orElseThrow();
+        first.position(5);
+        ByteBuffer second = get(cache, file).orElseThrow();
+
+        assertThat(first.isDirect()).isTrue();
+        assertThat(first.isReadOnly()).isTrue();
+        assertThat(second.position()).isZero();
+        assertThat(StandardCharsets.UTF_8.decode(second).toString()).isEqualTo("0123456789");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondTheByteBudget() throws IOException {
+        properties.setMaxBytes(DataSize.ofBytes(25));
+        ImageMemoryCache cache = new ImageMemoryCache(properties);
+        Path a = write("a.png", "aaaaaaaaaa");
+        Path b = write("b.png", "bbbbbbbbbb");
+        Path c = write("c.png", "cccccccccc");
+
+        get(cache, a);
+        get(cache, b);
+        get(cache, a);
+        get(cache, c);
+
+        assertThat(cache.stats().residentBytes()).isEqualTo(20);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        get(cache, a);
+        get(cache, b);
+        assertThat(cache.stats().hits()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsLargeFilesAndDisabledCache() throws IOException {
+        properties.setMaxFileSize(DataSize.ofBytes(5));
+        Path file = write("large.png", "0123456789");
+        assertThat(get(new ImageMemoryCache(properties), file)).isEmpty();
+
+        Path small = write("small.png", "0123");
+        assertThat(get(ImageMemoryCache.disabled(), small)).isEmpty();
+    }
+
+    @Test
+    void invalidateDropsTheFileAndItsVariants() throws IOException {
+        ImageMemoryCache cache = new ImageMemoryCache(properties);
+        Path original = write("rose.jpg", "original");
+        Path variant = Files.createDirectories(storage.resolve(ImageVariants.VARIANT_DIR)).resolve("rose_w320.jpg");
+        Files.writeString(variant, "variant");
+        Path other = write("tulip.jpg", "other");
+        get(cache, original);
+        get(cache, variant);
+        get(cache, other);
+
+        cache.invalidate(original);
+
+        assertThat(cache.stats().entries()).isEqualTo(1);
+        assertThat(cache.stats().residentBytes()).isEqualTo(5);
+        assertThat(cache.stats().invalidations()).isEqualTo(2);
+    }
+
+    @Test
+    void changedFileIsReadAgain() throws IOException {
+        ImageMemoryCache cache = new ImageMemoryCache(properties);
+        Path file = write("thumb.png", "old");
+        get(cache, file);
+
+        Files.writeString(file, "newer");
+
+        assertThat(StandardCharsets.UTF_8.decode(get(cache, file).orElseThrow()).toString()).isEqualTo("newer");
+        assertThat(cache.stats().residentBytes()).isEqualTo(5);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(storage.resolve(name), content);
+    }
+
+    private static Optional<ByteBuffer> get(ImageMemoryCache cache, Path file) throws IOException {
+        return cache.get(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+}
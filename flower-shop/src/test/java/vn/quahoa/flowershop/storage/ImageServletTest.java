@@ -0,0 +1,170 @@
+package vn.quahoa.flowershop.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+
+import jakarta.servlet.ServletException;
+import vn.quahoa.flowershop.config.ImageMemoryCacheProperties;
+import vn.quahoa.flowershop.config.ImageVariantProperties;
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.service.ImageVariantService;
+
+class ImageServletTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String KEY = "blobs/ab/ab/" + HASH + ".png";
+
+    @TempDir
+    Path storage;
+
+    private ImageVariantService variantService;
+    private ImageServlet servlet;
+
+    @BeforeEach
+    void setUp() throws IOException, ServletException {
+        Path blob = Files.createDirectories(storage.resolve("blobs/ab/ab")).resolve(HASH + ".png");
+        Files.write(blob, "0123456789".getBytes());
+        Files.write(storage.resolve(".download-1.tmp"), new byte[] {1});
+        Files.write(Files.createDirectories(storage.resolve(".storage-gc/quarantine")).resolve("old.png"), new byte[] {1});
+
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setLocalPath(storage.toString());
+        variantService = new ImageVariantService(new ImageVariantProperties(), storageProperties);
+        servlet = new ImageServlet(storage, variantService);
+        servlet.init(new MockServletConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void servesWholeFileWithImmutableCachingAndStrongEtag() throws Exception {
+        MockHttpServletResponse response = get(KEY);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + HASH + "\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo(ImageServlet.IMMUTABLE);
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getHeader("Last-Modified")).isNotNull();
+    }
+
+    @Test
+    void answersConditionalRequestsWith304() throws Exception {
+        MockHttpServletRequest request = request(KEY);
+        request.addHeader("If-None-Match", "W/\"other\", \"" + HASH + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesSingleRanges() throws Exception {
+        MockHttpServletRequest request = request(KEY);
+        request.addHeader("Range", "bytes=2-4");
+        MockHttpServletResponse response = serve(request);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-4/10");
+        assertThat(response.getContentAsString()).isEqualTo("234");
+
+        request = request(KEY);
+        request.addHeader("Range", "bytes=-3");
+        assertThat(serve(request).getContentAsString()).isEqualTo("789");
+
+        request = request(KEY);
+        request.addHeader("Range", "bytes=10-");
+        response = serve(request);
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeNoLongerMatches() throws Exception {
+        MockHttpServletRequest request = request(KEY);
+        request.addHeader("Range", "bytes=2-4");
+        request.addHeader("If-Range", "\"stale\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void refusesPathsOutsideTheStoreAndHiddenFiles() throws Exception {
+        assertThat(get("../secret.png").getStatus()).isEqualTo(404);
+        assertThat(get(".download-1.tmp").getStatus()).isEqualTo(404);
+        assertThat(get(".storage-gc/quarantine/old.png").getStatus()).isEqualTo(404);
+        assertThat(get("blobs").getStatus()).isEqualTo(404);
+        assertThat(get("missing.png").getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void redirectsMovedLegacyPaths() throws Exception {
+        servlet = new ImageServlet(storage, variantService,
+                path -> path.equals("products/old.png") ? Optional.of(KEY) : Optional.empty());
+        servlet.init(new MockServletConfig());
+        MockHttpServletRequest request = request("products/old.png");
+        request.setQueryString("w=320");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(301);
+        assertThat(response.getHeader("Location")).isEqualTo("/images/" + KEY + "?w=320");
+        assertThat(get("products/other.png").getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void servesSmallFilesFromTheMemoryCacheUntilTheyChange() throws Exception {
+        ImageMemoryCache memoryCache = new ImageMemoryCache(new ImageMemoryCacheProperties());
+        servlet = new ImageServlet(storage, variantService, path -> Optional.empty(), memoryCache);
+        servlet.init(new MockServletConfig());
+
+        assertThat(get(KEY).getContentAsString()).isEqualTo("0123456789");
+        MockHttpServletRequest request = request(KEY);
+        request.addHeader("Range", "bytes=2-4");
+        assertThat(serve(request).getContentAsString()).isEqualTo("234");
+        assertThat(memoryCache.stats().hits()).isEqualTo(1);
+        assertThat(memoryCache.stats().residentBytes()).isEqualTo(10);
+
+        Path legacy = Files.createDirectories(storage.resolve("products")).resolve("rose.png");
+        Files.write(legacy, "old".getBytes());
+        assertThat(get("products/rose.png").getContentAsString()).isEqualTo("old");
+        Files.write(legacy, "newer".getBytes());
+        assertThat(get("products/rose.png").getContentAsString()).isEqualTo("newer");
+    }
+
+    private MockHttpServletResponse get(String path) throws Exception {
+        return serve(request(path));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + path);
+        request.setServletPath("/images");
+        request.setPathInfo("/" + path);
+        return request;
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,126 @@
+package vn.quahoa.flowershop.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.quahoa.flowershop.config.StorageProperties;
+import vn.quahoa.flowershop.repository.StoredBlobRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+// The store commits its own transactions, which a rolled back test transaction would not undo
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LocalBlobStoreTest {
+
+    private static final byte[] ROSE = "rose image bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path storage;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties properties = new StorageProperties();
+        properties.setLocalPath(storage.toString());
+        properties.setBaseUrl("http://localhost:8081/images");
+        blobStore = new LocalBlobStore(properties, storedBlobRepository, transactionManager);
+        storedBlobRepository.deleteAll();
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws IOException {
+        BlobStore.StoredBlobRef first = blobStore.store(new ByteArrayInputStream(ROSE), ".JPG");
+        BlobStore.StoredBlobRef second = blobStore.store(new ByteArrayInputStream(ROSE), ".png");
+
+        assertThat(first.created()).isTrue();
+        assertThat(second.created()).isFalse();
+        assertThat(second.key()).isEqualTo(first.key());
+        assertThat(first.key()).matches("blobs/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg");
+        assertThat(Files.readAllBytes(blobStore.resolve(first.key()))).isEqualTo(ROSE);
+        assertThat(storedBlobRepository.findById(first.hash()).orElseThrow().getRefCount()).isEqualTo(2);
+        assertThat(Files.list(storage.resolve("blobs/tmp"))).isEmpty();
+    }
+
+    @Test
+    void recordsNothingWhenTheFileCannotBeMovedIntoPlace() throws IOException {
+        String hash = HexFormat.of().formatHex(sha256(ROSE));
+        // A file where the blob's directory should be
+        Files.createDirectories(storage.resolve("blobs"));
+        Files.write(storage.resolve("blobs").resolve(hash.substring(0, 2)), new byte[0]);
+
+        assertThatThrownBy(() -> blobStore.store(new ByteArrayInputStream(ROSE), ".jpg")).isInstanceOf(IOException.class);
+        assertThat(storedBlobRepository.findById(hash)).isEmpty();
+
+        Files.delete(storage.resolve("blobs").resolve(hash.substring(0, 2)));
+        BlobStore.StoredBlobRef blob = blobStore.store(new ByteArrayInputStream(ROSE), ".jpg");
+        assertThat(blob.created()).isTrue();
+        assertThat(Files.readAllBytes(blobStore.resolve(blob.key()))).isEqualTo(ROSE);
+    }
+
+    @Test
+    void deletesFileWithTheLastReference() throws IOException {
+        String key = blobStore.store(new ByteArrayInputStream(ROSE), ".jpg").key();
+        blobStore.store(new ByteArrayInputStream(ROSE), ".jpg");
+
+        assertThat(blobStore.release(key)).isFalse();
+        assertThat(blobStore.resolve(key)).exists();
+
+        assertThat(blobStore.release(key)).isTrue();
+        assertThat(blobStore.resolve(key)).doesNotExist();
+        assertThat(storedBlobRepository.count()).isZero();
+        assertThat(blobStore.retain(key)).isFalse();
+    }
+
+    @Test
+    void evictsLeakedBlobsOnlyOnceTheGracePeriodIsOver() throws IOException {
+        String key = blobStore.store(new ByteArrayInputStream(ROSE), ".jpg").key();
+
+        assertThat(blobStore.evict(key, LocalDateTime.now().minusHours(1), Files::delete)).isFalse();
+        assertThat(blobStore.resolve(key)).exists();
+
+        assertThat(blobStore.evict(key, LocalDateTime.now().plusSeconds(1), Files::delete)).isTrue();
+        assertThat(blobStore.resolve(key)).doesNotExist();
+        assertThat(storedBlobRepository.count()).isZero();
+    }
+
+    @Test
+    void findsKeysInPublicUrls() throws IOException {
+        String key = blobStore.store(new ByteArrayInputStream(ROSE), ".webp").key();
+
+        assertThat(blobStore.keyOf(blobStore.publicUrl(key))).contains(key);
+        assertThat(blobStore.keyOf("http://localhost:8081/images/products/abc.jpg")).isEmpty();
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
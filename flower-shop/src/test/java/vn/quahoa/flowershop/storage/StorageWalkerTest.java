@@ -0,0 +1,54 @@
+package vn.quahoa.flowershop.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StorageWalkerTest {
+
+    @TempDir
+    Path storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (String path : List.of("products/a.jpg", "products/b.jpg", "products-old/c.jpg",
+                "products/_variants/a_w320.jpg", "blobs/ab/cd/x.jpg", "blobs/tmp/upload-1.tmp",
+                "blogs/1/main/main_1.jpg", ".storage-gc/cursor", "products/.download-2.tmp")) {
+            Path file = storage.resolve(path);
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[] {1});
+        }
+    }
+
+    @Test
+    void walksInBatchesAndResumesAfterTheCursor() throws IOException {
+        StorageWalker walker = new StorageWalker(storage);
+        List<String> walked = new ArrayList<>();
+        String cursor = "";
+        List<String> batch;
+        do {
+            batch = walker.nextBatch(cursor, 2);
+            walked.addAll(batch);
+            if (!batch.isEmpty()) {
+                cursor = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == 2);
+
+        assertThat(walked).containsExactly("blobs/ab/cd/x.jpg", "blogs/1/main/main_1.jpg",
+                "products/a.jpg", "products/b.jpg", "products-old/c.jpg");
+    }
+
+    @Test
+    void resumesFromACursorWhoseFileIsGone() throws IOException {
+        assertThat(new StorageWalker(storage).nextBatch("products/a0.jpg", 10))
+                .containsExactly("products/b.jpg", "products-old/c.jpg");
+    }
+}
@@ -0,0 +1,27 @@
+package vn.quahoa.flowershop.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsListedCodingsWithAPositiveWeight() {
+        assertThat(AcceptEncoding.accepts("gzip, deflate, br", "gzip")).isTrue();
+        assertThat(AcceptEncoding.accepts("br;q=1.0, GZIP;q=0.5", "gzip")).isTrue();
+        assertThat(AcceptEncoding.accepts("x-gzip", "gzip")).isTrue();
+        assertThat(AcceptEncoding.accepts("*", "gzip")).isTrue();
+    }
+
+    @Test
+    void rejectsZeroWeightsAndMissingCodings() {
+        assertThat(AcceptEncoding.accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("br, gzip; q=0.000", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("*, gzip;q=0", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("*;q=0", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("identity", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("gzipped", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts(null, "gzip")).isFalse();
+    }
+}
@@ -0,0 +1,60 @@
+package vn.quahoa.flowershop.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class BlurHashTest {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Test
+    void encodesSizeFlagAndAverageColor() {
+        int[] pixels = new int[16 * 16];
+        Arrays.fill(pixels, 0xFF0000);
+
+        String hash = BlurHash.encode(pixels, 16, 16, 4, 3);
+
+        // 1 size flag + 1 maximum + 4 DC + 2 per AC component
+        assertThat(hash).hasSize(6 + 2 * 11);
+        assertThat(decode83(hash.substring(0, 1))).isEqualTo((4 - 1) + (3 - 1) * 9);
+        assertThat(decode83(hash.substring(2, 6))).isEqualTo(0xFF0000);
+    }
+
+    @Test
+    void differentImagesGiveDifferentHashes() {
+        int[] gradient = new int[32 * 32];
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                int value = x * 255 / 31;
+                gradient[y * 32 + x] = value << 16 | value << 8 | value;
+            }
+        }
+        int[] flipped = new int[gradient.length];
+        for (int i = 0; i < gradient.length; i++) {
+            flipped[i] = gradient[i - i % 32 + 31 - i % 32];
+        }
+
+        assertThat(BlurHash.encode(gradient, 32, 32, 4, 3)).isNotEqualTo(BlurHash.encode(flipped, 32, 32, 4, 3));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> BlurHash.encode(new int[4], 2, 2, 10, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BlurHash.encode(new int[3], 2, 2, 4, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int decode83(String value) {
+        int result = 0;
+        for (char c : value.toCharArray()) {
+            result = result * 83 + BASE83.indexOf(c);
+        }
+        return result;
+    }
+}
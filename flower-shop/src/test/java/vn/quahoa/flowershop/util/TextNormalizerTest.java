@@ -0,0 +1,29 @@
+package vn.quahoa.flowershop.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertThat(TextNormalizer.fold("Hoa Hồng")).isEqualTo("hoa hong");
+        assertThat(TextNormalizer.fold("Cẩm tú cầu")).isEqualTo("cam tu cau");
+        assertThat(TextNormalizer.fold("Hướng dương")).isEqualTo("huong duong");
+        assertThat(TextNormalizer.fold("Đà Lạt đỏ")).isEqualTo("da lat do");
+    }
+
+    @Test
+    void collapsesWhitespaceAndHandlesNull() {
+        assertThat(TextNormalizer.fold("  Lan   Hồ  Điệp ")).isEqualTo("lan ho diep");
+        assertThat(TextNormalizer.fold(null)).isEmpty();
+    }
+
+    @Test
+    void foldsOnlyThePartsThatArePresent() {
+        assertThat(TextNormalizer.foldAll("Cách cắm hoa", null)).isEqualTo("cach cam hoa");
+        assertThat(TextNormalizer.foldAll("Hoa Hồng", "HH01")).isEqualTo("hoa hong hh01");
+        assertThat(TextNormalizer.foldAll(null, null)).isEmpty();
+    }
+}
@@ -9,6 +9,8 @@ export default {
 	products: {
 		getAll: () => `${API_BASE_URL}/products`,
 		getById: (id) => `${API_BASE_URL}/products/${id}`,
+		suggest: () => `${API_BASE_URL}/products/suggest`,
+		batch: () => `${API_BASE_URL}/products/batch`,
 		create: () => `${API_BASE_URL}/products`,
 		update: (id) => `${API_BASE_URL}/products/${id}`,
 		delete: (id) => `${API_BASE_URL}/products/${id}`,
@@ -20,6 +20,19 @@ function getAuthHeaders() {
   return {}
 }
 
+/**
+ * URL of a resized copy of a stored image (served by /images/**?w=), other URLs unchanged
+ * @param {string} url - Image URL
+ * @param {number} width - Wanted width in px, rounded up to a server preset
+ * @returns {string} - Image URL
+ */
+export function imageVariantUrl(url, width) {
+  if (!url || !url.includes('/images/') || url.includes('?')) {
+    return url
+  }
+  return `${url}?w=${width}`
+}
+
 /**
  * Upload main product image
  * @param {number} productId - Product ID